@@ -2,12 +2,15 @@ package frc.team88.swerve;
 
 import com.ctre.phoenix.CANifier;
 import frc.team88.swerve.configuration.Configuration;
+import frc.team88.swerve.configuration.subconfig.ControlThreadConfiguration;
 import frc.team88.swerve.data.DataManager;
 import frc.team88.swerve.gyro.SwerveGyro;
+import frc.team88.swerve.motion.CapabilityEnvelope;
 import frc.team88.swerve.motion.SwerveChassis;
 import frc.team88.swerve.motion.state.OdomState;
 import frc.team88.swerve.motion.state.VelocityState;
 import frc.team88.swerve.tuning.TuningManager;
+import frc.team88.swerve.util.ControlThread;
 import java.util.Map;
 import java.util.Objects;
 
@@ -18,6 +21,7 @@ public class SwerveController {
   private final SwerveChassis chassis;
   private final TuningManager tuningManager;
   private final DataManager dataManager;
+  private final ControlThread controlThread;
 
   /**
    * Constructs the SwerveController using the given toml config.
@@ -30,7 +34,10 @@ public class SwerveController {
     this.config = new Configuration(configPath);
     this.chassis = new SwerveChassis(this.config);
     this.tuningManager = new TuningManager(this.config);
-    this.dataManager = new DataManager(this.config, this.chassis, this.tuningManager);
+    this.controlThread = this.createControlThread();
+    this.dataManager =
+        new DataManager(this.config, this.chassis, this.tuningManager, this.controlThread);
+    this.start();
   }
 
   /**
@@ -45,18 +52,64 @@ public class SwerveController {
     this.config = new Configuration(configPath, gyro);
     this.chassis = new SwerveChassis(this.config);
     this.tuningManager = new TuningManager(this.config);
-    this.dataManager = new DataManager(this.config, this.chassis, this.tuningManager);
+    this.controlThread = this.createControlThread();
+    this.dataManager =
+        new DataManager(this.config, this.chassis, this.tuningManager, this.controlThread);
+    this.start();
   }
 
   /**
    * Updates all controllers, data loggers, and anything else associated with this SwerveController.
+   * If the control thread is enabled in the config, the controllers are updated on that thread
+   * instead, and this does nothing. Telemetry is always published on its own thread.
    */
   public void update() {
+    if (Objects.isNull(this.controlThread)) {
+      this.runControlCycle();
+    }
+  }
+
+  /**
+   * Runs a single cycle of the control loop, from sampling the sensors to writing the motor
+   * commands.
+   */
+  private void runControlCycle() {
+    this.chassis.beginCycle();
     this.tuningManager.update();
     if (!this.tuningManager.isEnabled()) {
       this.chassis.update();
+    } else {
+      // Tuning modes may command the motors directly, so the last sent
+      // commands can't be trusted
+      this.config.getCommandWriter().invalidate();
+    }
+    this.chassis.endCycle();
+    this.dataManager.capture();
+  }
+
+  /**
+   * Creates the dedicated control thread, if it is enabled in the config.
+   *
+   * @return The control thread, which has not been started, or null if it is not enabled.
+   */
+  private ControlThread createControlThread() {
+    ControlThreadConfiguration threadConfig = this.config.getControlThreadConfig();
+    if (!threadConfig.isEnabled()) {
+      return null;
+    }
+    return new ControlThread(
+        this::runControlCycle, threadConfig.getPeriod(), threadConfig.getPriority());
+  }
+
+  /**
+   * Starts the telemetry publisher thread and the control thread, if there is one. Called once
+   * everything the control cycle uses has been constructed.
+   */
+  private void start() {
+    this.dataManager.start();
+    if (Objects.nonNull(this.controlThread)) {
+      this.controlThread.start();
     }
-    this.dataManager.update();
   }
 
   /**
@@ -158,12 +211,13 @@ public class SwerveController {
 
   /**
    * Offsets the yaw readings from the gyro so that the robot's current heading will be set to the
-   * given yaw.
+   * given yaw. If the gyro is fused into the odometry, this takes effect at the start of the next
+   * control cycle, and does not change the odometry's heading.
    *
    * @param yaw The yaw to offset the gyro to.
    */
   public void setGyroYaw(double yaw) {
-    this.getGyro().calibrateYaw(yaw);
+    this.chassis.calibrateGyroYaw(yaw);
   }
 
   /**
@@ -176,23 +230,39 @@ public class SwerveController {
   }
 
   /**
-   * Gets the maximum rotation speed if the drive is doing nothing else.
+   * Gets the maximum rotation speed about the current center of rotation if the drive is doing
+   * nothing else.
    *
-   * @return The maximum rotation speed, in feet per second.
+   * @return The maximum rotation speed, in degrees per second.
    */
   public double getMaxRotationSpeed() {
-    return this.chassis.getMaxTranslationSpeed();
+    return this.chassis.getMaxRotationSpeed();
+  }
+
+  /**
+   * Gets the precomputed limits of motion for this swerve drive, for use by path planners that
+   * need to query them frequently.
+   *
+   * @return The capability envelope.
+   */
+  public CapabilityEnvelope getCapabilityEnvelope() {
+    return this.config.getCapabilityEnvelope();
   }
 
   /**
    * Sets all motors on the swerve drive to coast. This is not recommended during driving, and is
-   * only provided the for ease of moving the modules while disabled.
+   * only provided the for ease of moving the modules while disabled. Takes effect at the end of the
+   * next control cycle, so {@link #update()} must still be called if the control thread is not
+   * enabled.
    */
   public void setCoast() {
     this.chassis.setCoast();
   }
 
-  /** Sets all motors on the swerve drive to brake. This is the default behavior. */
+  /**
+   * Sets all motors on the swerve drive to brake. This is the default behavior. Takes effect at the
+   * end of the next control cycle.
+   */
   public void setBrake() {
     this.chassis.setBrake();
   }
@@ -226,6 +296,47 @@ public class SwerveController {
     return this.chassis.getOdomState();
   }
 
+  /**
+   * Adds a robot pose measured by a vision system. Because vision measurements arrive late, the
+   * odometry is corrected at the time the measurement was captured and then replayed forward to
+   * the present. The correction is applied on the next update. Safe to call from any thread.
+   *
+   * @param x The measured x position, in feet.
+   * @param y The measured y position, in feet.
+   * @param theta The measured heading, in degrees.
+   * @param timestamp The FPGA time when the measurement was captured, in seconds.
+   * @param stdDevs The standard deviations of the measurement as [x in feet, y in feet, theta in
+   *     degrees]. Larger values make the measurement move the odometry less.
+   * @throws IllegalArgumentException If the standard deviations are not 3 non-negative values.
+   */
+  public void addVisionMeasurement(
+      double x, double y, double theta, double timestamp, double[] stdDevs) {
+    this.chassis.addVisionMeasurement(x, y, theta, timestamp, stdDevs);
+  }
+
+  /**
+   * Sets if a module is used, such as to drop a module whose sensor or motor has faulted. A
+   * disabled module is stopped and ignored by the odometry, and the robot keeps driving on the
+   * remaining modules. Safe to call from any thread, and takes effect on the next update.
+   *
+   * @param index The index of the module, in the order they are configured.
+   * @param enabled True to use the module, false to disable it.
+   * @throws IllegalStateException If disabling the module would leave fewer than 2 modules.
+   */
+  public void setModuleEnabled(int index, boolean enabled) {
+    this.chassis.setModuleEnabled(index, enabled);
+  }
+
+  /**
+   * Gets if a module is used.
+   *
+   * @param index The index of the module, in the order they are configured.
+   * @return True if the module is enabled, false if it is disabled.
+   */
+  public boolean isModuleEnabled(int index) {
+    return this.chassis.isModuleEnabled(index);
+  }
+
   /**
    * Gets the gyro being used by this swerve controller.
    *
@@ -21,22 +21,31 @@ import frc.team88.swerve.configuration.exceptions.InvalidConfigValueException;
 import frc.team88.swerve.configuration.exceptions.InvalidTemplateException;
 import frc.team88.swerve.configuration.exceptions.SwerveConfigException;
 import frc.team88.swerve.configuration.exceptions.TemplateInstantiationException;
+import frc.team88.swerve.configuration.subconfig.ActuationConfiguration;
+import frc.team88.swerve.configuration.subconfig.ControlThreadConfiguration;
 import frc.team88.swerve.configuration.subconfig.Falcon500Configuration;
 import frc.team88.swerve.configuration.subconfig.NeoConfiguration;
+import frc.team88.swerve.configuration.subconfig.OdometryConfiguration;
 import frc.team88.swerve.configuration.subconfig.SensorTransmissionConfiguration;
 import frc.team88.swerve.configuration.subconfig.SwerveModuleConfiguration;
+import frc.team88.swerve.configuration.subconfig.TelemetryConfiguration;
+import frc.team88.swerve.data.CANBusLoadEstimator;
 import frc.team88.swerve.data.NetworkTablePopulator;
 import frc.team88.swerve.gyro.NavX;
 import frc.team88.swerve.gyro.Pigeon;
 import frc.team88.swerve.gyro.SwerveGyro;
+import frc.team88.swerve.module.ModuleBank;
 import frc.team88.swerve.module.SwerveModule;
 import frc.team88.swerve.module.motor.Falcon500;
+import frc.team88.swerve.module.motor.MotorCommandWriter;
 import frc.team88.swerve.module.motor.Neo;
 import frc.team88.swerve.module.motor.SwerveMotor;
 import frc.team88.swerve.module.sensor.CANifiedPWMEncoder;
 import frc.team88.swerve.module.sensor.PositionSensor;
 import frc.team88.swerve.module.sensor.SensorTransmission;
 import frc.team88.swerve.module.sensor.SwerveCANcoder;
+import frc.team88.swerve.motion.CapabilityEnvelope;
+import frc.team88.swerve.util.LoopClock;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -60,6 +69,30 @@ public class Configuration implements NetworkTablePopulator {
   // The swerve modules from this configuration
   private SwerveModule[] modules;
 
+  // The per-module values from this configuration, in parallel arrays
+  private ModuleBank moduleBank;
+
+  // The clock for the control loop of this swerve drive
+  private final LoopClock loopClock = new LoopClock();
+
+  // The limits of motion for the modules from this configuration
+  private CapabilityEnvelope capabilityEnvelope;
+
+  // Writes the motor commands for the modules from this configuration
+  private MotorCommandWriter commandWriter;
+
+  // The configuration for the dedicated control thread
+  private ControlThreadConfiguration controlThreadConfig;
+
+  // The configuration for the odometry
+  private OdometryConfiguration odometryConfig;
+
+  // The configuration for publishing telemetry
+  private TelemetryConfiguration telemetryConfig;
+
+  // Estimates the CAN bus load from the devices in this configuration
+  private final CANBusLoadEstimator canBusLoadEstimator = new CANBusLoadEstimator();
+
   // The canifiers used by sensors in this configuration
   private final Map<Integer, CANifier> canifiers;
 
@@ -110,6 +143,17 @@ public class Configuration implements NetworkTablePopulator {
 
     // Create all of the objects and configs
     this.instantiateModules();
+    this.moduleBank = new ModuleBank(this.modules);
+    this.capabilityEnvelope = new CapabilityEnvelope(this.modules);
+    this.instantiateCommandWriter();
+    this.controlThreadConfig =
+        new ControlThreadConfiguration(
+            configCheckAndGet(configData, "control-thread", Config.class));
+    this.odometryConfig =
+        new OdometryConfiguration(configCheckAndGet(configData, "odometry", Config.class));
+    this.networkTableConfigs.put("odometry", this.odometryConfig);
+    this.telemetryConfig =
+        new TelemetryConfiguration(configCheckAndGet(configData, "telemetry", Config.class));
     if (Objects.nonNull(gyro)) {
       this.gyro = gyro;
     } else {
@@ -147,6 +191,81 @@ public class Configuration implements NetworkTablePopulator {
     return this.modules;
   }
 
+  /**
+   * Gets the clock for the control loop of this swerve drive, which is updated once per cycle.
+   *
+   * @return The loop clock.
+   */
+  public LoopClock getLoopClock() {
+    return this.loopClock;
+  }
+
+  /**
+   * Gets the per-module values for the modules specified by this config, in parallel arrays. The
+   * bank is refreshed when a module's config is changed through NetworkTables.
+   *
+   * @return The module bank.
+   */
+  public ModuleBank getModuleBank() {
+    return this.moduleBank;
+  }
+
+  /**
+   * Gets the limits of motion for the modules specified by this config. The envelope is
+   * recalculated when a max speed or module location is changed through NetworkTables.
+   *
+   * @return The capability envelope.
+   */
+  public CapabilityEnvelope getCapabilityEnvelope() {
+    return this.capabilityEnvelope;
+  }
+
+  /**
+   * Gets the writer that collects and sends the motor commands for the modules specified by this
+   * config.
+   *
+   * @return The motor command writer.
+   */
+  public MotorCommandWriter getCommandWriter() {
+    return this.commandWriter;
+  }
+
+  /**
+   * Gets the configuration for the dedicated control thread.
+   *
+   * @return The control thread config.
+   */
+  public ControlThreadConfiguration getControlThreadConfig() {
+    return this.controlThreadConfig;
+  }
+
+  /**
+   * Gets the configuration for the odometry.
+   *
+   * @return The odometry config.
+   */
+  public OdometryConfiguration getOdometryConfig() {
+    return this.odometryConfig;
+  }
+
+  /**
+   * Gets the configuration for publishing telemetry.
+   *
+   * @return The telemetry config.
+   */
+  public TelemetryConfiguration getTelemetryConfig() {
+    return this.telemetryConfig;
+  }
+
+  /**
+   * Gets the estimate of the CAN bus load from the devices specified by this config.
+   *
+   * @return The CAN bus load estimator.
+   */
+  public CANBusLoadEstimator getCANBusLoadEstimator() {
+    return this.canBusLoadEstimator;
+  }
+
   /**
    * Gets a mapping from can IDs to canifiers instantiated by this configuration.
    *
@@ -359,11 +478,15 @@ public class Configuration implements NetworkTablePopulator {
                 pwmChannel));
     }
 
+    int pwmInputPeriod = configCheckAndGetFramePeriod(instanceConfig, "pwm-input-period-ms");
+    this.canBusLoadEstimator.addFrame("canifiers/" + canID, pwmInputPeriod);
+
     SensorTransmissionConfiguration sensorConfig =
         new SensorTransmissionConfiguration(instanceConfig);
     this.networkTableConfigs.put(networkTable, sensorConfig);
 
-    CANifiedPWMEncoder rawSensor = new CANifiedPWMEncoder(this.canifiers.get(canID), channel);
+    CANifiedPWMEncoder rawSensor =
+        new CANifiedPWMEncoder(this.canifiers.get(canID), channel, pwmInputPeriod);
     return new SensorTransmission(rawSensor, sensorConfig);
   }
 
@@ -381,8 +504,12 @@ public class Configuration implements NetworkTablePopulator {
         new SensorTransmissionConfiguration(instanceConfig);
     this.networkTableConfigs.put(networkTable, sensorConfig);
 
+    int sensorDataPeriod = configCheckAndGetFramePeriod(instanceConfig, "sensor-data-period-ms");
+    this.canBusLoadEstimator.addFrame(networkTable, sensorDataPeriod);
+
     SwerveCANcoder rawSensor =
-        new SwerveCANcoder(configCheckAndGet(instanceConfig, "can-id", Integer.class));
+        new SwerveCANcoder(
+            configCheckAndGet(instanceConfig, "can-id", Integer.class), sensorDataPeriod);
     return new SensorTransmission(rawSensor, sensorConfig);
   }
 
@@ -433,6 +560,9 @@ public class Configuration implements NetworkTablePopulator {
       throw new InvalidConfigValueException(
           String.format("CAN ID %d is not in range [0, 63]", canID));
     }
+    this.canBusLoadEstimator.addFrame(networkTable, falconConfig.getGeneralStatusPeriod());
+    this.canBusLoadEstimator.addFrame(networkTable, falconConfig.getFeedbackStatusPeriod());
+    this.canBusLoadEstimator.addFrame(networkTable, falconConfig.getControlPeriod());
     return new Falcon500(canID, falconConfig);
   }
 
@@ -453,6 +583,10 @@ public class Configuration implements NetworkTablePopulator {
       throw new InvalidConfigValueException(
           String.format("CAN ID %d is not in range [0, 63]", canID));
     }
+    this.canBusLoadEstimator.addFrame(networkTable, neoConfig.getStatus0Period());
+    this.canBusLoadEstimator.addFrame(networkTable, neoConfig.getStatus1Period());
+    this.canBusLoadEstimator.addFrame(networkTable, neoConfig.getStatus2Period());
+    this.canBusLoadEstimator.addFrame(networkTable, neoConfig.getControlPeriod());
     return new Neo(canID, neoConfig);
   }
 
@@ -556,7 +690,7 @@ public class Configuration implements NetworkTablePopulator {
     SwerveModuleConfiguration swerveModuleConfig = new SwerveModuleConfiguration(moduleConfig);
     this.networkTableConfigs.put(networkTable, swerveModuleConfig);
 
-    return new SwerveModule(motors, azimuthSensor, swerveModuleConfig);
+    return new SwerveModule(motors, azimuthSensor, swerveModuleConfig, this.loopClock);
   }
 
   /**
@@ -582,11 +716,37 @@ public class Configuration implements NetworkTablePopulator {
     }
   }
 
+  /**
+   * Instantiates the motor command writer from the config and installs it on all of the modules.
+   *
+   * @throws SwerveConfigException If the user provided config is incorrect.
+   */
+  private void instantiateCommandWriter() {
+    ActuationConfiguration actuationConfig =
+        new ActuationConfiguration(configCheckAndGet(configData, "actuation", Config.class));
+    this.networkTableConfigs.put("actuation", actuationConfig);
+
+    SwerveMotor[] motors = new SwerveMotor[this.modules.length * 2];
+    for (int moduleIndex = 0; moduleIndex < this.modules.length; moduleIndex++) {
+      SwerveMotor[] moduleMotors = this.modules[moduleIndex].getMotors();
+      motors[moduleIndex * 2] = moduleMotors[0];
+      motors[moduleIndex * 2 + 1] = moduleMotors[1];
+    }
+    this.commandWriter = new MotorCommandWriter(motors, actuationConfig);
+    for (SwerveModule module : this.modules) {
+      module.setCommandWriter(this.commandWriter);
+    }
+  }
+
   @Override
   public void populateNetworkTable(NetworkTable table) {
     for (Map.Entry<String, NetworkTablePopulator> entry : this.networkTableConfigs.entrySet()) {
       entry.getValue().populateNetworkTable(table.getSubTable(entry.getKey()));
     }
+    // Max speeds, locations, and gearings may have been changed. This is
+    // called on the control loop, which owns the module bank's arrays
+    this.moduleBank.refresh();
+    this.capabilityEnvelope.refresh();
   }
 
   /**
@@ -630,6 +790,23 @@ public class Configuration implements NetworkTablePopulator {
     return value.doubleValue();
   }
 
+  /**
+   * Checks that the given field exists and is a valid CAN frame period, then returns it.
+   *
+   * @param config The config to get the field from.
+   * @param key The key of the field to get.
+   * @return The frame period, in milliseconds.
+   * @throws SwerveConfigException If the key does not exist, is not an integer, or is not positive.
+   */
+  public static int configCheckAndGetFramePeriod(Config config, String key) {
+    int period = configCheckAndGet(config, key, Integer.class);
+    if (period <= 0) {
+      throw new InvalidConfigValueException(
+          String.format("Frame period %s must be positive, but is %d.", key, period));
+    }
+    return period;
+  }
+
   /**
    * Checks that the given field exists and is an enum, then returns the value.
    *
@@ -0,0 +1,71 @@
+package frc.team88.swerve.configuration.subconfig;
+
+import com.electronwill.nightconfig.core.Config;
+import edu.wpi.first.networktables.NetworkTable;
+import frc.team88.swerve.configuration.Configuration;
+import frc.team88.swerve.configuration.exceptions.InvalidConfigValueException;
+import frc.team88.swerve.configuration.exceptions.SwerveConfigException;
+import frc.team88.swerve.data.NetworkTablePopulator;
+import java.util.Objects;
+
+/** Captures the configuration for how motor commands are written to the CAN bus. */
+public class ActuationConfiguration implements NetworkTablePopulator {
+
+  // Configuration values. See getters for documentation.
+  private double velocityEpsilon;
+  private int refreshCycles;
+
+  private transient boolean firstNetworkTableCall = true;
+
+  /**
+   * Constructs this configuration from the actuation config.
+   *
+   * @param config The actuation config.
+   * @throws SwerveConfigException If the user provided config is incorrect.
+   */
+  public ActuationConfiguration(Config config) {
+    Objects.requireNonNull(config);
+    this.velocityEpsilon = Configuration.configCheckAndGetDouble(config, "velocity-epsilon-rps");
+    if (this.velocityEpsilon < 0) {
+      throw new InvalidConfigValueException("Velocity epsilon must be non-negative.");
+    }
+    this.refreshCycles = Configuration.configCheckAndGet(config, "refresh-cycles", Integer.class);
+    if (this.refreshCycles < 0) {
+      throw new InvalidConfigValueException("Refresh cycles must be non-negative.");
+    }
+  }
+
+  /**
+   * Gets the velocity epsilon.
+   *
+   * @return The largest change in a motor's commanded velocity that will not be sent, in rotations
+   *     per second.
+   */
+  public double getVelocityEpsilon() {
+    return this.velocityEpsilon;
+  }
+
+  /**
+   * Gets the refresh cycles.
+   *
+   * @return The number of cycles after which an unchanged command is sent anyway, or 0 to never
+   *     resend unchanged commands.
+   */
+  public int getRefreshCycles() {
+    return this.refreshCycles;
+  }
+
+  @Override
+  public void populateNetworkTable(NetworkTable table) {
+    if (this.firstNetworkTableCall) {
+      this.firstNetworkTableCall = false;
+      table.getEntry("velocityEpsilon").setDouble(this.velocityEpsilon);
+      table.getEntry("refreshCycles").setDouble(this.refreshCycles);
+    } else {
+      this.velocityEpsilon =
+          Math.max(0, table.getEntry("velocityEpsilon").getDouble(this.velocityEpsilon));
+      this.refreshCycles =
+          (int) Math.max(0, table.getEntry("refreshCycles").getDouble(this.refreshCycles));
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package frc.team88.swerve.configuration.subconfig;
+
+import com.electronwill.nightconfig.core.Config;
+import frc.team88.swerve.configuration.Configuration;
+import frc.team88.swerve.configuration.exceptions.InvalidConfigValueException;
+import frc.team88.swerve.configuration.exceptions.SwerveConfigException;
+import java.util.Objects;
+
+/**
+ * Captures the configuration for the dedicated control thread. These values are only used when the
+ * thread is started, so they are not placed in NetworkTables.
+ */
+public class ControlThreadConfiguration {
+
+  // Configuration values. See getters for documentation.
+  private final boolean enabled;
+  private final double period;
+  private final int priority;
+
+  /**
+   * Constructs this configuration from the control thread config.
+   *
+   * @param config The control thread config.
+   * @throws SwerveConfigException If the user provided config is incorrect.
+   */
+  public ControlThreadConfiguration(Config config) {
+    Objects.requireNonNull(config);
+    this.enabled = Configuration.configCheckAndGet(config, "enabled", Boolean.class);
+    this.period = Configuration.configCheckAndGetDouble(config, "period-ms") / 1000.;
+    if (this.period <= 0) {
+      throw new InvalidConfigValueException("Control thread period must be positive.");
+    }
+    this.priority = Configuration.configCheckAndGet(config, "priority", Integer.class);
+    if (this.priority < 0 || this.priority > 99) {
+      throw new InvalidConfigValueException(
+          String.format("Control thread priority %d is not in range [0, 99]", this.priority));
+    }
+  }
+
+  /**
+   * Gets if the control thread is enabled.
+   *
+   * @return True if the chassis is updated on a dedicated thread, false if it is updated by the
+   *     caller of the swerve controller's update.
+   */
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * Gets the period of the control thread.
+   *
+   * @return The period, in seconds.
+   */
+  public double getPeriod() {
+    return this.period;
+  }
+
+  /**
+   * Gets the priority of the control thread.
+   *
+   * @return The real-time priority in the range [1, 99], or 0 to leave the thread at normal
+   *     priority.
+   */
+  public int getPriority() {
+    return this.priority;
+  }
+}
@@ -14,6 +14,14 @@ public class Falcon500Configuration implements NetworkTablePopulator {
   // Configuration values. See getters for documentation.
   private boolean inverted;
   private double maxSpeed;
+  private final boolean closedLoopVelocity;
+  private final PIDConfiguration velocityControllerConfig;
+
+  // CAN frame periods, in milliseconds, which are only applied when the motor
+  // is constructed.
+  private int generalStatusPeriod;
+  private int feedbackStatusPeriod;
+  private int controlPeriod;
 
   private transient boolean firstNetworkTableCall = true;
 
@@ -30,6 +38,16 @@ public class Falcon500Configuration implements NetworkTablePopulator {
     if (this.maxSpeed <= 0) {
       throw new InvalidConfigValueException("Max speed must be positive.");
     }
+    this.generalStatusPeriod =
+        Configuration.configCheckAndGetFramePeriod(config, "general-status-period-ms");
+    this.feedbackStatusPeriod =
+        Configuration.configCheckAndGetFramePeriod(config, "feedback-status-period-ms");
+    this.controlPeriod = Configuration.configCheckAndGetFramePeriod(config, "control-period-ms");
+    this.closedLoopVelocity =
+        Configuration.configCheckAndGet(config, "closed-loop-velocity", Boolean.class);
+    this.velocityControllerConfig =
+        new PIDConfiguration(
+            Configuration.configCheckAndGet(config, "velocity-controller", Config.class));
   }
 
   /**
@@ -59,6 +77,52 @@ public class Falcon500Configuration implements NetworkTablePopulator {
     return this.maxSpeed;
   }
 
+  /**
+   * Gets if the velocity is controlled by the Talon FX instead of being sent as a percent output.
+   *
+   * @return If closed loop velocity control on the motor controller is used.
+   */
+  public boolean isClosedLoopVelocity() {
+    return this.closedLoopVelocity;
+  }
+
+  /**
+   * Gets the config for the velocity controller on the Talon FX.
+   *
+   * @return The velocity controller config, in units of output fraction and rotations per second.
+   */
+  public PIDConfiguration getVelocityControllerConfig() {
+    return this.velocityControllerConfig;
+  }
+
+  /**
+   * Gets the general status frame period.
+   *
+   * @return The period of the status frame containing the motor output, in milliseconds.
+   */
+  public int getGeneralStatusPeriod() {
+    return this.generalStatusPeriod;
+  }
+
+  /**
+   * Gets the feedback status frame period.
+   *
+   * @return The period of the status frame containing the sensor position and velocity, in
+   *     milliseconds.
+   */
+  public int getFeedbackStatusPeriod() {
+    return this.feedbackStatusPeriod;
+  }
+
+  /**
+   * Gets the control frame period.
+   *
+   * @return The period at which the motor command is sent, in milliseconds.
+   */
+  public int getControlPeriod() {
+    return this.controlPeriod;
+  }
+
   @Override
   public void populateNetworkTable(NetworkTable table) {
     if (this.firstNetworkTableCall) {
@@ -69,5 +133,6 @@ public class Falcon500Configuration implements NetworkTablePopulator {
       this.inverted = table.getEntry("inverted").getBoolean(this.inverted);
       this.maxSpeed = table.getEntry("maxSpeed").getDouble(this.maxSpeed);
     }
+    this.velocityControllerConfig.populateNetworkTable(table.getSubTable("velocityController"));
   }
 }
@@ -14,6 +14,15 @@ public class NeoConfiguration implements NetworkTablePopulator {
   // Configuration values. See getters for documentation.
   private boolean inverted;
   private double maxSpeed;
+  private final boolean closedLoopVelocity;
+  private final PIDConfiguration velocityControllerConfig;
+
+  // CAN frame periods, in milliseconds, which are only applied when the motor
+  // is constructed.
+  private int status0Period;
+  private int status1Period;
+  private int status2Period;
+  private int controlPeriod;
 
   private transient boolean firstNetworkTableCall = true;
 
@@ -30,6 +39,15 @@ public class NeoConfiguration implements NetworkTablePopulator {
     if (this.maxSpeed <= 0) {
       throw new InvalidConfigValueException("Max speed must be positive.");
     }
+    this.status0Period = Configuration.configCheckAndGetFramePeriod(config, "status-0-period-ms");
+    this.status1Period = Configuration.configCheckAndGetFramePeriod(config, "status-1-period-ms");
+    this.status2Period = Configuration.configCheckAndGetFramePeriod(config, "status-2-period-ms");
+    this.controlPeriod = Configuration.configCheckAndGetFramePeriod(config, "control-period-ms");
+    this.closedLoopVelocity =
+        Configuration.configCheckAndGet(config, "closed-loop-velocity", Boolean.class);
+    this.velocityControllerConfig =
+        new PIDConfiguration(
+            Configuration.configCheckAndGet(config, "velocity-controller", Config.class));
   }
 
   /**
@@ -59,6 +77,62 @@ public class NeoConfiguration implements NetworkTablePopulator {
     return this.maxSpeed;
   }
 
+  /**
+   * Gets if the velocity is controlled by the Spark Max instead of being sent as a percent output.
+   *
+   * @return If closed loop velocity control on the motor controller is used.
+   */
+  public boolean isClosedLoopVelocity() {
+    return this.closedLoopVelocity;
+  }
+
+  /**
+   * Gets the config for the velocity controller on the Spark Max.
+   *
+   * @return The velocity controller config, in units of output fraction and rotations per second.
+   */
+  public PIDConfiguration getVelocityControllerConfig() {
+    return this.velocityControllerConfig;
+  }
+
+  /**
+   * Gets the status 0 frame period.
+   *
+   * @return The period of the status frame containing the motor output and faults, in
+   *     milliseconds.
+   */
+  public int getStatus0Period() {
+    return this.status0Period;
+  }
+
+  /**
+   * Gets the status 1 frame period.
+   *
+   * @return The period of the status frame containing the velocity, current, and temperature,
+   *     in milliseconds.
+   */
+  public int getStatus1Period() {
+    return this.status1Period;
+  }
+
+  /**
+   * Gets the status 2 frame period.
+   *
+   * @return The period of the status frame containing the position, in milliseconds.
+   */
+  public int getStatus2Period() {
+    return this.status2Period;
+  }
+
+  /**
+   * Gets the control frame period.
+   *
+   * @return The period at which the motor command is sent, in milliseconds.
+   */
+  public int getControlPeriod() {
+    return this.controlPeriod;
+  }
+
   @Override
   public void populateNetworkTable(NetworkTable table) {
     if (this.firstNetworkTableCall) {
@@ -69,5 +143,6 @@ public class NeoConfiguration implements NetworkTablePopulator {
       this.inverted = table.getEntry("inverted").getBoolean(this.inverted);
       this.maxSpeed = table.getEntry("maxSpeed").getDouble(this.maxSpeed);
     }
+    this.velocityControllerConfig.populateNetworkTable(table.getSubTable("velocityController"));
   }
 }
@@ -0,0 +1,226 @@
+package frc.team88.swerve.configuration.subconfig;
+
+import com.electronwill.nightconfig.core.Config;
+import edu.wpi.first.networktables.NetworkTable;
+import frc.team88.swerve.configuration.Configuration;
+import frc.team88.swerve.configuration.exceptions.InvalidConfigValueException;
+import frc.team88.swerve.configuration.exceptions.SwerveConfigException;
+import frc.team88.swerve.data.NetworkTablePopulator;
+import java.util.Objects;
+
+/** Captures the configuration for the odometry and how vision measurements are fused into it. */
+public class OdometryConfiguration implements NetworkTablePopulator {
+
+  // Configuration values. See getters for documentation.
+  private final int historyCapacity;
+  private final boolean integrateWheelPositions;
+  private final int slipRejectionIterations;
+  private double slipThreshold;
+  private double positionStdDev;
+  private double headingStdDev;
+  private final boolean fuseGyro;
+  private double gyroYawStdDev;
+  private double gyroRateStdDev;
+  private double wheelRateStdDev;
+  private double yawAccelerationStdDev;
+
+  private transient boolean firstNetworkTableCall = true;
+
+  /**
+   * Constructs this configuration from the odometry config.
+   *
+   * @param config The odometry config.
+   * @throws SwerveConfigException If the user provided config is incorrect.
+   */
+  public OdometryConfiguration(Config config) {
+    Objects.requireNonNull(config);
+    this.historyCapacity =
+        Configuration.configCheckAndGet(config, "history-capacity", Integer.class);
+    if (this.historyCapacity < 2) {
+      throw new InvalidConfigValueException("Odometry history capacity must be at least 2.");
+    }
+    this.integrateWheelPositions =
+        Configuration.configCheckAndGet(config, "integrate-wheel-positions", Boolean.class);
+    this.slipRejectionIterations =
+        Configuration.configCheckAndGet(config, "slip-rejection-iterations", Integer.class);
+    if (this.slipRejectionIterations < 0) {
+      throw new InvalidConfigValueException("Slip rejection iterations must be non-negative.");
+    }
+    this.slipThreshold = Configuration.configCheckAndGetDouble(config, "slip-threshold-fps");
+    if (this.slipThreshold <= 0) {
+      throw new InvalidConfigValueException("Slip threshold must be positive.");
+    }
+    this.positionStdDev = Configuration.configCheckAndGetDouble(config, "position-std-dev-ft");
+    if (this.positionStdDev < 0) {
+      throw new InvalidConfigValueException("Odometry position std dev must be non-negative.");
+    }
+    this.headingStdDev = Configuration.configCheckAndGetDouble(config, "heading-std-dev-deg");
+    if (this.headingStdDev < 0) {
+      throw new InvalidConfigValueException("Odometry heading std dev must be non-negative.");
+    }
+    this.fuseGyro = Configuration.configCheckAndGet(config, "fuse-gyro", Boolean.class);
+    this.gyroYawStdDev = this.getStdDev(config, "gyro-yaw-std-dev-deg");
+    this.gyroRateStdDev = this.getStdDev(config, "gyro-rate-std-dev-dps");
+    this.wheelRateStdDev = this.getStdDev(config, "wheel-rate-std-dev-dps");
+    this.yawAccelerationStdDev = this.getStdDev(config, "yaw-acceleration-std-dev-dps2");
+  }
+
+  /**
+   * Gets a standard deviation from the config.
+   *
+   * @param config The odometry config.
+   * @param key The key of the standard deviation.
+   * @return The standard deviation.
+   * @throws SwerveConfigException If the value is missing or negative.
+   */
+  private double getStdDev(Config config, String key) {
+    double stdDev = Configuration.configCheckAndGetDouble(config, key);
+    if (stdDev < 0) {
+      throw new InvalidConfigValueException(
+          String.format("Odometry %s must be non-negative.", key));
+    }
+    return stdDev;
+  }
+
+  /**
+   * Gets the history capacity.
+   *
+   * @return The number of past poses kept for correcting with late vision measurements.
+   */
+  public int getHistoryCapacity() {
+    return this.historyCapacity;
+  }
+
+  /**
+   * Gets if wheel positions are integrated.
+   *
+   * @return True if the pose is integrated from the change in each wheel's position since the last
+   *     update, false if it is integrated from the wheel velocities multiplied by the time since
+   *     the last update.
+   */
+  public boolean isIntegrateWheelPositions() {
+    return this.integrateWheelPositions;
+  }
+
+  /**
+   * Gets the slip rejection iterations.
+   *
+   * @return The number of times the chassis velocity is re-solved with modules that disagree with
+   *     the previous solution down-weighted, or 0 to weight all modules equally.
+   */
+  public int getSlipRejectionIterations() {
+    return this.slipRejectionIterations;
+  }
+
+  /**
+   * Gets the slip threshold.
+   *
+   * @return The distance of a module's measured velocity from the chassis solution beyond which
+   *     the module is down-weighted, in feet per second.
+   */
+  public double getSlipThreshold() {
+    return this.slipThreshold;
+  }
+
+  /**
+   * Gets the position standard deviation.
+   *
+   * @return The expected standard deviation of the odometry's x and y positions, in feet.
+   */
+  public double getPositionStdDev() {
+    return this.positionStdDev;
+  }
+
+  /**
+   * Gets the heading standard deviation.
+   *
+   * @return The expected standard deviation of the odometry's heading, in degrees.
+   */
+  public double getHeadingStdDev() {
+    return this.headingStdDev;
+  }
+
+  /**
+   * Gets if the gyro is fused into the odometry.
+   *
+   * @return True if the heading is estimated by a Kalman filter combining the gyro and the wheels,
+   *     false if it is integrated from the wheels alone.
+   */
+  public boolean isFuseGyro() {
+    return this.fuseGyro;
+  }
+
+  /**
+   * Gets the gyro yaw standard deviation.
+   *
+   * @return The expected standard deviation of the gyro's yaw, in degrees.
+   */
+  public double getGyroYawStdDev() {
+    return this.gyroYawStdDev;
+  }
+
+  /**
+   * Gets the gyro rate standard deviation.
+   *
+   * @return The expected standard deviation of the gyro's yaw rate, in degrees per second.
+   */
+  public double getGyroRateStdDev() {
+    return this.gyroRateStdDev;
+  }
+
+  /**
+   * Gets the wheel rate standard deviation.
+   *
+   * @return The expected standard deviation of the angular velocity calculated from the wheels, in
+   *     degrees per second.
+   */
+  public double getWheelRateStdDev() {
+    return this.wheelRateStdDev;
+  }
+
+  /**
+   * Gets the yaw acceleration standard deviation.
+   *
+   * @return The standard deviation of the robot's angular acceleration between cycles, in degrees
+   *     per second squared.
+   */
+  public double getYawAccelerationStdDev() {
+    return this.yawAccelerationStdDev;
+  }
+
+  @Override
+  public void populateNetworkTable(NetworkTable table) {
+    if (this.firstNetworkTableCall) {
+      this.firstNetworkTableCall = false;
+      table.getEntry("historyCapacity").setDouble(this.historyCapacity);
+      table.getEntry("integrateWheelPositions").setBoolean(this.integrateWheelPositions);
+      table.getEntry("slipRejectionIterations").setDouble(this.slipRejectionIterations);
+      table.getEntry("slipThreshold").setDouble(this.slipThreshold);
+      table.getEntry("positionStdDev").setDouble(this.positionStdDev);
+      table.getEntry("headingStdDev").setDouble(this.headingStdDev);
+      table.getEntry("fuseGyro").setBoolean(this.fuseGyro);
+      table.getEntry("gyroYawStdDev").setDouble(this.gyroYawStdDev);
+      table.getEntry("gyroRateStdDev").setDouble(this.gyroRateStdDev);
+      table.getEntry("wheelRateStdDev").setDouble(this.wheelRateStdDev);
+      table.getEntry("yawAccelerationStdDev").setDouble(this.yawAccelerationStdDev);
+    } else {
+      double slipThreshold = table.getEntry("slipThreshold").getDouble(this.slipThreshold);
+      if (slipThreshold > 0) {
+        this.slipThreshold = slipThreshold;
+      }
+      this.positionStdDev =
+          Math.max(0, table.getEntry("positionStdDev").getDouble(this.positionStdDev));
+      this.headingStdDev =
+          Math.max(0, table.getEntry("headingStdDev").getDouble(this.headingStdDev));
+      this.gyroYawStdDev =
+          Math.max(0, table.getEntry("gyroYawStdDev").getDouble(this.gyroYawStdDev));
+      this.gyroRateStdDev =
+          Math.max(0, table.getEntry("gyroRateStdDev").getDouble(this.gyroRateStdDev));
+      this.wheelRateStdDev =
+          Math.max(0, table.getEntry("wheelRateStdDev").getDouble(this.wheelRateStdDev));
+      this.yawAccelerationStdDev =
+          Math.max(
+              0, table.getEntry("yawAccelerationStdDev").getDouble(this.yawAccelerationStdDev));
+    }
+  }
+}
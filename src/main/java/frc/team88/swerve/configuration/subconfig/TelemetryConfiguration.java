@@ -0,0 +1,161 @@
+package frc.team88.swerve.configuration.subconfig;
+
+import com.electronwill.nightconfig.core.Config;
+import frc.team88.swerve.configuration.Configuration;
+import frc.team88.swerve.configuration.exceptions.InvalidConfigValueException;
+import frc.team88.swerve.configuration.exceptions.SwerveConfigException;
+import frc.team88.swerve.data.TelemetryFormat;
+import frc.team88.swerve.data.TelemetryGroup;
+import frc.team88.swerve.data.TelemetryUnit;
+import java.util.Objects;
+
+/**
+ * Captures the configuration for the telemetry publisher thread, and for how often each group of
+ * telemetry is published and with what deadband each unit of telemetry is published from the
+ * selected telemetry profile. These values are only used when publishing is set up, so they are not
+ * placed in NetworkTables.
+ */
+public class TelemetryConfiguration {
+
+  // Configuration values. See getters for documentation.
+  private final TelemetryFormat format;
+  private final String profile;
+  private final double[] periods;
+  private final double[] deadbands;
+  private final double publishPeriod;
+  private final int ringCapacity;
+  private final double refreshPeriod;
+
+  /**
+   * Constructs this configuration from the telemetry config.
+   *
+   * @param config The telemetry config.
+   * @throws SwerveConfigException If the user provided config is incorrect.
+   */
+  public TelemetryConfiguration(Config config) {
+    Objects.requireNonNull(config);
+    this.format = Configuration.configCheckAndGetEnum(config, "format", TelemetryFormat.class);
+    this.publishPeriod = Configuration.configCheckAndGetDouble(config, "publish-period-ms") / 1000.;
+    if (!(this.publishPeriod > 0)) {
+      throw new InvalidConfigValueException("Telemetry publish period must be positive.");
+    }
+    this.ringCapacity = Configuration.configCheckAndGet(config, "ring-capacity", Integer.class);
+    if (this.ringCapacity < 1 || this.ringCapacity > 1024) {
+      throw new InvalidConfigValueException(
+          String.format("Telemetry ring capacity %d is not in range [1, 1024]", this.ringCapacity));
+    }
+    this.refreshPeriod = Configuration.configCheckAndGetDouble(config, "refresh-period-ms") / 1000.;
+    if (!(this.refreshPeriod > 0)) {
+      throw new InvalidConfigValueException("Telemetry refresh period must be positive.");
+    }
+    this.profile = Configuration.configCheckAndGet(config, "profile", String.class);
+    Config profiles = Configuration.configCheckAndGet(config, "profiles", Config.class);
+    if (!profiles.contains(this.profile)) {
+      throw new InvalidConfigValueException(
+          String.format("Telemetry profile '%s' not found in config.", this.profile));
+    }
+    Config profileConfig = Configuration.configCheckAndGet(profiles, this.profile, Config.class);
+
+    TelemetryGroup[] groups = TelemetryGroup.values();
+    this.periods = new double[groups.length];
+    for (TelemetryGroup group : groups) {
+      String key = group.getConfigName() + "-period-ms";
+      double periodMs = Configuration.configCheckAndGetDouble(profileConfig, key);
+      if (Double.isNaN(periodMs)) {
+        throw new InvalidConfigValueException(
+            String.format("Telemetry period for %s is not a number.", group.getConfigName()));
+      }
+      if (group == TelemetryGroup.TUNING && periodMs < 0) {
+        // The active tuning mode is only changed when the tuning tree is read back
+        throw new InvalidConfigValueException(
+            "Telemetry period for tuning is negative, so tuning modes could never be enabled.");
+      }
+      this.periods[group.ordinal()] = periodMs / 1000.;
+    }
+
+    TelemetryUnit[] units = TelemetryUnit.values();
+    this.deadbands = new double[units.length];
+    for (TelemetryUnit unit : units) {
+      if (Objects.isNull(unit.getConfigName())) {
+        continue;
+      }
+      String key = unit.getConfigName() + "-deadband";
+      double deadband = Configuration.configCheckAndGetDouble(profileConfig, key);
+      if (!(deadband >= 0)) {
+        throw new InvalidConfigValueException(
+            String.format("Telemetry deadband for %s is negative.", unit.getConfigName()));
+      }
+      this.deadbands[unit.ordinal()] = deadband;
+    }
+  }
+
+  /**
+   * Gets the format that telemetry is published in.
+   *
+   * @return The telemetry format.
+   */
+  public TelemetryFormat getFormat() {
+    return this.format;
+  }
+
+  /**
+   * Gets the period of the telemetry publisher thread.
+   *
+   * @return The period, in seconds.
+   */
+  public double getPublishPeriod() {
+    return this.publishPeriod;
+  }
+
+  /**
+   * Gets the capacity of the ring that passes telemetry from the control loop to the publisher
+   * thread.
+   *
+   * @return The minimum number of frames in the ring.
+   */
+  public int getRingCapacity() {
+    return this.ringCapacity;
+  }
+
+  /**
+   * Gets how often every published value is sent, even if it has not changed by more than its
+   * deadband.
+   *
+   * @return The refresh period, in seconds.
+   */
+  public double getRefreshPeriod() {
+    return this.refreshPeriod;
+  }
+
+  /**
+   * Gets the name of the selected telemetry profile.
+   *
+   * @return The profile name.
+   */
+  public String getProfile() {
+    return this.profile;
+  }
+
+  /**
+   * Gets the period that a group of telemetry is published at.
+   *
+   * @param group The telemetry group.
+   * @return The period, in seconds. 0 publishes the group every cycle, and a negative period never
+   *     publishes it on a timer.
+   */
+  public double getPeriod(TelemetryGroup group) {
+    return this.periods[group.ordinal()];
+  }
+
+  /**
+   * Gets the deadband for the telemetry values in a unit. A value is only published when it
+   * differs from the last published value by more than this.
+   *
+   * @param unit The telemetry unit.
+   * @return The deadband, in the unit. 0 publishes every change, and booleans always have a
+   *     deadband of 0.
+   */
+  public double getDeadband(TelemetryUnit unit) {
+    return this.deadbands[unit.ordinal()];
+  }
+}
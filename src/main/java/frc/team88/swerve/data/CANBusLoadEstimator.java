@@ -0,0 +1,86 @@
+package frc.team88.swerve.data;
+
+import edu.wpi.first.networktables.NetworkTable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Estimates the load that the swerve drive puts on the CAN bus from the periods of the frames its
+ * devices are configured to send. Only frames with a period set by this library are counted, so
+ * the estimate is a lower bound on the real bus load.
+ */
+public class CANBusLoadEstimator implements NetworkTablePopulator {
+
+  // The bit rate of the CAN bus, in bits per second.
+  private static final double BUS_BIT_RATE = 1_000_000.;
+
+  // The length of an extended CAN frame with an 8 byte payload, including
+  // the worst case number of stuff bits.
+  private static final double BITS_PER_FRAME = 160.;
+
+  // The frames per second sent by each device, keyed by device name.
+  private final Map<String, Double> deviceFramesPerSecond = new LinkedHashMap<>();
+
+  // The frames per second sent by all devices.
+  private double totalFramesPerSecond = 0;
+
+  /**
+   * Adds a periodic frame to the estimate.
+   *
+   * @param device The name of the device sending the frame. Frames from the same device are
+   *     summed.
+   * @param periodMs The period of the frame, in milliseconds.
+   * @throws IllegalArgumentException If the period is not positive.
+   */
+  public void addFrame(String device, int periodMs) {
+    Objects.requireNonNull(device);
+    if (periodMs <= 0) {
+      throw new IllegalArgumentException("Frame period must be positive");
+    }
+    double framesPerSecond = 1000. / periodMs;
+    this.deviceFramesPerSecond.merge(device, framesPerSecond, Double::sum);
+    this.totalFramesPerSecond += framesPerSecond;
+  }
+
+  /**
+   * Gets the number of frames sent by all devices.
+   *
+   * @return The frames per second.
+   */
+  public double getFramesPerSecond() {
+    return this.totalFramesPerSecond;
+  }
+
+  /**
+   * Gets the number of frames sent by the given device.
+   *
+   * @param device The name of the device.
+   * @return The frames per second, or 0 if the device has no frames.
+   */
+  public double getFramesPerSecond(String device) {
+    return this.deviceFramesPerSecond.getOrDefault(device, 0.);
+  }
+
+  /**
+   * Gets the fraction of the bus bandwidth used by all devices.
+   *
+   * @return The estimated bus utilization, where 1 is a fully loaded bus.
+   */
+  public double getUtilization() {
+    return this.totalFramesPerSecond * BITS_PER_FRAME / BUS_BIT_RATE;
+  }
+
+  @Override
+  public void populateNetworkTable(NetworkTable table) {
+    table.getEntry("framesPerSecond").setDouble(this.totalFramesPerSecond);
+    table.getEntry("utilization").setDouble(this.getUtilization());
+    NetworkTable devicesTable = table.getSubTable("devices");
+    for (Map.Entry<String, Double> entry : this.deviceFramesPerSecond.entrySet()) {
+      devicesTable
+          .getSubTable(entry.getKey())
+          .getEntry("framesPerSecond")
+          .setDouble(entry.getValue());
+    }
+  }
+}
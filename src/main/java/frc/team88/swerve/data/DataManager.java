@@ -1,20 +1,26 @@
 package frc.team88.swerve.data;
 
+import edu.wpi.first.networktables.EntryListenerFlags;
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import frc.team88.swerve.configuration.Configuration;
-import frc.team88.swerve.data.representations.ChassisData;
-import frc.team88.swerve.data.representations.GyroData;
-import frc.team88.swerve.data.representations.SwerveModuleData;
+import frc.team88.swerve.configuration.subconfig.TelemetryConfiguration;
 import frc.team88.swerve.motion.SwerveChassis;
-import frc.team88.swerve.motion.state.OdomState;
-import frc.team88.swerve.motion.state.VelocityState;
 import frc.team88.swerve.tuning.TuningManager;
-import frc.team88.swerve.util.RobotControllerWrapper;
+import frc.team88.swerve.util.ControlThread;
 import java.util.Objects;
-import java.util.stream.Stream;
 
-/** Handles the collection and logging/publishing of data. */
+/**
+ * Handles the collection and logging/publishing of data. The control loop captures the telemetry
+ * into a ring of preallocated frames, and a separate publisher thread drains the ring into
+ * NetworkTables, so the control loop never waits on NetworkTables.
+ *
+ * <p>The configuration and tuning trees are both published and read back by key, and reading them
+ * back changes values that the control loop uses, such as gains, module locations, and the active
+ * tuning mode. So they are only ever populated by the control loop, during {@link #capture()}, and
+ * the publisher thread only writes telemetry.
+ */
 public class DataManager {
 
   // The overall configuration for the swerve drive.
@@ -26,49 +32,238 @@ public class DataManager {
   // The tuning manager for the swerve drive.
   private final TuningManager tuningManager;
 
+  // The dedicated control thread for the swerve drive, or null if there is none.
+  private final ControlThread controlThread;
+
+  // Passes captured frames from the control loop to the publisher thread.
+  private final TelemetryRing ring;
+
+  // The thread that publishes the captured frames.
+  private final ControlThread publisherThread;
+
+  // The frame being published, copied out of the ring. Only used by the
+  // publisher thread.
+  private final TelemetryFrame publishFrame;
+
+  // The number of publisher thread runs between forced refreshes, and the
+  // number left until the next one. Only used by the publisher thread.
+  private final int refreshRuns;
+  private int runsUntilRefresh;
+
+  // The format that frames are published in.
+  private final TelemetryFormat format;
+
+  // The publisher for the telemetry frames in the configured format, and the entry for the dropped
+  // frame count. Created by the first run of the publisher thread, and only used by it.
+  private TelemetryPublisher publisher;
+  private PackedTelemetryPublisher packedPublisher;
+  private NetworkTableEntry droppedFramesEntry;
+
+  // The dropped frame count when the publisher thread last checked it. Only used by the publisher
+  // thread.
+  private long lastDroppedCount = 0;
+
+  // The tables that are populated by key. Created by the first capture, and only used by the
+  // control loop.
+  private NetworkTable configTable;
+  private NetworkTable tuningTable;
+
+  // The publish period of each telemetry group, and the time it is next due, in microseconds and
+  // indexed by group ordinal. A negative period is never due. Only used by the control loop.
+  private final long[] publishPeriods;
+  private final long[] nextPublishTimes;
+  private boolean firstCapture = true;
+
+  // Set by NetworkTables when a configuration value is edited remotely, and
+  // cleared by the control loop when it reads the configuration back.
+  private volatile boolean configurationEdited = false;
+
   // If the data should be published to NetworkTables.
-  private boolean enableNetworkTablesPublishing = true;
+  private volatile boolean enableNetworkTablesPublishing = true;
 
   public DataManager(Configuration config, SwerveChassis chassis, TuningManager tuningManager) {
+    this(config, chassis, tuningManager, null);
+  }
+
+  public DataManager(
+      Configuration config,
+      SwerveChassis chassis,
+      TuningManager tuningManager,
+      ControlThread controlThread) {
     this.config = Objects.requireNonNull(config);
     this.chassis = Objects.requireNonNull(chassis);
     this.tuningManager = tuningManager;
+    this.controlThread = controlThread;
+
+    TelemetryConfiguration telemetryConfig = this.config.getTelemetryConfig();
+    this.format = telemetryConfig.getFormat();
+    int moduleCount = this.config.getModules().length;
+    boolean hasControlThread = Objects.nonNull(controlThread);
+    this.ring = new TelemetryRing(telemetryConfig.getRingCapacity(), moduleCount, hasControlThread);
+    this.publishFrame = new TelemetryFrame(moduleCount, hasControlThread);
+    this.publisherThread =
+        new ControlThread(this::publishPendingFrames, telemetryConfig.getPublishPeriod(), 0);
+    this.publisherThread.setName("SwerveTelemetryThread");
+    double refreshRatio = telemetryConfig.getRefreshPeriod() / telemetryConfig.getPublishPeriod();
+    this.refreshRuns = (int) Math.max(1, Math.round(refreshRatio));
+    this.runsUntilRefresh = this.refreshRuns;
+
+    TelemetryGroup[] groups = TelemetryGroup.values();
+    this.publishPeriods = new long[groups.length];
+    this.nextPublishTimes = new long[groups.length];
+    for (TelemetryGroup group : groups) {
+      double period = telemetryConfig.getPeriod(group);
+      this.publishPeriods[group.ordinal()] = period < 0 ? -1 : Math.round(period * 1_000_000.);
+    }
+  }
+
+  /** Starts the publisher thread. Does nothing if it is already running. */
+  public void start() {
+    this.publisherThread.start();
+  }
+
+  /** Stops the publisher thread. Frames captured while it is stopped may be dropped. */
+  public void stop() {
+    this.publisherThread.stop();
   }
 
-  /** Publishes to NetworkTables, if enabled. */
-  public void update() {
-    if (!enableNetworkTablesPublishing) {
+  /**
+   * Captures the telemetry groups that are due into the ring, if publishing is enabled. In the
+   * packed format every group is captured, so each frame holds a whole cycle. Also reads back the
+   * configuration when it has been edited and the tuning tree when it is due, so that their values
+   * only change between control cycles. Must be called by the control loop at the end of every
+   * cycle. Never waits on the publisher thread.
+   */
+  public void capture() {
+    if (!this.enableNetworkTablesPublishing) {
       return;
     }
 
-    GyroData gyroData = new GyroData(this.config.getGyro());
-    SwerveModuleData moduleData[] =
-        Stream.of(this.config.getModules())
-            .map(m -> new SwerveModuleData(m))
-            .toArray(SwerveModuleData[]::new);
-    ChassisData chassisData = new ChassisData(this.chassis);
-    VelocityState targetState = this.chassis.getTargetState();
-    VelocityState constrainedCommandState = this.chassis.getConstrainedCommandState();
-    OdomState odometryState = this.chassis.getOdomState();
-
-    if (enableNetworkTablesPublishing) {
+    if (Objects.isNull(this.configTable)) {
+      NetworkTableInstance instance = NetworkTableInstance.getDefault();
+      NetworkTable mainTable = instance.getTable("swerveLibrary");
+      this.configTable = mainTable.getSubTable("configuration");
+      this.tuningTable = mainTable.getSubTable("tuning");
+
+      // Only remote edits are listened for, so populating the config doesn't trigger itself
+      instance.addEntryListener(
+          this.configTable.getPath() + "/",
+          notification -> this.configurationEdited = true,
+          EntryListenerFlags.kNew | EntryListenerFlags.kUpdate);
+    }
+
+    long now = this.config.getLoopClock().getTimestamp();
+    int groups;
+    if (this.firstCapture) {
+      // Capture everything once so that every entry exists
+      this.firstCapture = false;
+      groups = TelemetryFrame.ALL_GROUPS;
+      for (int group = 0; group < this.publishPeriods.length; group++) {
+        this.nextPublishTimes[group] = now + this.publishPeriods[group];
+      }
+    } else {
+      groups = this.getDueGroups(now);
+    }
+
+    // The trees populated by key are read back before the frame is captured,
+    // so that it holds the module locations from the current configuration
+    if (this.configurationEdited) {
+      this.configurationEdited = false;
+      groups |= TelemetryGroup.CONFIGURATION.getMask();
+    }
+    if ((groups & TelemetryGroup.CONFIGURATION.getMask()) != 0) {
+      this.config.populateNetworkTable(this.configTable);
+    }
+    if ((groups & TelemetryGroup.TUNING.getMask()) != 0) {
+      this.tuningManager.populateNetworkTable(this.tuningTable);
+    }
+
+    int captureGroups = this.format == TelemetryFormat.PACKED ? TelemetryFrame.ALL_GROUPS : groups;
+    if (captureGroups != 0) {
+      TelemetryFrame frame = this.ring.beginWrite();
+      frame.capture(this.config, this.chassis, this.controlThread, captureGroups);
+      this.ring.endWrite();
+    }
+  }
+
+  /**
+   * Gets the telemetry groups whose publish period has elapsed, and schedules their next publish.
+   *
+   * @param now The current time, in microseconds.
+   * @return The bitmask of groups that are due.
+   */
+  private int getDueGroups(long now) {
+    int groups = 0;
+    for (int group = 0; group < this.publishPeriods.length; group++) {
+      long period = this.publishPeriods[group];
+      if (period < 0 || now < this.nextPublishTimes[group]) {
+        continue;
+      }
+      groups |= 1 << group;
+      this.nextPublishTimes[group] = now + period;
+    }
+    return groups;
+  }
+
+  /**
+   * Publishes every frame in the ring to NetworkTables, if publishing is enabled. Run by the
+   * publisher thread, and never reads anything back from NetworkTables.
+   */
+  private void publishPendingFrames() {
+    if (!this.enableNetworkTablesPublishing) {
+      return;
+    }
+
+    if (Objects.isNull(this.droppedFramesEntry)) {
       NetworkTable mainTable = NetworkTableInstance.getDefault().getTable("swerveLibrary");
+      if (this.format == TelemetryFormat.PACKED) {
+        this.packedPublisher = new PackedTelemetryPublisher(mainTable, this.publishFrame);
+      } else {
+        this.publisher =
+            new TelemetryPublisher(mainTable, this.publishFrame, this.config.getTelemetryConfig());
+      }
+      this.droppedFramesEntry = mainTable.getEntry("telemetry/droppedFrames");
+
+      // The frame periods are fixed once the config is loaded
+      this.config.getCANBusLoadEstimator().populateNetworkTable(mainTable.getSubTable("canBus"));
 
-      this.config.populateNetworkTable(mainTable.getSubTable("configuration"));
-      this.tuningManager.populateNetworkTable(mainTable.getSubTable("tuning"));
+      // The first frames may have been dropped before this thread started, so the control loop
+      // is asked to capture the configuration group again
+      this.configurationEdited = true;
+    }
+
+    // Values within their deadband are still sent every so often, in case an
+    // update was lost or a client connected late
+    if (Objects.nonNull(this.publisher) && --this.runsUntilRefresh <= 0) {
+      this.runsUntilRefresh = this.refreshRuns;
+      this.publisher.forceRefresh();
+    }
 
-      gyroData.populateNetworkTable(mainTable.getSubTable("gyro"));
-      for (int idx = 0; idx < moduleData.length; idx++) {
-        moduleData[idx].populateNetworkTable(
-            mainTable.getSubTable("modules").getSubTable(Integer.toString(idx)));
+    while (this.ring.poll(this.publishFrame)) {
+      if (Objects.nonNull(this.packedPublisher)) {
+        this.packedPublisher.publish(this.publishFrame);
+      } else {
+        this.publisher.publish(this.publishFrame, this.publishFrame.getGroups());
       }
-      chassisData.populateNetworkTable(mainTable.getSubTable("chassis"));
-      targetState.populateNetworkTable(mainTable.getSubTable("targetState"));
-      constrainedCommandState.populateNetworkTable(
-          mainTable.getSubTable("constrainedCommandState"));
-      odometryState.populateNetworkTable(mainTable.getSubTable("odometryState"));
-      mainTable.getEntry("timestamp").setDouble(RobotControllerWrapper.getInstance().getFPGATime());
     }
+
+    // A dropped frame may have held the only capture of the configuration
+    // group, so the control loop is asked to capture it again
+    long droppedCount = this.ring.getDroppedCount();
+    if (droppedCount != this.lastDroppedCount) {
+      this.lastDroppedCount = droppedCount;
+      this.configurationEdited = true;
+    }
+    this.droppedFramesEntry.setDouble(droppedCount);
+  }
+
+  /**
+   * Gets the number of captured frames that were dropped because the publisher thread fell behind.
+   *
+   * @return The dropped frame count.
+   */
+  public long getDroppedFrameCount() {
+    return this.ring.getDroppedCount();
   }
 
   /**
@@ -0,0 +1,159 @@
+package frc.team88.swerve.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Packs a telemetry frame into a single versioned binary record, so that a whole control cycle can
+ * be published as one raw NetworkTables entry, and unpacks it again. Dashboards and log tools can
+ * decode a record with {@link #decode(ByteBuffer)}, and then read its values by slot, with the key
+ * of each slot given by {@link TelemetryFrame#getKey(int)}.
+ *
+ * <p>Version 1 of the record is laid out as follows, in big-endian byte order:
+ *
+ * <pre>
+ * byte    version                       always 1
+ * byte    flags                         bit 0 is set if the control thread stats are present
+ * short   moduleCount                   unsigned
+ * int     groups                        the groups that were captured, from TelemetryGroup
+ * double  values[frame size]            every slot of the frame in order, booleans as 1 or 0
+ * double  moduleResiduals[moduleCount]
+ * double  moduleWeights[moduleCount]
+ * byte    modulesEnabled[moduleCount]   1 or 0
+ * </pre>
+ *
+ * <p>The frame size is {@link TelemetryFrame#MODULES} + moduleCount * {@link
+ * TelemetryFrame#MODULE_FIELDS}. Any change to the slots of a frame must increment {@link
+ * #VERSION}.
+ */
+public final class PackedTelemetry {
+
+  /** The version of the record layout that is written. */
+  public static final int VERSION = 1;
+
+  /** The size of the record header, in bytes. */
+  public static final int HEADER_SIZE = 8;
+
+  // The flag bits of the header.
+  private static final int FLAG_CONTROL_THREAD = 1;
+
+  /** Not instantiable. */
+  private PackedTelemetry() {}
+
+  /**
+   * Gets the size of the record for a frame.
+   *
+   * @param moduleCount The number of modules in the frame.
+   * @return The record size, in bytes.
+   */
+  public static int getPackedSize(int moduleCount) {
+    int frameSize = TelemetryFrame.MODULES + moduleCount * TelemetryFrame.MODULE_FIELDS;
+    return HEADER_SIZE + frameSize * Double.BYTES + moduleCount * (2 * Double.BYTES + 1);
+  }
+
+  /**
+   * Writes the record for a frame at the buffer's position, and advances the position past it.
+   * Sets the buffer's byte order to big-endian. Does not allocate.
+   *
+   * @param frame The frame to pack.
+   * @param buffer The buffer to write to. Must have at least {@link #getPackedSize(int)} bytes
+   *     remaining.
+   * @throws java.nio.BufferOverflowException If the buffer is too small.
+   */
+  public static void encode(TelemetryFrame frame, ByteBuffer buffer) {
+    int moduleCount = frame.getModuleCount();
+    if (moduleCount > 0xFFFF) {
+      throw new IllegalArgumentException("Too many modules to pack");
+    }
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    buffer.put((byte) VERSION);
+    buffer.put((byte) (frame.hasControlThread() ? FLAG_CONTROL_THREAD : 0));
+    buffer.putShort((short) moduleCount);
+    buffer.putInt(frame.getGroups());
+    for (double value : frame.getValues()) {
+      buffer.putDouble(value);
+    }
+    for (double residual : frame.getModuleResiduals()) {
+      buffer.putDouble(residual);
+    }
+    for (double weight : frame.getModuleWeights()) {
+      buffer.putDouble(weight);
+    }
+    for (boolean enabled : frame.getModulesEnabled()) {
+      buffer.put((byte) (enabled ? 1 : 0));
+    }
+  }
+
+  /**
+   * Reads a record from the buffer's position into a new frame, and advances the position past it.
+   * Sets the buffer's byte order to big-endian.
+   *
+   * @param buffer The buffer to read from.
+   * @return The decoded frame.
+   * @throws IllegalArgumentException If the record has an unsupported version.
+   * @throws java.nio.BufferUnderflowException If the record is truncated.
+   */
+  public static TelemetryFrame decode(ByteBuffer buffer) {
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    int start = buffer.position();
+    checkVersion(buffer.get(start));
+    boolean hasControlThread = (buffer.get(start + 1) & FLAG_CONTROL_THREAD) != 0;
+    int moduleCount = Short.toUnsignedInt(buffer.getShort(start + 2));
+    TelemetryFrame frame = new TelemetryFrame(moduleCount, hasControlThread);
+    decode(buffer, frame);
+    return frame;
+  }
+
+  /**
+   * Reads a record from the buffer's position into an existing frame, and advances the position
+   * past it. Sets the buffer's byte order to big-endian. Does not allocate.
+   *
+   * @param buffer The buffer to read from.
+   * @param frame The frame to fill. Must have the same module count and control thread as the
+   *     record.
+   * @throws IllegalArgumentException If the record has an unsupported version, or does not match
+   *     the frame.
+   * @throws java.nio.BufferUnderflowException If the record is truncated.
+   */
+  public static void decode(ByteBuffer buffer, TelemetryFrame frame) {
+    Objects.requireNonNull(frame);
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    checkVersion(buffer.get());
+    boolean hasControlThread = (buffer.get() & FLAG_CONTROL_THREAD) != 0;
+    int moduleCount = Short.toUnsignedInt(buffer.getShort());
+    if (moduleCount != frame.getModuleCount() || hasControlThread != frame.hasControlThread()) {
+      throw new IllegalArgumentException("Packed telemetry does not match the frame's layout");
+    }
+    frame.setGroups(buffer.getInt());
+    double[] values = frame.getValues();
+    for (int slot = 0; slot < values.length; slot++) {
+      values[slot] = buffer.getDouble();
+    }
+    double[] residuals = frame.getModuleResiduals();
+    for (int idx = 0; idx < moduleCount; idx++) {
+      residuals[idx] = buffer.getDouble();
+    }
+    double[] weights = frame.getModuleWeights();
+    for (int idx = 0; idx < moduleCount; idx++) {
+      weights[idx] = buffer.getDouble();
+    }
+    boolean[] enabled = frame.getModulesEnabled();
+    for (int idx = 0; idx < moduleCount; idx++) {
+      enabled[idx] = buffer.get() != 0;
+    }
+  }
+
+  /**
+   * Checks that a record version can be decoded.
+   *
+   * @param version The version byte of the record.
+   * @throws IllegalArgumentException If the version is not supported.
+   */
+  private static void checkVersion(byte version) {
+    if (version != VERSION) {
+      throw new IllegalArgumentException(
+          String.format("Unsupported packed telemetry version %d", version));
+    }
+  }
+}
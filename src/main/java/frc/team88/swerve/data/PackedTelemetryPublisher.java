@@ -0,0 +1,51 @@
+package frc.team88.swerve.data;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Publishes telemetry frames to NetworkTables as a single raw entry, packed by {@link
+ * PackedTelemetry}. The record is packed into a reused buffer, so publishing does not allocate.
+ */
+public class PackedTelemetryPublisher {
+
+  /** The key of the raw entry, relative to the main telemetry table. */
+  public static final String KEY = "telemetry/frame";
+
+  // The entry that the records are published to.
+  private final NetworkTableEntry entry;
+
+  // The record being published, and a buffer over it.
+  private final byte[] record;
+  private final ByteBuffer buffer;
+
+  /**
+   * Constructor.
+   *
+   * @param table The main telemetry table.
+   * @param layout A frame with the same module count and control thread as the frames that will be
+   *     published.
+   */
+  public PackedTelemetryPublisher(NetworkTable table, TelemetryFrame layout) {
+    this.entry = Objects.requireNonNull(table).getEntry(KEY);
+    this.record = new byte[PackedTelemetry.getPackedSize(layout.getModuleCount())];
+    this.buffer = ByteBuffer.wrap(this.record);
+  }
+
+  /**
+   * Publishes a frame.
+   *
+   * @param frame The frame to publish. Must have the same layout as the one this publisher was
+   *     constructed with.
+   */
+  public void publish(TelemetryFrame frame) {
+    if (PackedTelemetry.getPackedSize(frame.getModuleCount()) != this.record.length) {
+      throw new IllegalArgumentException("Frame does not match the publisher's layout");
+    }
+    this.buffer.clear();
+    PackedTelemetry.encode(frame, this.buffer);
+    this.entry.setRaw(this.record);
+  }
+}
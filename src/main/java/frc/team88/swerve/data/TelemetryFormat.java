@@ -0,0 +1,15 @@
+package frc.team88.swerve.data;
+
+/** The formats that telemetry frames can be published to NetworkTables in. */
+public enum TelemetryFormat {
+  /**
+   * One entry per value, so values can be read directly by key. Groups are published at their own
+   * rates, and values within their deadband are skipped.
+   */
+  ENTRIES,
+  /**
+   * The whole frame packed into a single raw entry every cycle, decoded with {@link
+   * PackedTelemetry}. Every value in a packed frame is from the same cycle.
+   */
+  PACKED
+}
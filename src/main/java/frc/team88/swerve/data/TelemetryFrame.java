@@ -0,0 +1,581 @@
+package frc.team88.swerve.data;
+
+import frc.team88.swerve.configuration.Configuration;
+import frc.team88.swerve.gyro.SwerveGyro;
+import frc.team88.swerve.module.ModuleBank;
+import frc.team88.swerve.module.ModuleSnapshot;
+import frc.team88.swerve.module.SwerveModule;
+import frc.team88.swerve.module.motor.MotorCommandWriter;
+import frc.team88.swerve.module.motor.SwerveMotor;
+import frc.team88.swerve.motion.SwerveChassis;
+import frc.team88.swerve.motion.state.OdomState;
+import frc.team88.swerve.motion.state.VelocityState;
+import frc.team88.swerve.util.ControlThread;
+import java.util.Objects;
+
+/**
+ * The telemetry from one control cycle, stored as a flat array of values so that a frame can be
+ * captured and published every cycle without allocating. Each value has a slot, and each slot has
+ * a fixed key relative to the main telemetry table, so the entries for the slots can be resolved
+ * once. Values that are booleans on NetworkTables are stored as 1 or 0.
+ */
+public class TelemetryFrame {
+
+  // The slots that don't depend on the module count.
+  public static final int GYRO_YAW = 0;
+  public static final int GYRO_YAW_RATE = 1;
+  public static final int HOLD_AZIMUTH_MODE = 2;
+  public static final int ACTUATION_SENT_COUNT = 3;
+  public static final int ACTUATION_SUPPRESSED_COUNT = 4;
+  public static final int TARGET_STATE = 5;
+  public static final int CONSTRAINED_COMMAND_STATE = 11;
+  public static final int ODOMETRY_STATE = 17;
+  public static final int TIMESTAMP = 23;
+  public static final int CONTROL_THREAD = 24;
+  public static final int MODULES = 31;
+
+  // The offsets of the fields within a velocity state.
+  public static final int TRANSLATION_DIRECTION = 0;
+  public static final int TRANSLATION_SPEED = 1;
+  public static final int ROTATION_VELOCITY = 2;
+  public static final int CENTER_OF_ROTATION_X = 3;
+  public static final int CENTER_OF_ROTATION_Y = 4;
+  public static final int IS_FIELD_CENTRIC = 5;
+
+  // The offsets of the fields within an odometry state.
+  public static final int X_POSITION = 0;
+  public static final int Y_POSITION = 1;
+  public static final int THETA = 2;
+  public static final int X_VELOCITY = 3;
+  public static final int Y_VELOCITY = 4;
+  public static final int THETA_VELOCITY = 5;
+
+  // The offsets of the fields within the control thread stats.
+  public static final int RUNNING = 0;
+  public static final int CYCLE_COUNT = 1;
+  public static final int OVERRUN_COUNT = 2;
+  public static final int LAST_JITTER = 3;
+  public static final int MAX_JITTER = 4;
+  public static final int MEAN_JITTER = 5;
+  public static final int LAST_EXECUTION_TIME = 6;
+
+  // The offsets of the fields within a module, starting with motor 0 then
+  // motor 1.
+  public static final int MOTOR_VELOCITY = 0;
+  public static final int MOTOR_COMMAND_VELOCITY = 1;
+  public static final int MOTOR_COMMAND_VOLTAGE = 2;
+  public static final int MOTOR_CURRENT_DRAW = 3;
+  public static final int MOTOR_FIELDS = 4;
+  public static final int WHEEL_VELOCITY = 2 * MOTOR_FIELDS;
+  public static final int AZIMUTH_POSITION = WHEEL_VELOCITY + 1;
+  public static final int AZIMUTH_VELOCITY = WHEEL_VELOCITY + 2;
+  public static final int COMMAND_WHEEL_VELOCITY = WHEEL_VELOCITY + 3;
+  public static final int COMMAND_AZIMUTH_POSITION = WHEEL_VELOCITY + 4;
+  public static final int COMMAND_AZIMUTH_VELOCITY = WHEEL_VELOCITY + 5;
+  public static final int TARGET_WHEEL_VELOCITY = WHEEL_VELOCITY + 6;
+  public static final int TARGET_AZIMUTH_POSITION = WHEEL_VELOCITY + 7;
+  public static final int TARGET_AZIMUTH_VELOCITY = WHEEL_VELOCITY + 8;
+  public static final int LOCATION_X = WHEEL_VELOCITY + 9;
+  public static final int LOCATION_Y = WHEEL_VELOCITY + 10;
+  public static final int MODULE_FIELDS = WHEEL_VELOCITY + 11;
+
+  // The bitmask of every telemetry group.
+  public static final int ALL_GROUPS = (1 << TelemetryGroup.values().length) - 1;
+
+  // The keys of the fixed slots, and of the fields within a slot group.
+  private static final String[] FIXED_KEYS = {
+    "gyro/yaw",
+    "gyro/yawRate",
+    "chassis/holdAzimuthMode",
+    "actuation/sentCount",
+    "actuation/suppressedCount",
+  };
+  private static final String[] VELOCITY_STATE_KEYS = {
+    "translationDirection",
+    "translationSpeed",
+    "rotationVelocity",
+    "centerOfRotationX",
+    "centerOfRotationY",
+    "isFieldCentric",
+  };
+  private static final String[] ODOMETRY_STATE_KEYS = {
+    "xPosition", "yPosition", "theta", "xVelocity", "yVelocity", "thetaVelocity",
+  };
+  private static final String[] CONTROL_THREAD_KEYS = {
+    "running",
+    "cycleCount",
+    "overrunCount",
+    "lastJitterMicroseconds",
+    "maxJitterMicroseconds",
+    "meanJitterMicroseconds",
+    "lastExecutionMicroseconds",
+  };
+  private static final String[] MOTOR_KEYS = {
+    "velocity", "commandVelocity", "commandVoltage", "currentDraw",
+  };
+  private static final String[] MODULE_KEYS = {
+    "wheelVelocity",
+    "azimuthPosition",
+    "azimuthVelocity",
+    "commandWheelVelocity",
+    "commandAzimuthPosition",
+    "commandAzimuthVelocity",
+    "targetWheelVelocity",
+    "targetAzimuthPosition",
+    "targetAzimuthVelocity",
+    "locationX",
+    "locationY",
+  };
+
+  // The units of the fixed slots, and of the fields within a slot group, parallel to the keys.
+  private static final TelemetryUnit[] FIXED_UNITS = {
+    TelemetryUnit.DEGREES,
+    TelemetryUnit.DEGREES_PER_SECOND,
+    TelemetryUnit.BOOLEAN,
+    TelemetryUnit.COUNT,
+    TelemetryUnit.COUNT,
+  };
+  private static final TelemetryUnit[] VELOCITY_STATE_UNITS = {
+    TelemetryUnit.DEGREES,
+    TelemetryUnit.FEET_PER_SECOND,
+    TelemetryUnit.DEGREES_PER_SECOND,
+    TelemetryUnit.FEET,
+    TelemetryUnit.FEET,
+    TelemetryUnit.BOOLEAN,
+  };
+  private static final TelemetryUnit[] ODOMETRY_STATE_UNITS = {
+    TelemetryUnit.FEET,
+    TelemetryUnit.FEET,
+    TelemetryUnit.DEGREES,
+    TelemetryUnit.FEET_PER_SECOND,
+    TelemetryUnit.FEET_PER_SECOND,
+    TelemetryUnit.DEGREES_PER_SECOND,
+  };
+  private static final TelemetryUnit[] CONTROL_THREAD_UNITS = {
+    TelemetryUnit.BOOLEAN,
+    TelemetryUnit.COUNT,
+    TelemetryUnit.COUNT,
+    TelemetryUnit.MICROSECONDS,
+    TelemetryUnit.MICROSECONDS,
+    TelemetryUnit.MICROSECONDS,
+    TelemetryUnit.MICROSECONDS,
+  };
+  private static final TelemetryUnit[] MOTOR_UNITS = {
+    TelemetryUnit.ROTATIONS_PER_SECOND,
+    TelemetryUnit.ROTATIONS_PER_SECOND,
+    TelemetryUnit.VOLTS,
+    TelemetryUnit.AMPS,
+  };
+  private static final TelemetryUnit[] MODULE_UNITS = {
+    TelemetryUnit.FEET_PER_SECOND,
+    TelemetryUnit.DEGREES,
+    TelemetryUnit.DEGREES_PER_SECOND,
+    TelemetryUnit.FEET_PER_SECOND,
+    TelemetryUnit.DEGREES,
+    TelemetryUnit.DEGREES_PER_SECOND,
+    TelemetryUnit.FEET_PER_SECOND,
+    TelemetryUnit.DEGREES,
+    TelemetryUnit.DEGREES_PER_SECOND,
+    TelemetryUnit.FEET,
+    TelemetryUnit.FEET,
+  };
+
+  // The number of modules in the frame.
+  private final int moduleCount;
+
+  // True if the frame includes the control thread stats.
+  private final boolean hasControlThread;
+
+  // The values of the slots.
+  private final double[] values;
+
+  // The bitmask of groups captured by the most recent capture.
+  private int groups = 0;
+
+  // The per-module arrays that are published as single array entries.
+  private final double[] moduleResiduals;
+  private final double[] moduleWeights;
+  private final boolean[] modulesEnabled;
+
+  // Scratch state and buffers for reading the odometry, reused every capture.
+  private final OdomState odomState = new OdomState();
+  private final double[] odomBuffer = new double[6];
+  private final double[] moduleFitBuffer;
+
+  /**
+   * Constructor.
+   *
+   * @param moduleCount The number of modules on the swerve drive.
+   * @param hasControlThread True if the swerve drive has a dedicated control thread.
+   */
+  public TelemetryFrame(int moduleCount, boolean hasControlThread) {
+    if (moduleCount < 0) {
+      throw new IllegalArgumentException("Module count cannot be negative");
+    }
+    this.moduleCount = moduleCount;
+    this.hasControlThread = hasControlThread;
+    this.values = new double[MODULES + moduleCount * MODULE_FIELDS];
+    this.moduleResiduals = new double[moduleCount];
+    this.moduleWeights = new double[moduleCount];
+    this.modulesEnabled = new boolean[moduleCount];
+    this.moduleFitBuffer = new double[moduleCount * 2];
+  }
+
+  /**
+   * Fills this frame with the current telemetry. Should be called from the control loop, after the
+   * chassis has been updated.
+   *
+   * @param config The configuration of the swerve drive.
+   * @param chassis The swerve chassis.
+   * @param controlThread The dedicated control thread, or null if there is none.
+   */
+  public void capture(Configuration config, SwerveChassis chassis, ControlThread controlThread) {
+    this.capture(config, chassis, controlThread, ALL_GROUPS);
+  }
+
+  /**
+   * Fills some groups of this frame with the current telemetry, leaving the values of the other
+   * groups unchanged. Should be called from the control loop, after the chassis has been updated.
+   *
+   * @param config The configuration of the swerve drive.
+   * @param chassis The swerve chassis.
+   * @param controlThread The dedicated control thread, or null if there is none.
+   * @param groups The bitmask of groups to capture, from {@link TelemetryGroup#getMask()}.
+   */
+  public void capture(
+      Configuration config, SwerveChassis chassis, ControlThread controlThread, int groups) {
+    this.groups = groups;
+    if ((groups & TelemetryGroup.GYRO.getMask()) != 0) {
+      SwerveGyro gyro = config.getGyro();
+      this.values[GYRO_YAW] = gyro.getYaw();
+      this.values[GYRO_YAW_RATE] = gyro.getYawRate();
+    }
+
+    if ((groups & TelemetryGroup.CHASSIS.getMask()) != 0) {
+      this.values[HOLD_AZIMUTH_MODE] = chassis.inHoldAzimuthMode() ? 1 : 0;
+      chassis.getModuleFit(this.moduleResiduals, this.moduleWeights, this.moduleFitBuffer);
+      for (int idx = 0; idx < this.moduleCount; idx++) {
+        this.modulesEnabled[idx] = chassis.isModuleEnabled(idx);
+      }
+    }
+
+    if ((groups & TelemetryGroup.ACTUATION.getMask()) != 0) {
+      MotorCommandWriter commandWriter = config.getCommandWriter();
+      this.values[ACTUATION_SENT_COUNT] = commandWriter.getSentCount();
+      this.values[ACTUATION_SUPPRESSED_COUNT] = commandWriter.getSuppressedCount();
+    }
+
+    if ((groups & TelemetryGroup.COMMANDS.getMask()) != 0) {
+      this.captureVelocityState(TARGET_STATE, chassis.getTargetState());
+      this.captureVelocityState(CONSTRAINED_COMMAND_STATE, chassis.getConstrainedCommandState());
+    }
+
+    if ((groups & TelemetryGroup.ODOMETRY.getMask()) != 0) {
+      chassis.getOdomState(this.odomState, this.odomBuffer);
+      this.values[ODOMETRY_STATE + X_POSITION] = this.odomState.getXPosition();
+      this.values[ODOMETRY_STATE + Y_POSITION] = this.odomState.getYPosition();
+      this.values[ODOMETRY_STATE + THETA] = this.odomState.getTheta();
+      this.values[ODOMETRY_STATE + X_VELOCITY] = this.odomState.getXVelocity();
+      this.values[ODOMETRY_STATE + Y_VELOCITY] = this.odomState.getYVelocity();
+      this.values[ODOMETRY_STATE + THETA_VELOCITY] = this.odomState.getThetaVelocity();
+      this.values[TIMESTAMP] = config.getLoopClock().getTimestamp();
+    }
+
+    if ((groups & TelemetryGroup.CONTROL_THREAD.getMask()) != 0
+        && this.hasControlThread
+        && Objects.nonNull(controlThread)) {
+      this.values[CONTROL_THREAD + RUNNING] = controlThread.isRunning() ? 1 : 0;
+      this.values[CONTROL_THREAD + CYCLE_COUNT] = controlThread.getCycleCount();
+      this.values[CONTROL_THREAD + OVERRUN_COUNT] = controlThread.getOverrunCount();
+      this.values[CONTROL_THREAD + LAST_JITTER] = controlThread.getLastJitter();
+      this.values[CONTROL_THREAD + MAX_JITTER] = controlThread.getMaxJitter();
+      this.values[CONTROL_THREAD + MEAN_JITTER] = controlThread.getMeanJitter();
+      this.values[CONTROL_THREAD + LAST_EXECUTION_TIME] = controlThread.getLastExecutionTime();
+    }
+
+    ModuleBank bank = config.getModuleBank();
+    if ((groups & TelemetryGroup.MODULES.getMask()) != 0) {
+      SwerveModule[] modules = bank.getModules();
+      for (int idx = 0; idx < this.moduleCount; idx++) {
+        this.captureModule(MODULES + idx * MODULE_FIELDS, modules[idx]);
+      }
+    }
+
+    if ((groups & TelemetryGroup.CONFIGURATION.getMask()) != 0) {
+      double[] locationsX = bank.getLocationsX();
+      double[] locationsY = bank.getLocationsY();
+      for (int idx = 0; idx < this.moduleCount; idx++) {
+        this.values[MODULES + idx * MODULE_FIELDS + LOCATION_X] = locationsX[idx];
+        this.values[MODULES + idx * MODULE_FIELDS + LOCATION_Y] = locationsY[idx];
+      }
+    }
+  }
+
+  /**
+   * Copies the values of another frame into this one.
+   *
+   * @param other The frame to copy. Must have the same module count and control thread as this
+   *     one.
+   */
+  public void copyFrom(TelemetryFrame other) {
+    if (other.values.length != this.values.length) {
+      throw new IllegalArgumentException("Cannot copy a frame with a different layout");
+    }
+    this.groups = other.groups;
+    System.arraycopy(other.values, 0, this.values, 0, this.values.length);
+    System.arraycopy(other.moduleResiduals, 0, this.moduleResiduals, 0, this.moduleCount);
+    System.arraycopy(other.moduleWeights, 0, this.moduleWeights, 0, this.moduleCount);
+    System.arraycopy(other.modulesEnabled, 0, this.modulesEnabled, 0, this.moduleCount);
+  }
+
+  /**
+   * Gets the groups that were filled by the most recent capture. The values of the other groups
+   * are left over from earlier captures.
+   *
+   * @return The bitmask of groups, from {@link TelemetryGroup#getMask()}.
+   */
+  public int getGroups() {
+    return this.groups;
+  }
+
+  /**
+   * Sets the groups that were filled, for frames that are filled by decoding rather than capture.
+   *
+   * @param groups The bitmask of groups, from {@link TelemetryGroup#getMask()}.
+   */
+  void setGroups(int groups) {
+    this.groups = groups;
+  }
+
+  /**
+   * Gets the number of slots in this frame.
+   *
+   * @return The slot count.
+   */
+  public int size() {
+    return this.values.length;
+  }
+
+  /**
+   * Gets the number of modules in this frame.
+   *
+   * @return The module count.
+   */
+  public int getModuleCount() {
+    return this.moduleCount;
+  }
+
+  /**
+   * Checks if this frame includes the control thread stats.
+   *
+   * @return True if the swerve drive has a dedicated control thread.
+   */
+  public boolean hasControlThread() {
+    return this.hasControlThread;
+  }
+
+  /**
+   * Gets the key of a slot, relative to the main telemetry table.
+   *
+   * @param slot The slot.
+   * @return The key, or null if the slot is not published, such as the control thread stats when
+   *     there is no control thread.
+   */
+  public String getKey(int slot) {
+    Objects.checkIndex(slot, this.values.length);
+    if (slot < TARGET_STATE) {
+      return FIXED_KEYS[slot];
+    } else if (slot < CONSTRAINED_COMMAND_STATE) {
+      return "targetState/" + VELOCITY_STATE_KEYS[slot - TARGET_STATE];
+    } else if (slot < ODOMETRY_STATE) {
+      return "constrainedCommandState/" + VELOCITY_STATE_KEYS[slot - CONSTRAINED_COMMAND_STATE];
+    } else if (slot < TIMESTAMP) {
+      return "odometryState/" + ODOMETRY_STATE_KEYS[slot - ODOMETRY_STATE];
+    } else if (slot == TIMESTAMP) {
+      return "timestamp";
+    } else if (slot < MODULES) {
+      return this.hasControlThread
+          ? "controlThread/" + CONTROL_THREAD_KEYS[slot - CONTROL_THREAD]
+          : null;
+    }
+    int moduleIdx = (slot - MODULES) / MODULE_FIELDS;
+    int field = (slot - MODULES) % MODULE_FIELDS;
+    String moduleKey = "modules/" + moduleIdx + "/";
+    if (field < WHEEL_VELOCITY) {
+      return moduleKey + "motor" + (field / MOTOR_FIELDS) + "/" + MOTOR_KEYS[field % MOTOR_FIELDS];
+    }
+    return moduleKey + MODULE_KEYS[field - WHEEL_VELOCITY];
+  }
+
+  /**
+   * Checks if a slot is published as a boolean.
+   *
+   * @param slot The slot.
+   * @return True if the slot is a boolean, false if it is a double.
+   */
+  public boolean isBoolean(int slot) {
+    return this.getUnit(slot) == TelemetryUnit.BOOLEAN;
+  }
+
+  /**
+   * Gets the unit of a slot, which determines its deadband.
+   *
+   * @param slot The slot.
+   * @return The unit.
+   */
+  public TelemetryUnit getUnit(int slot) {
+    Objects.checkIndex(slot, this.values.length);
+    if (slot < TARGET_STATE) {
+      return FIXED_UNITS[slot];
+    } else if (slot < CONSTRAINED_COMMAND_STATE) {
+      return VELOCITY_STATE_UNITS[slot - TARGET_STATE];
+    } else if (slot < ODOMETRY_STATE) {
+      return VELOCITY_STATE_UNITS[slot - CONSTRAINED_COMMAND_STATE];
+    } else if (slot < TIMESTAMP) {
+      return ODOMETRY_STATE_UNITS[slot - ODOMETRY_STATE];
+    } else if (slot == TIMESTAMP) {
+      return TelemetryUnit.MICROSECONDS;
+    } else if (slot < MODULES) {
+      return CONTROL_THREAD_UNITS[slot - CONTROL_THREAD];
+    }
+    int field = (slot - MODULES) % MODULE_FIELDS;
+    if (field < WHEEL_VELOCITY) {
+      return MOTOR_UNITS[field % MOTOR_FIELDS];
+    }
+    return MODULE_UNITS[field - WHEEL_VELOCITY];
+  }
+
+  /**
+   * Gets the group that a slot is published with.
+   *
+   * @param slot The slot.
+   * @return The group.
+   */
+  public TelemetryGroup getGroup(int slot) {
+    Objects.checkIndex(slot, this.values.length);
+    if (slot < HOLD_AZIMUTH_MODE) {
+      return TelemetryGroup.GYRO;
+    } else if (slot < ACTUATION_SENT_COUNT) {
+      return TelemetryGroup.CHASSIS;
+    } else if (slot < TARGET_STATE) {
+      return TelemetryGroup.ACTUATION;
+    } else if (slot < ODOMETRY_STATE) {
+      return TelemetryGroup.COMMANDS;
+    } else if (slot < CONTROL_THREAD) {
+      return TelemetryGroup.ODOMETRY;
+    } else if (slot < MODULES) {
+      return TelemetryGroup.CONTROL_THREAD;
+    }
+    int field = (slot - MODULES) % MODULE_FIELDS;
+    return field == LOCATION_X || field == LOCATION_Y
+        ? TelemetryGroup.CONFIGURATION
+        : TelemetryGroup.MODULES;
+  }
+
+  /**
+   * Gets the slot of a module field.
+   *
+   * @param moduleIdx The index of the module.
+   * @param field The offset of the field within the module, such as {@link #WHEEL_VELOCITY}.
+   * @return The slot.
+   */
+  public int getModuleSlot(int moduleIdx, int field) {
+    Objects.checkIndex(moduleIdx, this.moduleCount);
+    Objects.checkIndex(field, MODULE_FIELDS);
+    return MODULES + moduleIdx * MODULE_FIELDS + field;
+  }
+
+  /**
+   * Gets the value of a slot.
+   *
+   * @param slot The slot.
+   * @return The value.
+   */
+  public double get(int slot) {
+    return this.values[slot];
+  }
+
+  /**
+   * Gets the values of all of the slots.
+   *
+   * @return The values, indexed by slot. This array is owned by the frame and must not be
+   *     modified.
+   */
+  public double[] getValues() {
+    return this.values;
+  }
+
+  /**
+   * Gets the residual of each module from the odometry fit.
+   *
+   * @return The residuals, in feet per second. This array is owned by the frame and must not be
+   *     modified.
+   */
+  public double[] getModuleResiduals() {
+    return this.moduleResiduals;
+  }
+
+  /**
+   * Gets the weight of each module in the odometry fit.
+   *
+   * @return The weights. This array is owned by the frame and must not be modified.
+   */
+  public double[] getModuleWeights() {
+    return this.moduleWeights;
+  }
+
+  /**
+   * Gets if each module is enabled.
+   *
+   * @return The enabled flags. This array is owned by the frame and must not be modified.
+   */
+  public boolean[] getModulesEnabled() {
+    return this.modulesEnabled;
+  }
+
+  /**
+   * Copies the values of a module's slots, other than its location, from the module.
+   *
+   * @param base The first slot of the module.
+   * @param module The module.
+   */
+  private void captureModule(int base, SwerveModule module) {
+    ModuleSnapshot snapshot = module.getSnapshot();
+    SwerveMotor[] motors = module.getMotors();
+    for (int motorIdx = 0; motorIdx < 2; motorIdx++) {
+      int motorBase = base + motorIdx * MOTOR_FIELDS;
+      SwerveMotor motor = motors[motorIdx];
+      this.values[motorBase + MOTOR_VELOCITY] = snapshot.getMotorVelocity(motorIdx);
+      this.values[motorBase + MOTOR_COMMAND_VELOCITY] = motor.getCommandVelocity();
+      this.values[motorBase + MOTOR_COMMAND_VOLTAGE] = motor.getCommandVoltage();
+      this.values[motorBase + MOTOR_CURRENT_DRAW] = motor.getCurrentDraw();
+    }
+
+    this.values[base + WHEEL_VELOCITY] = snapshot.getWheelVelocity();
+    this.values[base + AZIMUTH_POSITION] = snapshot.getAzimuthPosition();
+    this.values[base + AZIMUTH_VELOCITY] = snapshot.getAzimuthVelocity();
+
+    this.values[base + COMMAND_WHEEL_VELOCITY] = module.getCommandedWheelVelocity();
+    this.values[base + COMMAND_AZIMUTH_POSITION] = module.getCommandedAzimuthPositionDegrees();
+    this.values[base + COMMAND_AZIMUTH_VELOCITY] = module.getCommandedAzimuthVelocity();
+
+    this.values[base + TARGET_WHEEL_VELOCITY] = module.getTargetWheelVelocity();
+    this.values[base + TARGET_AZIMUTH_POSITION] = module.getTargetAzimuthPositionDegrees();
+    this.values[base + TARGET_AZIMUTH_VELOCITY] = module.getTargetAzimuthVelocity();
+  }
+
+  /**
+   * Copies the values of a slot group from a velocity state.
+   *
+   * @param group The first slot of the group.
+   * @param state The velocity state.
+   */
+  private void captureVelocityState(int group, VelocityState state) {
+    this.values[group + TRANSLATION_DIRECTION] = state.getTranslationDirection();
+    this.values[group + TRANSLATION_SPEED] = state.getTranslationSpeed();
+    this.values[group + ROTATION_VELOCITY] = state.getRotationVelocity();
+    this.values[group + CENTER_OF_ROTATION_X] = state.getCenterOfRotationX();
+    this.values[group + CENTER_OF_ROTATION_Y] = state.getCenterOfRotationY();
+    this.values[group + IS_FIELD_CENTRIC] = state.isFieldCentric() ? 1 : 0;
+  }
+}
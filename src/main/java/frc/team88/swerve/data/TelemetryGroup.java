@@ -0,0 +1,53 @@
+package frc.team88.swerve.data;
+
+/** The groups of telemetry that can be published at different rates. */
+public enum TelemetryGroup {
+  /** The gyro yaw and yaw rate. */
+  GYRO("gyro"),
+  /** The chassis hold mode and the odometry fit of each module. */
+  CHASSIS("chassis"),
+  /** The counts of sent and suppressed motor commands. */
+  ACTUATION("actuation"),
+  /** The target and constrained command velocity states. */
+  COMMANDS("commands"),
+  /** The odometry state and the loop timestamp. */
+  ODOMETRY("odometry"),
+  /** The stats of the dedicated control thread. */
+  CONTROL_THREAD("control-thread"),
+  /** The sensor, command, and target values of each module and its motors. */
+  MODULES("modules"),
+  /** The configuration tree and the module locations. */
+  CONFIGURATION("configuration"),
+  /** The tuning modes. */
+  TUNING("tuning");
+
+  // The name of the group in the config.
+  private final String configName;
+
+  /**
+   * Constructor.
+   *
+   * @param configName The name of the group in the config.
+   */
+  private TelemetryGroup(String configName) {
+    this.configName = configName;
+  }
+
+  /**
+   * Gets the name of this group in the config.
+   *
+   * @return The name, such as "control-thread".
+   */
+  public String getConfigName() {
+    return this.configName;
+  }
+
+  /**
+   * Gets the bit for this group in a bitmask of groups.
+   *
+   * @return The bit, where bit i is group i in declaration order.
+   */
+  public int getMask() {
+    return 1 << this.ordinal();
+  }
+}
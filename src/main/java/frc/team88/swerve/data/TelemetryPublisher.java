@@ -0,0 +1,149 @@
+package frc.team88.swerve.data;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import frc.team88.swerve.configuration.subconfig.TelemetryConfiguration;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Publishes telemetry frames to NetworkTables. Every entry is resolved once when the publisher is
+ * constructed, so publishing a frame only writes values and does no string lookups.
+ *
+ * <p>Each value remembers the last value that was published for it, and is skipped if it has not
+ * changed by more than its deadband since. {@link #forceRefresh()} makes the next publish of each
+ * group send every value regardless.
+ */
+public class TelemetryPublisher {
+
+  // The entry for each slot of the frame, or null if the slot isn't published.
+  private final NetworkTableEntry[] entries;
+
+  // True if the slot with the same index is published as a boolean.
+  private final boolean[] booleanSlots;
+
+  // The deadband of each slot, and the last value that was published for it. NaN has not been
+  // published, so it never falls within the deadband.
+  private final double[] deadbands;
+  private final double[] lastPublished;
+
+  // The published slots of each group, indexed by group ordinal.
+  private final int[][] groupSlots;
+
+  // The entries for the per-module arrays.
+  private final NetworkTableEntry moduleResidualsEntry;
+  private final NetworkTableEntry moduleWeightsEntry;
+  private final NetworkTableEntry modulesEnabledEntry;
+
+  // The number of slots in the frames this publisher was made for.
+  private final int frameSize;
+
+  /**
+   * Constructor. Every value is published whenever it changes.
+   *
+   * @param table The main telemetry table.
+   * @param layout A frame with the same module count and control thread as the frames that will be
+   *     published.
+   */
+  public TelemetryPublisher(NetworkTable table, TelemetryFrame layout) {
+    this(table, layout, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param table The main telemetry table.
+   * @param layout A frame with the same module count and control thread as the frames that will be
+   *     published.
+   * @param telemetryConfig The telemetry configuration to get the deadband of each unit from, or
+   *     null to publish every change.
+   */
+  public TelemetryPublisher(
+      NetworkTable table, TelemetryFrame layout, TelemetryConfiguration telemetryConfig) {
+    Objects.requireNonNull(table);
+    this.frameSize = layout.size();
+    this.entries = new NetworkTableEntry[this.frameSize];
+    this.booleanSlots = new boolean[this.frameSize];
+    this.deadbands = new double[this.frameSize];
+    this.lastPublished = new double[this.frameSize];
+    Arrays.fill(this.lastPublished, Double.NaN);
+    int[] groupSizes = new int[TelemetryGroup.values().length];
+    for (int slot = 0; slot < this.frameSize; slot++) {
+      String key = layout.getKey(slot);
+      if (Objects.nonNull(key)) {
+        this.entries[slot] = table.getEntry(key);
+        groupSizes[layout.getGroup(slot).ordinal()]++;
+      }
+      this.booleanSlots[slot] = layout.isBoolean(slot);
+      if (Objects.nonNull(telemetryConfig) && !this.booleanSlots[slot]) {
+        this.deadbands[slot] = telemetryConfig.getDeadband(layout.getUnit(slot));
+      }
+    }
+    this.groupSlots = new int[groupSizes.length][];
+    for (int group = 0; group < groupSizes.length; group++) {
+      this.groupSlots[group] = new int[groupSizes[group]];
+      groupSizes[group] = 0;
+    }
+    for (int slot = 0; slot < this.frameSize; slot++) {
+      if (Objects.nonNull(this.entries[slot])) {
+        int group = layout.getGroup(slot).ordinal();
+        this.groupSlots[group][groupSizes[group]++] = slot;
+      }
+    }
+    this.moduleResidualsEntry = table.getEntry("chassis/moduleResiduals");
+    this.moduleWeightsEntry = table.getEntry("chassis/moduleWeights");
+    this.modulesEnabledEntry = table.getEntry("chassis/modulesEnabled");
+  }
+
+  /**
+   * Publishes every group of a frame.
+   *
+   * @param frame The frame to publish. Must have the same layout as the one this publisher was
+   *     constructed with.
+   */
+  public void publish(TelemetryFrame frame) {
+    this.publish(frame, TelemetryFrame.ALL_GROUPS);
+  }
+
+  /** Makes the next publish of each group send every value, even those within their deadband. */
+  public void forceRefresh() {
+    Arrays.fill(this.lastPublished, Double.NaN);
+  }
+
+  /**
+   * Publishes some groups of a frame. Values that are within their deadband of the last published
+   * value are skipped.
+   *
+   * @param frame The frame to publish. Must have the same layout as the one this publisher was
+   *     constructed with.
+   * @param groups The bitmask of groups to publish, from {@link TelemetryGroup#getMask()}.
+   */
+  public void publish(TelemetryFrame frame, int groups) {
+    if (frame.size() != this.frameSize) {
+      throw new IllegalArgumentException("Frame does not match the publisher's layout");
+    }
+    double[] values = frame.getValues();
+    for (int group = 0; group < this.groupSlots.length; group++) {
+      if ((groups & (1 << group)) == 0) {
+        continue;
+      }
+      for (int slot : this.groupSlots[group]) {
+        double value = values[slot];
+        if (Math.abs(value - this.lastPublished[slot]) <= this.deadbands[slot]) {
+          continue;
+        }
+        this.lastPublished[slot] = value;
+        if (this.booleanSlots[slot]) {
+          this.entries[slot].setBoolean(value != 0);
+        } else {
+          this.entries[slot].setDouble(value);
+        }
+      }
+    }
+    if ((groups & TelemetryGroup.CHASSIS.getMask()) != 0) {
+      this.moduleResidualsEntry.setDoubleArray(frame.getModuleResiduals());
+      this.moduleWeightsEntry.setDoubleArray(frame.getModuleWeights());
+      this.modulesEnabledEntry.setBooleanArray(frame.getModulesEnabled());
+    }
+  }
+}
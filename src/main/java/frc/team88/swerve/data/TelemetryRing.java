@@ -0,0 +1,152 @@
+package frc.team88.swerve.data;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Passes telemetry frames from the control loop to a publisher thread without locking or
+ * allocating. The ring holds a fixed number of preallocated frames. The writer always writes into
+ * the next frame and never waits for the reader. If the reader falls more than a full ring behind,
+ * the oldest frames are overwritten and counted as dropped.
+ *
+ * <p>Each frame has a sequence number that is odd while the frame is being written, and that
+ * identifies which write filled it. The reader checks the sequence number before and after
+ * copying a frame, so it never publishes a frame that was overwritten while it was being read.
+ * Only one thread may write and only one thread may read.
+ */
+public class TelemetryRing {
+
+  private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final VarHandle WRITE_INDEX;
+
+  static {
+    try {
+      WRITE_INDEX =
+          MethodHandles.lookup().findVarHandle(TelemetryRing.class, "writeIndex", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  // The frames in the ring, and the mask from a write index to a frame.
+  private final TelemetryFrame[] frames;
+  private final int mask;
+
+  // The sequence number of each frame. Write i sets it to 2i + 1 while
+  // writing and 2i + 2 once done. Accessed through SEQUENCES.
+  private final long[] sequences;
+
+  // The number of completed writes. Written only by the writer, and accessed
+  // through WRITE_INDEX.
+  @SuppressWarnings("unused")
+  private volatile long writeIndex = 0;
+
+  // The index of the next write to read. Only used by the reader.
+  private long readIndex = 0;
+
+  // The number of frames that were overwritten before they could be read.
+  // Written only by the reader.
+  private volatile long droppedCount = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param capacity The minimum number of frames in the ring. Rounded up to a power of 2.
+   * @param moduleCount The number of modules in each frame.
+   * @param hasControlThread True if the frames include the control thread stats.
+   */
+  public TelemetryRing(int capacity, int moduleCount, boolean hasControlThread) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Telemetry ring capacity must be in [1, 2^30]");
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.frames = new TelemetryFrame[size];
+    for (int idx = 0; idx < size; idx++) {
+      this.frames[idx] = new TelemetryFrame(moduleCount, hasControlThread);
+    }
+    this.mask = size - 1;
+    this.sequences = new long[size];
+  }
+
+  /**
+   * Gets the number of frames in the ring.
+   *
+   * @return The capacity.
+   */
+  public int getCapacity() {
+    return this.frames.length;
+  }
+
+  /**
+   * Starts writing the next frame. The returned frame must be filled and then passed to {@link
+   * #endWrite()} before the next call. Must only be called by the writer.
+   *
+   * @return The frame to fill, which still holds the values from an earlier write.
+   */
+  public TelemetryFrame beginWrite() {
+    long index = (long) WRITE_INDEX.getOpaque(this);
+    int slot = (int) index & this.mask;
+    SEQUENCES.setOpaque(this.sequences, slot, 2 * index + 1);
+    VarHandle.releaseFence();
+    return this.frames[slot];
+  }
+
+  /**
+   * Finishes writing the frame returned by {@link #beginWrite()}, making it visible to the reader.
+   */
+  public void endWrite() {
+    long index = (long) WRITE_INDEX.getOpaque(this);
+    int slot = (int) index & this.mask;
+    SEQUENCES.setRelease(this.sequences, slot, 2 * index + 2);
+    WRITE_INDEX.setRelease(this, index + 1);
+  }
+
+  /**
+   * Copies the oldest unread frame, skipping any that have been overwritten. Must only be called
+   * by the reader.
+   *
+   * @param destination The frame to fill. Must have the same layout as the frames in the ring.
+   * @return True if a frame was copied, or false if there are no unread frames.
+   */
+  public boolean poll(TelemetryFrame destination) {
+    while (true) {
+      long written = (long) WRITE_INDEX.getAcquire(this);
+      if (this.readIndex >= written) {
+        return false;
+      }
+      if (written - this.readIndex > this.frames.length) {
+        this.droppedCount += written - this.readIndex - this.frames.length;
+        this.readIndex = written - this.frames.length;
+      }
+
+      int slot = (int) this.readIndex & this.mask;
+      long expected = 2 * this.readIndex + 2;
+      long before = (long) SEQUENCES.getAcquire(this.sequences, slot);
+      if (before == expected) {
+        destination.copyFrom(this.frames[slot]);
+        VarHandle.acquireFence();
+        if ((long) SEQUENCES.getOpaque(this.sequences, slot) == expected) {
+          this.readIndex++;
+          return true;
+        }
+      }
+
+      // The writer lapped the reader and reused this frame
+      this.droppedCount++;
+      this.readIndex++;
+    }
+  }
+
+  /**
+   * Gets the number of frames that were overwritten before the reader could copy them. Safe to
+   * call from any thread.
+   *
+   * @return The dropped frame count.
+   */
+  public long getDroppedCount() {
+    return this.droppedCount;
+  }
+}
@@ -0,0 +1,46 @@
+package frc.team88.swerve.data;
+
+/** The units of telemetry values, which each have their own deadband. */
+public enum TelemetryUnit {
+  /** Angles, such as headings and azimuth positions. */
+  DEGREES("degrees"),
+  /** Angular velocities. */
+  DEGREES_PER_SECOND("degrees-per-second"),
+  /** Positions and locations. */
+  FEET("feet"),
+  /** Linear velocities. */
+  FEET_PER_SECOND("feet-per-second"),
+  /** Motor velocities. */
+  ROTATIONS_PER_SECOND("rotations-per-second"),
+  /** Motor voltages. */
+  VOLTS("volts"),
+  /** Motor currents. */
+  AMPS("amps"),
+  /** Counters. */
+  COUNT("count"),
+  /** Timestamps and durations. */
+  MICROSECONDS("microseconds"),
+  /** Flags, which are always published when they change, so they have no deadband. */
+  BOOLEAN(null);
+
+  // The name of the unit in the config, or null if it has no deadband.
+  private final String configName;
+
+  /**
+   * Constructor.
+   *
+   * @param configName The name of the unit in the config, or null if it has no deadband.
+   */
+  private TelemetryUnit(String configName) {
+    this.configName = configName;
+  }
+
+  /**
+   * Gets the name of this unit in the config.
+   *
+   * @return The name, such as "feet-per-second", or null if the unit has no deadband.
+   */
+  public String getConfigName() {
+    return this.configName;
+  }
+}
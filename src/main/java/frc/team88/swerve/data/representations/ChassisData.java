@@ -2,11 +2,21 @@ package frc.team88.swerve.data.representations;
 
 import edu.wpi.first.networktables.NetworkTable;
 import frc.team88.swerve.data.NetworkTablePopulator;
+import frc.team88.swerve.data.TelemetryFrame;
 import frc.team88.swerve.motion.SwerveChassis;
 
-/** Represents data about the swerve chassis. */
+/**
+ * Represents data about the swerve chassis.
+ *
+ * @deprecated Read the {@link TelemetryFrame#HOLD_AZIMUTH_MODE} slot and the module fit arrays,
+ *     such as {@link TelemetryFrame#getModuleWeights()}, of a {@link TelemetryFrame}.
+ */
+@Deprecated
 public class ChassisData implements NetworkTablePopulator {
   private final boolean inHoldAzimuthMode;
+  private final double[] moduleResiduals;
+  private final double[] moduleWeights;
+  private final boolean[] modulesEnabled;
 
   /**
    * Constructor.
@@ -15,10 +25,21 @@ public class ChassisData implements NetworkTablePopulator {
    */
   public ChassisData(SwerveChassis chassis) {
     this.inHoldAzimuthMode = chassis.inHoldAzimuthMode();
+    int moduleCount = chassis.getModuleCount();
+    this.moduleResiduals = new double[moduleCount];
+    this.moduleWeights = new double[moduleCount];
+    chassis.getModuleFit(this.moduleResiduals, this.moduleWeights);
+    this.modulesEnabled = new boolean[moduleCount];
+    for (int idx = 0; idx < moduleCount; idx++) {
+      this.modulesEnabled[idx] = chassis.isModuleEnabled(idx);
+    }
   }
 
   @Override
   public void populateNetworkTable(NetworkTable table) {
     table.getEntry("holdAzimuthMode").setBoolean(this.inHoldAzimuthMode);
+    table.getEntry("moduleResiduals").setDoubleArray(this.moduleResiduals);
+    table.getEntry("moduleWeights").setDoubleArray(this.moduleWeights);
+    table.getEntry("modulesEnabled").setBooleanArray(this.modulesEnabled);
   }
 }
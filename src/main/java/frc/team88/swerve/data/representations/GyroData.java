@@ -2,10 +2,17 @@ package frc.team88.swerve.data.representations;
 
 import edu.wpi.first.networktables.NetworkTable;
 import frc.team88.swerve.data.NetworkTablePopulator;
+import frc.team88.swerve.data.TelemetryFrame;
 import frc.team88.swerve.gyro.SwerveGyro;
 import java.util.Objects;
 
-/** Represents data from a gyroscope. */
+/**
+ * Represents data from a gyroscope.
+ *
+ * @deprecated Read the {@link TelemetryFrame#GYRO_YAW} and {@link TelemetryFrame#GYRO_YAW_RATE}
+ *     slots of a {@link TelemetryFrame} instead.
+ */
+@Deprecated
 public class GyroData implements NetworkTablePopulator {
 
   private final double yaw;
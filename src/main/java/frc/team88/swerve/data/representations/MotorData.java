@@ -2,10 +2,17 @@ package frc.team88.swerve.data.representations;
 
 import edu.wpi.first.networktables.NetworkTable;
 import frc.team88.swerve.data.NetworkTablePopulator;
+import frc.team88.swerve.data.TelemetryFrame;
 import frc.team88.swerve.module.motor.SwerveMotor;
 import java.util.Objects;
 
-/** Represents data from a motor. */
+/**
+ * Represents data from a motor.
+ *
+ * @deprecated Read a motor's fields, from {@link TelemetryFrame#MOTOR_VELOCITY} to {@link
+ *     TelemetryFrame#MOTOR_CURRENT_DRAW}, from the module slots of a {@link TelemetryFrame}.
+ */
+@Deprecated
 public class MotorData implements NetworkTablePopulator {
 
   private final double velocity;
@@ -19,8 +26,18 @@ public class MotorData implements NetworkTablePopulator {
    * @param motor The motor to collect data from.
    */
   public MotorData(SwerveMotor motor) {
+    this(motor, motor.getVelocity());
+  }
+
+  /**
+   * Constructor that uses an already sampled velocity instead of reading the motor again.
+   *
+   * @param motor The motor to collect data from.
+   * @param velocity The sampled velocity of the motor, in rotations per second.
+   */
+  public MotorData(SwerveMotor motor, double velocity) {
     Objects.requireNonNull(motor);
-    this.velocity = motor.getVelocity();
+    this.velocity = velocity;
     this.commandVelocity = motor.getCommandVelocity();
     this.commandVoltage = motor.getCommandVoltage();
     this.currentDraw = motor.getCurrentDraw();
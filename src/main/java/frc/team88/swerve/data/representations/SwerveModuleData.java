@@ -2,10 +2,18 @@ package frc.team88.swerve.data.representations;
 
 import edu.wpi.first.networktables.NetworkTable;
 import frc.team88.swerve.data.NetworkTablePopulator;
+import frc.team88.swerve.data.TelemetryFrame;
+import frc.team88.swerve.module.ModuleSnapshot;
 import frc.team88.swerve.module.SwerveModule;
 import java.util.Objects;
 
-/** Represents data from a swerve module */
+/**
+ * Represents data from a swerve module.
+ *
+ * @deprecated Read each field of a module from a {@link TelemetryFrame} with {@link
+ *     TelemetryFrame#getModuleSlot(int, int)}.
+ */
+@Deprecated
 public class SwerveModuleData implements NetworkTablePopulator {
 
   private final MotorData motor0;
@@ -34,19 +42,20 @@ public class SwerveModuleData implements NetworkTablePopulator {
   public SwerveModuleData(SwerveModule module) {
     Objects.requireNonNull(module);
 
-    this.motor0 = new MotorData(module.getMotors()[0]);
-    this.motor1 = new MotorData(module.getMotors()[1]);
+    ModuleSnapshot snapshot = module.getSnapshot();
+    this.motor0 = new MotorData(module.getMotors()[0], snapshot.getMotorVelocity(0));
+    this.motor1 = new MotorData(module.getMotors()[1], snapshot.getMotorVelocity(1));
 
-    this.wheelVelocity = module.getWheelVelocity();
-    this.azimuthPosition = module.getAzimuthPosition().asDouble();
-    this.azimuthVelocity = module.getAzimuthVelocity();
+    this.wheelVelocity = snapshot.getWheelVelocity();
+    this.azimuthPosition = snapshot.getAzimuthPosition();
+    this.azimuthVelocity = snapshot.getAzimuthVelocity();
 
     this.commandWheelVelocity = module.getCommandedWheelVelocity();
-    this.commandAzimuthPosition = module.getCommandedAzimuthPosition().asDouble();
+    this.commandAzimuthPosition = module.getCommandedAzimuthPositionDegrees();
     this.commandAzimuthVelocity = module.getCommandedAzimuthVelocity();
 
     this.targetWheelVelocity = module.getTargetWheelVelocity();
-    this.targetAzimuthPosition = module.getTargetAzimuthPosition().asDouble();
+    this.targetAzimuthPosition = module.getTargetAzimuthPositionDegrees();
     this.targetAzimuthVelocity = module.getTargetAzimuthVelocity();
 
     this.locationX = module.getLocation().getX();
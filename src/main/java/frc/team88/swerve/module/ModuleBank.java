@@ -0,0 +1,272 @@
+package frc.team88.swerve.module;
+
+import frc.team88.swerve.module.motor.SwerveMotor;
+import frc.team88.swerve.module.sensor.PositionSensor;
+import frc.team88.swerve.util.Vector2D;
+import java.util.Objects;
+
+/**
+ * Holds the per-module values used by the chassis-level math in parallel primitive arrays, indexed
+ * by module, so that the kinematics can loop over plain arrays instead of calling getters on each
+ * module every cycle. The configured values are cached and only reloaded by {@link #refresh()},
+ * while the sensor values are sampled once per cycle by {@link #sample()}.
+ *
+ * <p>The arrays returned by the getters are owned by the bank and must not be modified. Each
+ * calculation over them is a simple counted loop with no calls in its body, which the JIT unrolls
+ * for the common 4-module drive and vectorizes where it can, and which works unchanged for any
+ * other module count.
+ */
+public class ModuleBank {
+
+  // The conversion factor from azimuth rotations to degrees.
+  private static final double AZIMUTH_ROTATIONS_TO_DEGREES = 360.;
+
+  // The modules in the bank, and their hardware.
+  private final SwerveModule[] modules;
+  private final SwerveMotor[] motors0;
+  private final SwerveMotor[] motors1;
+  private final PositionSensor[] azimuthSensors;
+
+  // The number of modules.
+  private final int size;
+
+  // The module locations, in feet.
+  private final double[] locationsX;
+  private final double[] locationsY;
+
+  // The max wheel speed of each module, in feet per second.
+  private final double[] maxWheelSpeeds;
+
+  // The entries of each module's differential matrix from motor rotations
+  // to azimuth rotations (a) and wheel rotations (w).
+  private final double[] azimuthFromMotor0;
+  private final double[] azimuthFromMotor1;
+  private final double[] wheelFromMotor0;
+  private final double[] wheelFromMotor1;
+
+  // The conversion factor from wheel rotations to feet for each module.
+  private final double[] wheelRotationsToFeet;
+
+  // The raw sensor values from the last sample, in rotations, rotations per
+  // second, and degrees.
+  private final double[] motor0Positions;
+  private final double[] motor1Positions;
+  private final double[] motor0Velocities;
+  private final double[] motor1Velocities;
+  private final double[] azimuthSensorPositions;
+
+  // The module states derived from the last sample. See getters for units.
+  private final double[] azimuthPositions;
+  private final double[] azimuthVelocities;
+  private final double[] wheelPositions;
+  private final double[] wheelVelocities;
+
+  /**
+   * Constructor. Loads the configured values from the modules.
+   *
+   * @param modules The modules in the bank.
+   */
+  public ModuleBank(SwerveModule... modules) {
+    this.modules = Objects.requireNonNull(modules);
+    this.size = modules.length;
+    this.motors0 = new SwerveMotor[this.size];
+    this.motors1 = new SwerveMotor[this.size];
+    this.azimuthSensors = new PositionSensor[this.size];
+    for (int idx = 0; idx < this.size; idx++) {
+      SwerveMotor[] moduleMotors = modules[idx].getMotors();
+      this.motors0[idx] = moduleMotors[0];
+      this.motors1[idx] = moduleMotors[1];
+      this.azimuthSensors[idx] = modules[idx].getAzimuthSensor();
+    }
+
+    this.locationsX = new double[this.size];
+    this.locationsY = new double[this.size];
+    this.maxWheelSpeeds = new double[this.size];
+    this.azimuthFromMotor0 = new double[this.size];
+    this.azimuthFromMotor1 = new double[this.size];
+    this.wheelFromMotor0 = new double[this.size];
+    this.wheelFromMotor1 = new double[this.size];
+    this.wheelRotationsToFeet = new double[this.size];
+
+    this.motor0Positions = new double[this.size];
+    this.motor1Positions = new double[this.size];
+    this.motor0Velocities = new double[this.size];
+    this.motor1Velocities = new double[this.size];
+    this.azimuthSensorPositions = new double[this.size];
+    this.azimuthPositions = new double[this.size];
+    this.azimuthVelocities = new double[this.size];
+    this.wheelPositions = new double[this.size];
+    this.wheelVelocities = new double[this.size];
+
+    this.refresh();
+  }
+
+  /**
+   * Reloads the configured values from the modules. Should be called whenever a module's
+   * configuration may have changed, such as through NetworkTables.
+   *
+   * <p>The arrays are updated in place, so this must only be called by the thread running the
+   * control loop, between cycles. The configuration is read back from NetworkTables on the control
+   * loop for this reason.
+   *
+   * @return True if any value changed, false otherwise.
+   */
+  public boolean refresh() {
+    boolean changed = false;
+    for (int idx = 0; idx < this.size; idx++) {
+      SwerveModule module = this.modules[idx];
+      Vector2D location = module.getLocation();
+      changed |= this.update(this.locationsX, idx, location.getX());
+      changed |= this.update(this.locationsY, idx, location.getY());
+      changed |= this.update(this.maxWheelSpeeds, idx, module.getMaxWheelSpeed());
+      changed |= this.update(this.azimuthFromMotor0, idx, module.getForwardMatrixEntry(0, 0));
+      changed |= this.update(this.azimuthFromMotor1, idx, module.getForwardMatrixEntry(0, 1));
+      changed |= this.update(this.wheelFromMotor0, idx, module.getForwardMatrixEntry(1, 0));
+      changed |= this.update(this.wheelFromMotor1, idx, module.getForwardMatrixEntry(1, 1));
+      changed |= this.update(this.wheelRotationsToFeet, idx, module.getWheelRotationsToFeet());
+    }
+    return changed;
+  }
+
+  /**
+   * Samples the sensors on every module and derives the module states from them. Each module's
+   * {@link ModuleSnapshot} is updated with the same values, so the modules' own controllers see
+   * what the chassis-level math sees.
+   */
+  public void sample() {
+    // Read the hardware first, so that the math below runs over plain arrays
+    for (int idx = 0; idx < this.size; idx++) {
+      this.motor0Positions[idx] = this.motors0[idx].getPosition();
+      this.motor1Positions[idx] = this.motors1[idx].getPosition();
+      this.motor0Velocities[idx] = this.motors0[idx].getVelocity();
+      this.motor1Velocities[idx] = this.motors1[idx].getVelocity();
+      this.azimuthSensorPositions[idx] = this.azimuthSensors[idx].getPosition();
+    }
+
+    for (int idx = 0; idx < this.size; idx++) {
+      this.azimuthVelocities[idx] =
+          (this.azimuthFromMotor0[idx] * this.motor0Velocities[idx]
+                  + this.azimuthFromMotor1[idx] * this.motor1Velocities[idx])
+              * AZIMUTH_ROTATIONS_TO_DEGREES;
+      this.wheelPositions[idx] =
+          (this.wheelFromMotor0[idx] * this.motor0Positions[idx]
+                  + this.wheelFromMotor1[idx] * this.motor1Positions[idx])
+              * this.wheelRotationsToFeet[idx];
+      this.wheelVelocities[idx] =
+          (this.wheelFromMotor0[idx] * this.motor0Velocities[idx]
+                  + this.wheelFromMotor1[idx] * this.motor1Velocities[idx])
+              * this.wheelRotationsToFeet[idx];
+    }
+
+    for (int idx = 0; idx < this.size; idx++) {
+      ModuleSnapshot snapshot = this.modules[idx].getSnapshot();
+      snapshot.store(
+          this.motor0Positions[idx],
+          this.motor1Positions[idx],
+          this.motor0Velocities[idx],
+          this.motor1Velocities[idx],
+          this.azimuthSensorPositions[idx],
+          this.azimuthVelocities[idx],
+          this.wheelPositions[idx],
+          this.wheelVelocities[idx]);
+      this.azimuthPositions[idx] = snapshot.getAzimuthPosition();
+    }
+  }
+
+  /**
+   * Gets the number of modules.
+   *
+   * @return The module count.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets the modules in the bank.
+   *
+   * @return The modules, in the same order as the arrays.
+   */
+  public SwerveModule[] getModules() {
+    return this.modules;
+  }
+
+  /**
+   * Gets the x components of the module locations.
+   *
+   * @return The x locations, in feet.
+   */
+  public double[] getLocationsX() {
+    return this.locationsX;
+  }
+
+  /**
+   * Gets the y components of the module locations.
+   *
+   * @return The y locations, in feet.
+   */
+  public double[] getLocationsY() {
+    return this.locationsY;
+  }
+
+  /**
+   * Gets the max wheel speeds.
+   *
+   * @return The max wheel speeds, in feet per second.
+   */
+  public double[] getMaxWheelSpeeds() {
+    return this.maxWheelSpeeds;
+  }
+
+  /**
+   * Gets the azimuth positions from the last sample.
+   *
+   * @return The azimuth positions, in degrees, in the range [-180, 180).
+   */
+  public double[] getAzimuthPositions() {
+    return this.azimuthPositions;
+  }
+
+  /**
+   * Gets the azimuth velocities from the last sample.
+   *
+   * @return The azimuth velocities, in degrees per second.
+   */
+  public double[] getAzimuthVelocities() {
+    return this.azimuthVelocities;
+  }
+
+  /**
+   * Gets the wheel positions from the last sample.
+   *
+   * @return The wheel positions, in feet.
+   */
+  public double[] getWheelPositions() {
+    return this.wheelPositions;
+  }
+
+  /**
+   * Gets the wheel velocities from the last sample.
+   *
+   * @return The wheel velocities, in feet per second.
+   */
+  public double[] getWheelVelocities() {
+    return this.wheelVelocities;
+  }
+
+  /**
+   * Sets an element of an array, and reports if it changed.
+   *
+   * @param array The array to update.
+   * @param idx The index of the element.
+   * @param value The new value.
+   * @return True if the value is different from the old one, false otherwise.
+   */
+  private boolean update(double[] array, int idx, double value) {
+    if (array[idx] == value) {
+      return false;
+    }
+    array[idx] = value;
+    return true;
+  }
+}
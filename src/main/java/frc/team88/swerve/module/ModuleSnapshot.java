@@ -0,0 +1,166 @@
+package frc.team88.swerve.module;
+
+import frc.team88.swerve.module.motor.SwerveMotor;
+import frc.team88.swerve.module.sensor.PositionSensor;
+import frc.team88.swerve.util.WrappedAngle;
+import org.apache.commons.math3.linear.RealMatrix;
+
+/**
+ * The sensor values of a single swerve module, sampled once per control cycle so that every
+ * consumer in that cycle sees the same coherent values without reading the hardware again. The
+ * snapshot is owned and reused by its module, and is only modified when the module samples it.
+ */
+public class ModuleSnapshot {
+
+  // The conversion factor from azimuth rotations to degrees.
+  private static final double AZIMUTH_ROTATIONS_TO_DEGREES = 360.;
+
+  // The raw motor values, in rotations and rotations per second.
+  private final double[] motorPositions = new double[2];
+  private final double[] motorVelocities = new double[2];
+
+  // The azimuth sensor position, in degrees. Not bound to any range.
+  private double azimuthSensorPosition;
+
+  // The azimuth position, in degrees, in the range [-180, 180).
+  private double azimuthPosition;
+
+  // The derived azimuth velocity, in degrees per second.
+  private double azimuthVelocity;
+
+  // The derived wheel position and velocity, in feet and feet per second.
+  private double wheelPosition;
+  private double wheelVelocity;
+
+  /**
+   * Reads all of the sensors for a module and derives the module values from them.
+   *
+   * @param motors The 2 motors on the module.
+   * @param azimuthSensor The absolute azimuth sensor on the module.
+   * @param forwardMatrix The differential matrix from motor rotations to azimuth and wheel
+   *     rotations.
+   * @param wheelRotationsToFeet The conversion factor from wheel rotations to feet traveled.
+   */
+  void sample(
+      SwerveMotor[] motors,
+      PositionSensor azimuthSensor,
+      RealMatrix forwardMatrix,
+      double wheelRotationsToFeet) {
+    for (int motorIndex = 0; motorIndex < 2; motorIndex++) {
+      this.motorPositions[motorIndex] = motors[motorIndex].getPosition();
+      this.motorVelocities[motorIndex] = motors[motorIndex].getVelocity();
+    }
+    this.azimuthSensorPosition = azimuthSensor.getPosition();
+    this.azimuthPosition = WrappedAngle.wrapAngle(this.azimuthSensorPosition);
+
+    double a0 = forwardMatrix.getEntry(0, 0);
+    double a1 = forwardMatrix.getEntry(0, 1);
+    double w0 = forwardMatrix.getEntry(1, 0);
+    double w1 = forwardMatrix.getEntry(1, 1);
+    this.azimuthVelocity =
+        (a0 * this.motorVelocities[0] + a1 * this.motorVelocities[1])
+            * AZIMUTH_ROTATIONS_TO_DEGREES;
+    this.wheelPosition =
+        (w0 * this.motorPositions[0] + w1 * this.motorPositions[1]) * wheelRotationsToFeet;
+    this.wheelVelocity =
+        (w0 * this.motorVelocities[0] + w1 * this.motorVelocities[1]) * wheelRotationsToFeet;
+  }
+
+  /**
+   * Stores values that were sampled and derived by a {@link ModuleBank}.
+   *
+   * @param motor0Position The position of motor 0, in rotations.
+   * @param motor1Position The position of motor 1, in rotations.
+   * @param motor0Velocity The velocity of motor 0, in rotations per second.
+   * @param motor1Velocity The velocity of motor 1, in rotations per second.
+   * @param azimuthSensorPosition The azimuth sensor position, in degrees.
+   * @param azimuthVelocity The derived azimuth velocity, in degrees per second.
+   * @param wheelPosition The derived wheel position, in feet.
+   * @param wheelVelocity The derived wheel velocity, in feet per second.
+   */
+  void store(
+      double motor0Position,
+      double motor1Position,
+      double motor0Velocity,
+      double motor1Velocity,
+      double azimuthSensorPosition,
+      double azimuthVelocity,
+      double wheelPosition,
+      double wheelVelocity) {
+    this.motorPositions[0] = motor0Position;
+    this.motorPositions[1] = motor1Position;
+    this.motorVelocities[0] = motor0Velocity;
+    this.motorVelocities[1] = motor1Velocity;
+    this.azimuthSensorPosition = azimuthSensorPosition;
+    this.azimuthPosition = WrappedAngle.wrapAngle(azimuthSensorPosition);
+    this.azimuthVelocity = azimuthVelocity;
+    this.wheelPosition = wheelPosition;
+    this.wheelVelocity = wheelVelocity;
+  }
+
+  /**
+   * Gets the position of the given motor.
+   *
+   * @param motorIndex The index of the motor, either 0 or 1.
+   * @return The motor position, in rotations.
+   */
+  public double getMotorPosition(int motorIndex) {
+    return this.motorPositions[motorIndex];
+  }
+
+  /**
+   * Gets the velocity of the given motor.
+   *
+   * @param motorIndex The index of the motor, either 0 or 1.
+   * @return The motor velocity, in rotations per second.
+   */
+  public double getMotorVelocity(int motorIndex) {
+    return this.motorVelocities[motorIndex];
+  }
+
+  /**
+   * Gets the raw position of the azimuth sensor.
+   *
+   * @return The azimuth sensor position, in degrees. Not bound to any range.
+   */
+  public double getAzimuthSensorPosition() {
+    return this.azimuthSensorPosition;
+  }
+
+  /**
+   * Gets the azimuth position.
+   *
+   * @return The azimuth position, in degrees, in the range [-180, 180).
+   */
+  public double getAzimuthPosition() {
+    return this.azimuthPosition;
+  }
+
+  /**
+   * Gets the azimuth velocity, derived from the motor velocities.
+   *
+   * @return The azimuth velocity, in degrees per second.
+   */
+  public double getAzimuthVelocity() {
+    return this.azimuthVelocity;
+  }
+
+  /**
+   * Gets the distance the wheel has rolled, derived from the motor positions. Only the change
+   * between snapshots is meaningful.
+   *
+   * @return The wheel position, in feet.
+   */
+  public double getWheelPosition() {
+    return this.wheelPosition;
+  }
+
+  /**
+   * Gets the wheel velocity, derived from the motor velocities.
+   *
+   * @return The wheel velocity, in feet per second.
+   */
+  public double getWheelVelocity() {
+    return this.wheelVelocity;
+  }
+}
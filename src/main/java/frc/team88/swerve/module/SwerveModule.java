@@ -1,14 +1,17 @@
 package frc.team88.swerve.module;
 
 import frc.team88.swerve.configuration.subconfig.SwerveModuleConfiguration;
+import frc.team88.swerve.module.motor.MotorCommandWriter;
 import frc.team88.swerve.module.motor.SwerveMotor;
 import frc.team88.swerve.module.sensor.PositionSensor;
+import frc.team88.swerve.util.LoopClock;
 import frc.team88.swerve.util.MathUtils;
 import frc.team88.swerve.util.SyncPIDController;
 import frc.team88.swerve.util.TrapezoidalProfileController;
 import frc.team88.swerve.util.Vector2D;
 import frc.team88.swerve.util.WrappedAngle;
 import java.util.Objects;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.apache.commons.math3.linear.RealMatrix;
 
@@ -42,29 +45,45 @@ public class SwerveModule {
   // The last wheel velocity set as a target for the controller.
   private double targetWheelVelocity = 0;
 
+  // The sensor values for the current control cycle.
+  private final ModuleSnapshot snapshot = new ModuleSnapshot();
+
+  // Collects the motor commands to be written at the end of the cycle. The
+  // motors are written to directly if null.
+  private MotorCommandWriter commandWriter = null;
+
+  // The index of each motor in the command writer.
+  private final int[] commandWriterIndices = new int[2];
+
   /**
    * Constructor.
    *
    * @param motors The 2 motors on this module, with units of rotations per second.
    * @param azimuthSensor The sensor for absolute azimuth angle, in degrees.
    * @param config The configuration data for this module.
+   * @param clock The clock for the control loop that this module runs in.
    */
   public SwerveModule(
       final SwerveMotor[] motors,
       final PositionSensor azimuthSensor,
-      final SwerveModuleConfiguration config) {
+      final SwerveModuleConfiguration config,
+      final LoopClock clock) {
     if (motors.length != 2) {
       throw new IllegalArgumentException("Must suppy exactly 2 modules");
     }
     this.motors = Objects.requireNonNull(motors);
     this.azimuthSensor = Objects.requireNonNull(azimuthSensor);
     this.config = Objects.requireNonNull(config);
+    Objects.requireNonNull(clock);
+
+    this.updateSnapshot();
 
     this.azimuthPositionController =
-        new TrapezoidalProfileController(config.getAzimuthControllerConfig());
-    this.azimuthPositionController.reset(this.getAzimuthPosition().asDouble());
+        new TrapezoidalProfileController(config.getAzimuthControllerConfig(), clock);
+    this.azimuthPositionController.reset(this.getAzimuthPositionDegrees());
 
-    this.wheelVelocityController = new SyncPIDController(config.getWheelControllerConfig());
+    this.wheelVelocityController =
+        new SyncPIDController(config.getWheelControllerConfig(), clock);
   }
 
   /**
@@ -74,7 +93,7 @@ public class SwerveModule {
    * @param azimuthPosition The azimuth position to set, in degrees.
    */
   public void set(double wheelVelocity, WrappedAngle azimuthPosition) {
-    set(wheelVelocity, azimuthPosition, 0);
+    set(wheelVelocity, azimuthPosition.asDouble(), 0);
   }
 
   /**
@@ -86,18 +105,41 @@ public class SwerveModule {
    *     per second.
    */
   public void set(double wheelVelocity, WrappedAngle azimuthPosition, double azimuthVelocity) {
+    set(wheelVelocity, azimuthPosition.asDouble(), azimuthVelocity);
+  }
+
+  /**
+   * Sets the wheel velocity and azimuth position. The azimuth velocity is assumed to be 0.
+   *
+   * @param wheelVelocity The wheel velocity to set, in feet per second.
+   * @param azimuthPosition The azimuth position to set, in degrees. Not bound to any range.
+   */
+  public void set(double wheelVelocity, double azimuthPosition) {
+    set(wheelVelocity, azimuthPosition, 0);
+  }
+
+  /**
+   * Sets the wheel velocity and azimuth position/velocity.
+   *
+   * @param wheelVelocity The wheel velocity to set, in feet per second.
+   * @param azimuthPosition The azimuth position to set, in degrees. Not bound to any range.
+   * @param azimuthVelocity The azimuth velocity to target when the position is reached, in degrees
+   *     per second.
+   */
+  public void set(double wheelVelocity, double azimuthPosition, double azimuthVelocity) {
     this.targetWheelVelocity = wheelVelocity;
 
     // Calculate the actual sensor value to target for the azimuth
-    double distanceToAzimuth = this.getAzimuthPosition().getSmallestDifferenceWith(azimuthPosition);
-    double unwrappedAzimuthAngle = this.azimuthSensor.getPosition() + distanceToAzimuth;
+    double sensorPosition = this.snapshot.getAzimuthSensorPosition();
+    double distanceToAzimuth = WrappedAngle.getSmallestDifference(sensorPosition, azimuthPosition);
+    double unwrappedAzimuthAngle = sensorPosition + distanceToAzimuth;
 
     // Get the azimuth velocity to command from the trapezoidal profile controller.
     this.azimuthPositionController.setTargetVelocity(azimuthVelocity);
     this.azimuthPositionController.setTargetPosition(unwrappedAzimuthAngle);
     double commandAzimuthVelocity =
         azimuthPositionController.calculateCommandVelocity(
-            this.azimuthSensor.getPosition(), this.getAzimuthVelocity());
+            sensorPosition, this.getAzimuthVelocity());
 
     // Apply the pid to the wheel velocity.
     this.commandedWheelVelocity =
@@ -126,49 +168,102 @@ public class SwerveModule {
 
     double[] motorVelocities = this.getDifferentialInputs(rotationsPerSecondVelocities);
     for (int motorIndex = 0; motorIndex < this.motors.length; motorIndex++) {
-      motors[motorIndex].setVelocity(motorVelocities[motorIndex]);
+      if (Objects.nonNull(this.commandWriter)) {
+        this.commandWriter.setVelocity(
+            this.commandWriterIndices[motorIndex], motorVelocities[motorIndex]);
+      } else {
+        motors[motorIndex].setVelocity(motorVelocities[motorIndex]);
+      }
     }
   }
 
+  /**
+   * Sets the writer that this module's motor commands are collected into. The commands are only
+   * sent once the writer is flushed.
+   *
+   * @param commandWriter The command writer, which must handle both of this module's motors, or
+   *     null to write to the motors directly.
+   * @throws IllegalArgumentException If the writer does not handle this module's motors.
+   */
+  public void setCommandWriter(MotorCommandWriter commandWriter) {
+    if (Objects.nonNull(commandWriter)) {
+      for (int motorIndex = 0; motorIndex < this.motors.length; motorIndex++) {
+        this.commandWriterIndices[motorIndex] = commandWriter.indexOf(this.motors[motorIndex]);
+      }
+    }
+    this.commandWriter = commandWriter;
+  }
+
+  /**
+   * Samples all of the sensors on this module into its snapshot. Should be called once at the
+   * start of each control cycle, before anything reads the module state.
+   */
+  public void updateSnapshot() {
+    this.snapshot.sample(
+        this.motors, this.azimuthSensor, this.config.getForwardMatrix(), getWheelRotationsToFeet());
+  }
+
+  /**
+   * Gets the sensor values sampled at the start of this control cycle.
+   *
+   * @return The snapshot of this module's sensors, which is reused every cycle.
+   */
+  public ModuleSnapshot getSnapshot() {
+    return this.snapshot;
+  }
+
   /** Sets both motors on this module to coast mode. */
   public void setCoast() {
-    Stream.of(this.motors).forEach(m -> m.setCoast());
+    if (Objects.nonNull(this.commandWriter)) {
+      IntStream.of(this.commandWriterIndices).forEach(idx -> this.commandWriter.setCoast(idx));
+    } else {
+      Stream.of(this.motors).forEach(m -> m.setCoast());
+    }
   }
 
   /** Sets both motors on this module to brake mode. */
   public void setBrake() {
-    Stream.of(this.motors).forEach(m -> m.setBrake());
+    if (Objects.nonNull(this.commandWriter)) {
+      IntStream.of(this.commandWriterIndices).forEach(idx -> this.commandWriter.setBrake(idx));
+    } else {
+      Stream.of(this.motors).forEach(m -> m.setBrake());
+    }
   }
 
   /**
-   * Gets the current velocity of the wheel.
+   * Gets the velocity of the wheel as of the last snapshot.
    *
    * @return The velocity of the wheel, in feet per second.
    */
   public double getWheelVelocity() {
-    return this.getDifferentialOutputs(
-            Stream.of(motors).mapToDouble(SwerveMotor::getVelocity).toArray())[1]
-        * getWheelRotationsToFeet();
+    return this.snapshot.getWheelVelocity();
   }
 
   /**
-   * Gets the current azimuth position.
+   * Gets the azimuth position as of the last snapshot.
    *
    * @return The current azimuth position, in degrees.
    */
   public WrappedAngle getAzimuthPosition() {
-    return new WrappedAngle(this.azimuthSensor.getPosition());
+    return new WrappedAngle(this.getAzimuthPositionDegrees());
+  }
+
+  /**
+   * Gets the azimuth position as of the last snapshot without allocating a WrappedAngle.
+   *
+   * @return The current azimuth position, in degrees, in the range [-180, 180).
+   */
+  public double getAzimuthPositionDegrees() {
+    return this.snapshot.getAzimuthPosition();
   }
 
   /**
-   * Gets the current azimuth velocity.
+   * Gets the azimuth velocity as of the last snapshot.
    *
    * @return The current azimuth velocity, in degrees per second.
    */
   public double getAzimuthVelocity() {
-    return this.getDifferentialOutputs(
-            Stream.of(motors).mapToDouble(SwerveMotor::getVelocity).toArray())[0]
-        * azimuthRotationsToDegrees;
+    return this.snapshot.getAzimuthVelocity();
   }
 
   /**
@@ -186,7 +281,17 @@ public class SwerveModule {
    * @return The current commanded azimuth position, in degrees.
    */
   public WrappedAngle getCommandedAzimuthPosition() {
-    return new WrappedAngle(this.azimuthPositionController.getLastCommandedPosition());
+    return new WrappedAngle(this.getCommandedAzimuthPositionDegrees());
+  }
+
+  /**
+   * Gets the current commanded azimuth position from the trapezoidal profile without allocating a
+   * WrappedAngle.
+   *
+   * @return The current commanded azimuth position, in degrees, in the range [-180, 180).
+   */
+  public double getCommandedAzimuthPositionDegrees() {
+    return WrappedAngle.wrapAngle(this.azimuthPositionController.getLastCommandedPosition());
   }
 
   /**
@@ -213,7 +318,17 @@ public class SwerveModule {
    * @return The target azimuth position, in degrees.
    */
   public WrappedAngle getTargetAzimuthPosition() {
-    return new WrappedAngle(this.azimuthPositionController.getTargetPosition());
+    return new WrappedAngle(this.getTargetAzimuthPositionDegrees());
+  }
+
+  /**
+   * Gets the azimuth position set as the target for the azimuth controller without allocating a
+   * WrappedAngle.
+   *
+   * @return The target azimuth position, in degrees, in the range [-180, 180).
+   */
+  public double getTargetAzimuthPositionDegrees() {
+    return WrappedAngle.wrapAngle(this.azimuthPositionController.getTargetPosition());
   }
 
   /**
@@ -244,6 +359,26 @@ public class SwerveModule {
     return this.motors;
   }
 
+  /**
+   * Gets the absolute azimuth sensor used by this module.
+   *
+   * @return The azimuth sensor.
+   */
+  PositionSensor getAzimuthSensor() {
+    return this.azimuthSensor;
+  }
+
+  /**
+   * Gets an entry of the differential matrix from motor rotations to azimuth and wheel rotations.
+   *
+   * @param row 0 for azimuth or 1 for wheel.
+   * @param column The index of the motor.
+   * @return The matrix entry.
+   */
+  double getForwardMatrixEntry(int row, int column) {
+    return this.config.getForwardMatrix().getEntry(row, column);
+  }
+
   /**
    * Gets the config for this module.
    *
@@ -261,28 +396,14 @@ public class SwerveModule {
   public double getMaxWheelSpeed() {
     // Need to check both moving motors in the same direction and moving
     // them in opposite directions, and take the lower of the forwards and
-    // backwards wheel speed.
-    double positivePositive =
-        this.getDifferentialOutputs(
-            new double[] {motors[0].getMaxVelocity(), motors[1].getMaxVelocity()})[1];
-    double positiveNegative =
-        this.getDifferentialOutputs(
-            new double[] {motors[0].getMaxVelocity(), -motors[1].getMaxVelocity()})[1];
-    double negativePositive =
-        this.getDifferentialOutputs(
-            new double[] {-motors[0].getMaxVelocity(), motors[1].getMaxVelocity()})[1];
-    double negativeNegative =
-        this.getDifferentialOutputs(
-            new double[] {-motors[0].getMaxVelocity(), -motors[1].getMaxVelocity()})[1];
-    double maxForwards =
-        Math.max(
-            positivePositive,
-            Math.max(positiveNegative, Math.max(negativePositive, negativeNegative)));
-    double maxReverse =
-        -Math.min(
-            positivePositive,
-            Math.min(positiveNegative, Math.min(negativePositive, negativeNegative)));
-    return Math.min(maxForwards, maxReverse) * getWheelRotationsToFeet();
+    // backwards wheel speed. The wheel velocity is w0*m0 + w1*m1, so it is
+    // maximized by running each motor at full speed in the direction of the
+    // sign of its coefficient, and the reverse limit is the same by symmetry.
+    RealMatrix m = this.config.getForwardMatrix();
+    double maxWheelRotations =
+        Math.abs(m.getEntry(1, 0)) * motors[0].getMaxVelocity()
+            + Math.abs(m.getEntry(1, 1)) * motors[1].getMaxVelocity();
+    return maxWheelRotations * getWheelRotationsToFeet();
   }
 
   /**
@@ -290,21 +411,10 @@ public class SwerveModule {
    *
    * @return The conversion factor.
    */
-  private double getWheelRotationsToFeet() {
+  double getWheelRotationsToFeet() {
     return (config.getWheelDiameter()) * Math.PI;
   }
 
-  /**
-   * Puts the given differential inputs through the forwards matrix.
-   *
-   * @param differentialInputs A length 2 array containing the motor values.
-   * @return The differential outputs as a length 2 array with the azimuth value followed by the
-   *     wheel value.
-   */
-  private double[] getDifferentialOutputs(double[] differentialInputs) {
-    return this.config.getForwardMatrix().operate(differentialInputs);
-  }
-
   /**
    * Puts the given differential outputs through the inverse matrix.
    *
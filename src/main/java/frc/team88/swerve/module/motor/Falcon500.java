@@ -1,15 +1,30 @@
 package frc.team88.swerve.module.motor;
 
+import com.ctre.phoenix.motorcontrol.ControlFrame;
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.ctre.phoenix.motorcontrol.can.TalonFX;
 import frc.team88.swerve.configuration.subconfig.Falcon500Configuration;
+import frc.team88.swerve.configuration.subconfig.PIDConfiguration;
 import java.util.Objects;
 
 /** SwerveMotor implementation for the Falcon 500. */
 public class Falcon500 implements SwerveMotor {
 
+  // The number of encoder ticks per rotation.
+  private static final double TICKS_PER_ROTATION = 2048.;
+
+  // The conversion factor from rotations per second to ticks per 100ms.
+  private static final double ROTATIONS_PER_SECOND_TO_NATIVE = TICKS_PER_ROTATION / 10.;
+
+  // The output value that corresponds to full output in the closed loop.
+  private static final double FULL_OUTPUT_NATIVE = 1023.;
+
+  // The period of the closed loop on the Talon FX, in seconds.
+  private static final double CLOSED_LOOP_PERIOD = 0.001;
+
   // The TalonFX that this is wrapping.
   private final TalonFX talon;
 
@@ -22,6 +37,15 @@ public class Falcon500 implements SwerveMotor {
   // The offset to add to position values, in rotations.
   private double offset = 0;
 
+  // The velocity controller gains last sent to the Talon FX. NaN forces them
+  // to be sent on first use.
+  private double appliedKP = Double.NaN;
+  private double appliedKI = Double.NaN;
+  private double appliedKD = Double.NaN;
+  private double appliedKF = Double.NaN;
+  private double appliedIZone = Double.NaN;
+  private double appliedIMax = Double.NaN;
+
   /**
    * Constructor. Sets up the default configuration for a Talon FX.
    *
@@ -29,8 +53,17 @@ public class Falcon500 implements SwerveMotor {
    * @param config The config data for this motor.
    */
   public Falcon500(int canID, Falcon500Configuration config) {
-    talon = new TalonFX(canID);
+    this(new TalonFX(canID), config);
+  }
 
+  /**
+   * Constructor. Sets up the default configuration for the given Talon FX.
+   *
+   * @param talon The Talon FX to wrap.
+   * @param config The config data for this motor.
+   */
+  public Falcon500(TalonFX talon, Falcon500Configuration config) {
+    this.talon = Objects.requireNonNull(talon);
     this.config = Objects.requireNonNull(config);
 
     this.talon.configFactoryDefault();
@@ -38,6 +71,17 @@ public class Falcon500 implements SwerveMotor {
     this.talon.setNeutralMode(NeutralMode.Brake);
     this.talon.configSelectedFeedbackSensor(FeedbackDevice.IntegratedSensor);
     this.talon.configNeutralDeadband(0);
+
+    this.talon.setStatusFramePeriod(
+        StatusFrameEnhanced.Status_1_General, config.getGeneralStatusPeriod());
+    this.talon.setStatusFramePeriod(
+        StatusFrameEnhanced.Status_2_Feedback0, config.getFeedbackStatusPeriod());
+    this.talon.setControlFramePeriod(ControlFrame.Control_3_General, config.getControlPeriod());
+
+    if (config.isClosedLoopVelocity()) {
+      this.talon.selectProfileSlot(0, 0);
+      this.applyVelocityControllerGains();
+    }
   }
 
   /**
@@ -47,12 +91,12 @@ public class Falcon500 implements SwerveMotor {
    */
   @Override
   public double getPosition() {
-    return this.talon.getSelectedSensorPosition() / 2048 + offset;
+    return this.talon.getSelectedSensorPosition() / TICKS_PER_ROTATION + offset;
   }
 
   @Override
   public double getVelocity() {
-    return this.talon.getSelectedSensorVelocity() * 10. / 2048.;
+    return this.talon.getSelectedSensorVelocity() / ROTATIONS_PER_SECOND_TO_NATIVE;
   }
 
   /**
@@ -66,7 +110,12 @@ public class Falcon500 implements SwerveMotor {
 
   @Override
   public void setVelocity(double velocity) {
-    this.talon.set(ControlMode.PercentOutput, velocity / this.getMaxVelocity());
+    if (this.config.isClosedLoopVelocity()) {
+      this.applyVelocityControllerGains();
+      this.talon.set(ControlMode.Velocity, velocity * ROTATIONS_PER_SECOND_TO_NATIVE);
+    } else {
+      this.talon.set(ControlMode.PercentOutput, velocity / this.getMaxVelocity());
+    }
     this.commandVelocity = velocity;
   }
 
@@ -99,4 +148,41 @@ public class Falcon500 implements SwerveMotor {
   public void setBrake() {
     this.talon.setNeutralMode(NeutralMode.Brake);
   }
+
+  /**
+   * Sends the velocity controller gains to slot 0 of the Talon FX if they have changed since they
+   * were last sent. The gains are converted from output fraction and rotations per second to the
+   * Talon's native units of 1023 and ticks per 100ms, with the integral and derivative scaled to
+   * its 1ms loop period.
+   */
+  private void applyVelocityControllerGains() {
+    PIDConfiguration gains = this.config.getVelocityControllerConfig();
+    double gainScale = FULL_OUTPUT_NATIVE / ROTATIONS_PER_SECOND_TO_NATIVE;
+    if (gains.getKP() != this.appliedKP) {
+      this.appliedKP = gains.getKP();
+      this.talon.config_kP(0, this.appliedKP * gainScale);
+    }
+    if (gains.getKI() != this.appliedKI || gains.getIMax() != this.appliedIMax) {
+      this.appliedKI = gains.getKI();
+      this.appliedIMax = gains.getIMax();
+      double nativeKI = this.appliedKI * gainScale * CLOSED_LOOP_PERIOD;
+      this.talon.config_kI(0, nativeKI);
+      // The Talon limits the accumulated error rather than the integral
+      // output, and treats 0 as unlimited
+      this.talon.configMaxIntegralAccumulator(
+          0, nativeKI > 0 ? this.appliedIMax * FULL_OUTPUT_NATIVE / nativeKI : 0);
+    }
+    if (gains.getKD() != this.appliedKD) {
+      this.appliedKD = gains.getKD();
+      this.talon.config_kD(0, this.appliedKD * gainScale / CLOSED_LOOP_PERIOD);
+    }
+    if (gains.getKF() != this.appliedKF) {
+      this.appliedKF = gains.getKF();
+      this.talon.config_kF(0, this.appliedKF * gainScale);
+    }
+    if (gains.getIZone() != this.appliedIZone) {
+      this.appliedIZone = gains.getIZone();
+      this.talon.config_IntegralZone(0, this.appliedIZone * ROTATIONS_PER_SECOND_TO_NATIVE);
+    }
+  }
 }
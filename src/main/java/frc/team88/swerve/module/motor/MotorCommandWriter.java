@@ -0,0 +1,172 @@
+package frc.team88.swerve.module.motor;
+
+import frc.team88.swerve.configuration.subconfig.ActuationConfiguration;
+import java.util.Objects;
+
+/**
+ * Collects the velocity commands for all motors during a control cycle and writes them together
+ * when flushed at the end of the cycle. Commands within the configured epsilon of the last value
+ * sent to a motor are suppressed to reduce CAN bus utilization, though an unchanged command is
+ * still resent periodically. Neutral mode changes are written immediately, but only if the mode
+ * differs from the last one sent.
+ */
+public class MotorCommandWriter {
+
+  // The neutral modes of a motor, as last sent.
+  private static final byte NEUTRAL_MODE_UNKNOWN = 0;
+  private static final byte NEUTRAL_MODE_BRAKE = 1;
+  private static final byte NEUTRAL_MODE_COAST = 2;
+
+  // The motors being written to.
+  private final SwerveMotor[] motors;
+
+  // The configuration for the writer.
+  private final ActuationConfiguration config;
+
+  // The velocity commands collected this cycle, in rotations per second.
+  private final double[] pendingVelocities;
+  private final boolean[] hasPendingVelocity;
+
+  // The last velocity commands written to each motor, in rotations per second.
+  private final double[] sentVelocities;
+  private final boolean[] hasSentVelocity;
+
+  // The number of flushes since each motor's command was last written.
+  private final int[] cyclesSinceSent;
+
+  // The neutral mode last written to each motor.
+  private final byte[] neutralModes;
+
+  // The number of velocity commands written and suppressed.
+  private long sentCount = 0;
+  private long suppressedCount = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param motors All of the motors that commands will be written to.
+   * @param config The configuration for the writer.
+   */
+  public MotorCommandWriter(SwerveMotor[] motors, ActuationConfiguration config) {
+    this.motors = Objects.requireNonNull(motors);
+    this.config = Objects.requireNonNull(config);
+    this.pendingVelocities = new double[motors.length];
+    this.hasPendingVelocity = new boolean[motors.length];
+    this.sentVelocities = new double[motors.length];
+    this.hasSentVelocity = new boolean[motors.length];
+    this.cyclesSinceSent = new int[motors.length];
+    this.neutralModes = new byte[motors.length];
+  }
+
+  /**
+   * Gets the index that the writer uses for the given motor.
+   *
+   * @param motor The motor to find.
+   * @return The index of the motor.
+   * @throws IllegalArgumentException If the motor is not handled by this writer.
+   */
+  public int indexOf(SwerveMotor motor) {
+    for (int idx = 0; idx < this.motors.length; idx++) {
+      if (this.motors[idx] == motor) {
+        return idx;
+      }
+    }
+    throw new IllegalArgumentException("The motor is not handled by this command writer");
+  }
+
+  /**
+   * Collects a velocity command for the given motor, to be written when the writer is flushed. If
+   * multiple commands are collected for a motor in one cycle, only the last is used.
+   *
+   * @param motorIndex The index of the motor.
+   * @param velocity The velocity to set, in rotations per second.
+   */
+  public void setVelocity(int motorIndex, double velocity) {
+    this.pendingVelocities[motorIndex] = velocity;
+    this.hasPendingVelocity[motorIndex] = true;
+  }
+
+  /**
+   * Sets the given motor to coast mode, if it was not already.
+   *
+   * @param motorIndex The index of the motor.
+   */
+  public void setCoast(int motorIndex) {
+    if (this.neutralModes[motorIndex] != NEUTRAL_MODE_COAST) {
+      this.motors[motorIndex].setCoast();
+      this.neutralModes[motorIndex] = NEUTRAL_MODE_COAST;
+    }
+  }
+
+  /**
+   * Sets the given motor to brake mode, if it was not already.
+   *
+   * @param motorIndex The index of the motor.
+   */
+  public void setBrake(int motorIndex) {
+    if (this.neutralModes[motorIndex] != NEUTRAL_MODE_BRAKE) {
+      this.motors[motorIndex].setBrake();
+      this.neutralModes[motorIndex] = NEUTRAL_MODE_BRAKE;
+    }
+  }
+
+  /**
+   * Writes the velocity commands collected this cycle, skipping any that are within the epsilon of
+   * the last value sent. A command to stop is always sent if the motor was not already stopped.
+   */
+  public void flush() {
+    double epsilon = this.config.getVelocityEpsilon();
+    int refreshCycles = this.config.getRefreshCycles();
+    for (int idx = 0; idx < this.motors.length; idx++) {
+      if (!this.hasPendingVelocity[idx]) {
+        continue;
+      }
+      this.hasPendingVelocity[idx] = false;
+      double velocity = this.pendingVelocities[idx];
+      this.cyclesSinceSent[idx]++;
+
+      if (this.hasSentVelocity[idx]
+          && Math.abs(velocity - this.sentVelocities[idx]) <= epsilon
+          && (velocity != 0 || this.sentVelocities[idx] == 0)
+          && (refreshCycles == 0 || this.cyclesSinceSent[idx] < refreshCycles)) {
+        this.suppressedCount++;
+        continue;
+      }
+
+      this.motors[idx].setVelocity(velocity);
+      this.sentVelocities[idx] = velocity;
+      this.hasSentVelocity[idx] = true;
+      this.cyclesSinceSent[idx] = 0;
+      this.sentCount++;
+    }
+  }
+
+  /**
+   * Forgets the last values sent to the motors, so that the next flush writes every command. Should
+   * be called whenever the motors may have been commanded without going through this writer.
+   */
+  public void invalidate() {
+    for (int idx = 0; idx < this.motors.length; idx++) {
+      this.hasSentVelocity[idx] = false;
+      this.neutralModes[idx] = NEUTRAL_MODE_UNKNOWN;
+    }
+  }
+
+  /**
+   * Gets the number of velocity commands that have been written to motors.
+   *
+   * @return The count of written commands.
+   */
+  public long getSentCount() {
+    return this.sentCount;
+  }
+
+  /**
+   * Gets the number of velocity commands that were not written because they had not changed.
+   *
+   * @return The count of suppressed commands.
+   */
+  public long getSuppressedCount() {
+    return this.suppressedCount;
+  }
+}
@@ -1,17 +1,30 @@
 package frc.team88.swerve.module.motor;
 
+import com.revrobotics.CANPIDController;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.CANSparkMax.IdleMode;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+import com.revrobotics.ControlType;
 import frc.team88.swerve.configuration.subconfig.NeoConfiguration;
+import frc.team88.swerve.configuration.subconfig.PIDConfiguration;
 import java.util.Objects;
 
 /** SwerveMotor implementation for the NEO. */
 public class Neo implements SwerveMotor {
 
+  // The conversion factor from rotations per second to RPM.
+  private static final double ROTATIONS_PER_SECOND_TO_NATIVE = 60.;
+
+  // The period of the closed loop on the Spark Max, in seconds.
+  private static final double CLOSED_LOOP_PERIOD = 0.001;
+
   // The Spark Max that is being wrapped.
   private final CANSparkMax spark;
 
+  // The closed loop controller on the Spark Max.
+  private final CANPIDController pidController;
+
   // The configuration data for this motor.
   private final NeoConfiguration config;
 
@@ -21,6 +34,15 @@ public class Neo implements SwerveMotor {
   // The offset to add to position values, in rotations.
   private double offset = 0;
 
+  // The velocity controller gains last sent to the Spark Max. NaN forces them
+  // to be sent on first use.
+  private double appliedKP = Double.NaN;
+  private double appliedKI = Double.NaN;
+  private double appliedKD = Double.NaN;
+  private double appliedKF = Double.NaN;
+  private double appliedIZone = Double.NaN;
+  private double appliedIMax = Double.NaN;
+
   /**
    * Constructor. Sets up the default configuration for a Spark Max.
    *
@@ -28,13 +50,32 @@ public class Neo implements SwerveMotor {
    * @param config The config data for this motor.
    */
   public Neo(int canID, NeoConfiguration config) {
-    spark = new CANSparkMax(canID, MotorType.kBrushless);
+    this(new CANSparkMax(canID, MotorType.kBrushless), config);
+  }
 
+  /**
+   * Constructor. Sets up the default configuration for the given Spark Max.
+   *
+   * @param spark The Spark Max to wrap, which must be driving a brushless motor.
+   * @param config The config data for this motor.
+   */
+  public Neo(CANSparkMax spark, NeoConfiguration config) {
+    this.spark = Objects.requireNonNull(spark);
     this.config = Objects.requireNonNull(config);
 
     this.spark.restoreFactoryDefaults();
     this.spark.setIdleMode(IdleMode.kBrake);
     this.spark.setInverted(config.isInverted());
+
+    this.spark.setPeriodicFramePeriod(PeriodicFrame.kStatus0, config.getStatus0Period());
+    this.spark.setPeriodicFramePeriod(PeriodicFrame.kStatus1, config.getStatus1Period());
+    this.spark.setPeriodicFramePeriod(PeriodicFrame.kStatus2, config.getStatus2Period());
+    this.spark.setControlFramePeriodMs(config.getControlPeriod());
+
+    this.pidController = this.spark.getPIDController();
+    if (config.isClosedLoopVelocity()) {
+      this.applyVelocityControllerGains();
+    }
   }
 
   /**
@@ -49,7 +90,7 @@ public class Neo implements SwerveMotor {
 
   @Override
   public double getVelocity() {
-    return this.spark.getEncoder().getVelocity() / 60.;
+    return this.spark.getEncoder().getVelocity() / ROTATIONS_PER_SECOND_TO_NATIVE;
   }
 
   /**
@@ -63,7 +104,13 @@ public class Neo implements SwerveMotor {
 
   @Override
   public void setVelocity(double velocity) {
-    this.spark.set(velocity / this.getMaxVelocity());
+    if (this.config.isClosedLoopVelocity()) {
+      this.applyVelocityControllerGains();
+      this.pidController.setReference(
+          velocity * ROTATIONS_PER_SECOND_TO_NATIVE, ControlType.kVelocity);
+    } else {
+      this.spark.set(velocity / this.getMaxVelocity());
+    }
     this.commandVelocity = velocity;
   }
 
@@ -96,4 +143,39 @@ public class Neo implements SwerveMotor {
   public void setBrake() {
     this.spark.setIdleMode(IdleMode.kBrake);
   }
+
+  /**
+   * Sends the velocity controller gains to slot 0 of the Spark Max if they have changed since they
+   * were last sent. The gains are converted from rotations per second to the Spark Max's native
+   * RPM, with the integral and derivative scaled to its 1ms loop period.
+   */
+  private void applyVelocityControllerGains() {
+    PIDConfiguration gains = this.config.getVelocityControllerConfig();
+    double gainScale = 1. / ROTATIONS_PER_SECOND_TO_NATIVE;
+    if (gains.getKP() != this.appliedKP) {
+      this.appliedKP = gains.getKP();
+      this.pidController.setP(this.appliedKP * gainScale);
+    }
+    if (gains.getKI() != this.appliedKI || gains.getIMax() != this.appliedIMax) {
+      this.appliedKI = gains.getKI();
+      this.appliedIMax = gains.getIMax();
+      double nativeKI = this.appliedKI * gainScale * CLOSED_LOOP_PERIOD;
+      this.pidController.setI(nativeKI);
+      // The Spark Max limits the accumulated error rather than the integral
+      // output, and treats 0 as unlimited
+      this.pidController.setIMaxAccum(nativeKI > 0 ? this.appliedIMax / nativeKI : 0, 0);
+    }
+    if (gains.getKD() != this.appliedKD) {
+      this.appliedKD = gains.getKD();
+      this.pidController.setD(this.appliedKD * gainScale / CLOSED_LOOP_PERIOD);
+    }
+    if (gains.getKF() != this.appliedKF) {
+      this.appliedKF = gains.getKF();
+      this.pidController.setFF(this.appliedKF * gainScale);
+    }
+    if (gains.getIZone() != this.appliedIZone) {
+      this.appliedIZone = gains.getIZone();
+      this.pidController.setIZone(this.appliedIZone * ROTATIONS_PER_SECOND_TO_NATIVE);
+    }
+  }
 }
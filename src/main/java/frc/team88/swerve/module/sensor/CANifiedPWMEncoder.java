@@ -18,14 +18,31 @@ public class CANifiedPWMEncoder implements PositionSensor {
    *
    * @param canifier The CANifier that the encoder is plugged into
    * @param channel The channel that the encoder is plugged into
+   * @param pwmInputPeriod The period of the status frame for the channel, in milliseconds
    */
-  public CANifiedPWMEncoder(CANifier canifier, PWMChannel channel) {
+  public CANifiedPWMEncoder(CANifier canifier, PWMChannel channel, int pwmInputPeriod) {
     this.canifier = canifier;
     this.channel = channel;
-    this.canifier.setStatusFramePeriod(CANifierStatusFrame.Status_3_PwmInputs0, 5);
-    this.canifier.setStatusFramePeriod(CANifierStatusFrame.Status_4_PwmInputs1, 5);
-    this.canifier.setStatusFramePeriod(CANifierStatusFrame.Status_5_PwmInputs2, 5);
-    this.canifier.setStatusFramePeriod(CANifierStatusFrame.Status_6_PwmInputs3, 5);
+    this.canifier.setStatusFramePeriod(getStatusFrame(channel), pwmInputPeriod);
+  }
+
+  /**
+   * Gets the status frame that carries the input of the given PWM channel.
+   *
+   * @param channel The PWM channel
+   * @return The status frame for the channel
+   */
+  private static CANifierStatusFrame getStatusFrame(PWMChannel channel) {
+    switch (channel) {
+      case PWMChannel0:
+        return CANifierStatusFrame.Status_3_PwmInputs0;
+      case PWMChannel1:
+        return CANifierStatusFrame.Status_4_PwmInputs1;
+      case PWMChannel2:
+        return CANifierStatusFrame.Status_5_PwmInputs2;
+      default:
+        return CANifierStatusFrame.Status_6_PwmInputs3;
+    }
   }
 
   @Override
@@ -13,11 +13,12 @@ public class SwerveCANcoder implements PositionSensor {
    * Constructor.
    *
    * @param canID The CAN ID of the CANCoder.
+   * @param sensorDataPeriod The period of the sensor data status frame, in milliseconds.
    */
-  public SwerveCANcoder(int canID) {
+  public SwerveCANcoder(int canID, int sensorDataPeriod) {
     this.cancoder = new CANCoder(canID);
 
-    this.cancoder.setStatusFramePeriod(CANCoderStatusFrame.SensorData, 5);
+    this.cancoder.setStatusFramePeriod(CANCoderStatusFrame.SensorData, sensorDataPeriod);
   }
 
   @Override
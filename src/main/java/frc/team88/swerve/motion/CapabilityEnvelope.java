@@ -0,0 +1,341 @@
+package frc.team88.swerve.motion;
+
+import frc.team88.swerve.module.SwerveModule;
+import frc.team88.swerve.util.Vector2D;
+import frc.team88.swerve.util.WrappedAngle;
+import java.util.Objects;
+
+/**
+ * The limits of motion that a swerve chassis can achieve, precomputed from the module locations
+ * and max wheel speeds so that they can be queried many times per cycle at a constant cost. The
+ * envelope is only recalculated by {@link #refresh()} when a module's max wheel speed or location
+ * has changed.
+ *
+ * <p>Besides the max translation and rotation speeds, the envelope contains a lookup table of the
+ * achievable scale for a combination of translation and rotation. A command is described by its
+ * translation direction and its rotation ratio, which is in the range [-1, 1]. A command with
+ * rotation ratio r has a translation speed of (1 - |r|) times the max translation speed and a
+ * rotation velocity of r times the max rotation speed about the robot's origin. The achievable
+ * scale is the largest factor that command can be multiplied by without any wheel exceeding its
+ * max speed, and is always at least 1.
+ *
+ * <p>The calculated values are held in an immutable snapshot, which {@link #refresh()} replaces
+ * with a newly calculated one through a volatile reference. Each query works from a single
+ * snapshot, so the envelope can be queried from any thread while it is being refreshed.
+ */
+public class CapabilityEnvelope {
+
+  // The number of translation directions in the lookup table, evenly spaced over a full circle.
+  private static final int DIRECTION_BINS = 72;
+
+  // The number of rotation ratios in the lookup table, evenly spaced over [-1, 1].
+  private static final int RATIO_BINS = 41;
+
+  // The angle between translation directions in the lookup table, in degrees.
+  private static final double DIRECTION_STEP = 360. / DIRECTION_BINS;
+
+  // The difference between rotation ratios in the lookup table.
+  private static final double RATIO_STEP = 2. / (RATIO_BINS - 1);
+
+  // The modules on the chassis.
+  private final SwerveModule[] modules;
+
+  // The most recently calculated values.
+  private volatile Snapshot snapshot;
+
+  /**
+   * Constructor. Calculates the envelope.
+   *
+   * @param modules The modules on the chassis.
+   */
+  public CapabilityEnvelope(SwerveModule... modules) {
+    this.modules = Objects.requireNonNull(modules);
+    this.snapshot = new Snapshot(modules);
+  }
+
+  /**
+   * Recalculates the envelope if any module's max wheel speed or location has changed since it was
+   * last calculated.
+   *
+   * @return True if the envelope was recalculated, false otherwise.
+   */
+  public boolean refresh() {
+    Snapshot current = this.snapshot;
+    for (int idx = 0; idx < this.modules.length; idx++) {
+      Vector2D location = this.modules[idx].getLocation();
+      if (this.modules[idx].getMaxWheelSpeed() != current.maxWheelSpeeds[idx]
+          || location.getX() != current.moduleLocations[idx * 2]
+          || location.getY() != current.moduleLocations[idx * 2 + 1]) {
+        this.snapshot = new Snapshot(this.modules);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the maximum speed of the given module's wheel.
+   *
+   * @param moduleIndex The index of the module.
+   * @return The max wheel speed, in feet per second.
+   */
+  public double getMaxWheelSpeed(int moduleIndex) {
+    return this.snapshot.maxWheelSpeeds[moduleIndex];
+  }
+
+  /**
+   * Gets the maximum translation speed if the drive is doing nothing else.
+   *
+   * @return The maximum translation speed, in feet per second.
+   */
+  public double getMaxTranslationSpeed() {
+    return this.snapshot.maxTranslationSpeed;
+  }
+
+  /**
+   * Gets the maximum rotation speed about the robot's origin if the drive is doing nothing else.
+   *
+   * @return The maximum rotation speed, in degrees per second.
+   */
+  public double getMaxRotationSpeed() {
+    return this.snapshot.maxRotationSpeed;
+  }
+
+  /**
+   * Gets the maximum rotation speed about the given center of rotation if the drive is doing
+   * nothing else. The result for the most recent center of rotation is cached.
+   *
+   * @param centerOfRotationX The x component of the center of rotation, in feet.
+   * @param centerOfRotationY The y component of the center of rotation, in feet.
+   * @return The maximum rotation speed, in degrees per second.
+   */
+  public double getMaxRotationSpeed(double centerOfRotationX, double centerOfRotationY) {
+    Snapshot current = this.snapshot;
+    CachedRotationSpeed cached = current.cachedRotationSpeed;
+    if (centerOfRotationX != cached.centerOfRotationX
+        || centerOfRotationY != cached.centerOfRotationY) {
+      // The cache entry is replaced as a whole, so a racing caller can only
+      // see a matching center and speed
+      cached =
+          new CachedRotationSpeed(
+              centerOfRotationX,
+              centerOfRotationY,
+              current.calculateMaxRotationSpeed(centerOfRotationX, centerOfRotationY));
+      current.cachedRotationSpeed = cached;
+    }
+    return cached.maxRotationSpeed;
+  }
+
+  /**
+   * Gets the achievable scale for a command from the lookup table, interpolating between entries.
+   *
+   * @param translationDirection The translation direction, in degrees.
+   * @param rotationRatio The rotation ratio, in the range [-1, 1].
+   * @return The largest factor that the command can be multiplied by.
+   */
+  public double getAchievableScale(double translationDirection, double rotationRatio) {
+    return this.snapshot.lookUpAchievableScale(translationDirection, rotationRatio);
+  }
+
+  /**
+   * Gets the largest factor that the given robot-centric motion about the robot's origin can be
+   * multiplied by without any wheel exceeding its max speed, using the lookup table.
+   *
+   * @param translationDirection The translation direction, in degrees.
+   * @param translationSpeed The translation speed, in feet per second.
+   * @param rotationVelocity The rotation velocity, in degrees per second.
+   * @return The achievable scale, which is less than 1 if the motion is not achievable. Positive
+   *     infinity if the motion is stopped.
+   */
+  public double getAchievableScale(
+      double translationDirection, double translationSpeed, double rotationVelocity) {
+    Snapshot current = this.snapshot;
+    if (translationSpeed < 0) {
+      translationDirection += 180.;
+      translationSpeed = -translationSpeed;
+    }
+    double translationFraction = translationSpeed / current.maxTranslationSpeed;
+    double rotationFraction = rotationVelocity / current.maxRotationSpeed;
+    double effort = translationFraction + Math.abs(rotationFraction);
+    if (effort == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return current.lookUpAchievableScale(translationDirection, rotationFraction / effort) / effort;
+  }
+
+  /**
+   * Calculates the achievable scale for a command directly, without the lookup table.
+   *
+   * @param translationDirection The translation direction, in degrees.
+   * @param rotationRatio The rotation ratio, in the range [-1, 1].
+   * @return The largest factor that the command can be multiplied by.
+   */
+  public double calculateAchievableScale(double translationDirection, double rotationRatio) {
+    return this.snapshot.calculateAchievableScale(translationDirection, rotationRatio);
+  }
+
+  /**
+   * Linearly interpolates between two values.
+   *
+   * @param start The value at fraction 0.
+   * @param end The value at fraction 1.
+   * @param fraction The fraction of the way from start to end.
+   * @return The interpolated value.
+   */
+  private static double interpolate(double start, double end, double fraction) {
+    return start + (end - start) * fraction;
+  }
+
+  /** The values of the envelope calculated from the module state at one point in time. */
+  private static final class Snapshot {
+
+    // The max wheel speed of each module, in feet per second.
+    private final double[] maxWheelSpeeds;
+
+    // The module locations, in feet, interleaved as [x0, y0, x1, y1, ...].
+    private final double[] moduleLocations;
+
+    // The achievable scales, indexed by [direction bin * RATIO_BINS + ratio bin].
+    private final double[] scaleTable = new double[DIRECTION_BINS * RATIO_BINS];
+
+    // The max translation speed, in feet per second.
+    private final double maxTranslationSpeed;
+
+    // The max rotation speed about the robot's origin, in degrees per second.
+    private final double maxRotationSpeed;
+
+    // The most recently queried center of rotation and its max rotation speed.
+    private volatile CachedRotationSpeed cachedRotationSpeed =
+        new CachedRotationSpeed(Double.NaN, Double.NaN, 0);
+
+    /**
+     * Constructor. Calculates all values in the envelope from the current module state.
+     *
+     * @param modules The modules on the chassis.
+     */
+    private Snapshot(SwerveModule[] modules) {
+      this.maxWheelSpeeds = new double[modules.length];
+      this.moduleLocations = new double[modules.length * 2];
+      double maxTranslationSpeed = Double.POSITIVE_INFINITY;
+      for (int idx = 0; idx < modules.length; idx++) {
+        Vector2D location = modules[idx].getLocation();
+        this.moduleLocations[idx * 2] = location.getX();
+        this.moduleLocations[idx * 2 + 1] = location.getY();
+        this.maxWheelSpeeds[idx] = modules[idx].getMaxWheelSpeed();
+        maxTranslationSpeed = Math.min(maxTranslationSpeed, this.maxWheelSpeeds[idx]);
+      }
+      this.maxTranslationSpeed = maxTranslationSpeed;
+      this.maxRotationSpeed = this.calculateMaxRotationSpeed(0, 0);
+
+      for (int directionBin = 0; directionBin < DIRECTION_BINS; directionBin++) {
+        for (int ratioBin = 0; ratioBin < RATIO_BINS; ratioBin++) {
+          this.scaleTable[directionBin * RATIO_BINS + ratioBin] =
+              this.calculateAchievableScale(
+                  directionBin * DIRECTION_STEP, ratioBin * RATIO_STEP - 1.);
+        }
+      }
+    }
+
+    /**
+     * Gets the achievable scale for a command from the lookup table, interpolating between
+     * entries.
+     *
+     * @param translationDirection The translation direction, in degrees.
+     * @param rotationRatio The rotation ratio, in the range [-1, 1].
+     * @return The largest factor that the command can be multiplied by.
+     */
+    private double lookUpAchievableScale(double translationDirection, double rotationRatio) {
+      double directionPosition = WrappedAngle.wrapAngle360(translationDirection) / DIRECTION_STEP;
+      int directionLow = Math.min((int) directionPosition, DIRECTION_BINS - 1);
+      int directionHigh = directionLow + 1 == DIRECTION_BINS ? 0 : directionLow + 1;
+      double directionFraction = directionPosition - directionLow;
+
+      double ratioPosition = (Math.max(-1., Math.min(1., rotationRatio)) + 1.) / RATIO_STEP;
+      int ratioLow = Math.min((int) ratioPosition, RATIO_BINS - 2);
+      double ratioFraction = ratioPosition - ratioLow;
+
+      double low =
+          interpolate(
+              this.scaleTable[directionLow * RATIO_BINS + ratioLow],
+              this.scaleTable[directionLow * RATIO_BINS + ratioLow + 1],
+              ratioFraction);
+      double high =
+          interpolate(
+              this.scaleTable[directionHigh * RATIO_BINS + ratioLow],
+              this.scaleTable[directionHigh * RATIO_BINS + ratioLow + 1],
+              ratioFraction);
+      return interpolate(low, high, directionFraction);
+    }
+
+    /**
+     * Calculates the achievable scale for a command directly, without the lookup table.
+     *
+     * @param translationDirection The translation direction, in degrees.
+     * @param rotationRatio The rotation ratio, in the range [-1, 1].
+     * @return The largest factor that the command can be multiplied by.
+     */
+    private double calculateAchievableScale(double translationDirection, double rotationRatio) {
+      double translationDirectionRad = Math.toRadians(translationDirection);
+      double translationSpeed = (1. - Math.abs(rotationRatio)) * this.maxTranslationSpeed;
+      double translationX = translationSpeed * Math.cos(translationDirectionRad);
+      double translationY = translationSpeed * Math.sin(translationDirectionRad);
+      double rotationVelocityRad = Math.toRadians(rotationRatio * this.maxRotationSpeed);
+
+      double scale = Double.POSITIVE_INFINITY;
+      for (int idx = 0; idx < this.maxWheelSpeeds.length; idx++) {
+        double moduleX = translationX - this.moduleLocations[idx * 2 + 1] * rotationVelocityRad;
+        double moduleY = translationY + this.moduleLocations[idx * 2] * rotationVelocityRad;
+        double moduleSpeed = Math.sqrt(moduleX * moduleX + moduleY * moduleY);
+        if (moduleSpeed > 0) {
+          scale = Math.min(scale, this.maxWheelSpeeds[idx] / moduleSpeed);
+        }
+      }
+      return scale;
+    }
+
+    /**
+     * Calculates the max rotation speed about the given center of rotation.
+     *
+     * @param centerOfRotationX The x component of the center of rotation, in feet.
+     * @param centerOfRotationY The y component of the center of rotation, in feet.
+     * @return The maximum rotation speed, in degrees per second.
+     */
+    private double calculateMaxRotationSpeed(double centerOfRotationX, double centerOfRotationY) {
+      // Each wheel drives once around the circumference of its circle about the
+      // center of rotation per full rotation.
+      double maxRotationSpeed = Double.POSITIVE_INFINITY;
+      for (int idx = 0; idx < this.maxWheelSpeeds.length; idx++) {
+        double x = this.moduleLocations[idx * 2] - centerOfRotationX;
+        double y = this.moduleLocations[idx * 2 + 1] - centerOfRotationY;
+        double distanceToCenter = Math.sqrt(x * x + y * y);
+        maxRotationSpeed =
+            Math.min(
+                maxRotationSpeed,
+                (this.maxWheelSpeeds[idx] / (2. * distanceToCenter * Math.PI)) * 360.);
+      }
+      return maxRotationSpeed;
+    }
+  }
+
+  /** A center of rotation and the max rotation speed about it. */
+  private static final class CachedRotationSpeed {
+
+    private final double centerOfRotationX;
+    private final double centerOfRotationY;
+    private final double maxRotationSpeed;
+
+    /**
+     * Constructor.
+     *
+     * @param centerOfRotationX The x component of the center of rotation, in feet.
+     * @param centerOfRotationY The y component of the center of rotation, in feet.
+     * @param maxRotationSpeed The max rotation speed about it, in degrees per second.
+     */
+    private CachedRotationSpeed(
+        double centerOfRotationX, double centerOfRotationY, double maxRotationSpeed) {
+      this.centerOfRotationX = centerOfRotationX;
+      this.centerOfRotationY = centerOfRotationY;
+      this.maxRotationSpeed = maxRotationSpeed;
+    }
+  }
+}
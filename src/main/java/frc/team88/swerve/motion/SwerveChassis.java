@@ -4,25 +4,40 @@ import frc.team88.swerve.configuration.Configuration;
 import frc.team88.swerve.module.SwerveModule;
 import frc.team88.swerve.motion.kinematics.ForwardKinematics;
 import frc.team88.swerve.motion.kinematics.InverseKinematics;
-import frc.team88.swerve.motion.state.ModuleState;
 import frc.team88.swerve.motion.state.OdomState;
 import frc.team88.swerve.motion.state.VelocityState;
-import frc.team88.swerve.util.Vector2D;
-import frc.team88.swerve.util.WrappedAngle;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 /** Represents a complete swerve chassis, with high level operations for controlling it. */
 public class SwerveChassis {
 
+  // The neutral modes that can be requested.
+  private static final int NEUTRAL_MODE_NONE = 0;
+  private static final int NEUTRAL_MODE_BRAKE = 1;
+  private static final int NEUTRAL_MODE_COAST = 2;
+
   // The config for this swerve drive.
   private Configuration config;
 
-  // The unmodified commanded target state.
-  private VelocityState targetState = new VelocityState(0, 0, 0, false);
+  // The unmodified commanded target state. Volatile so that it can be handed
+  // off to a control thread without locking, which is safe because velocity
+  // states are immutable.
+  private volatile VelocityState targetState = new VelocityState(0, 0, 0, false);
+
+  // The commanded velocity state that obeys all constraints. Only rebuilt
+  // when one of the constrained components below changes, and published the
+  // same way as the target state.
+  private volatile VelocityState constrainedState = this.targetState;
 
-  // The commanded velocity state that obeys all constraints.
-  private VelocityState constrainedState = this.targetState;
+  // The components of the constrained state. Robot-centric. Only accessed by
+  // the thread running update().
+  private double constrainedTranslationDirection = 0;
+  private double constrainedTranslationSpeed = 0;
+  private double constrainedRotationVelocity = 0;
+  private double constrainedCenterOfRotationX = 0;
+  private double constrainedCenterOfRotationY = 0;
 
   // The inverse kinematics controller for this chassis.
   private InverseKinematics inverseKinematics;
@@ -31,8 +46,16 @@ public class SwerveChassis {
   private ForwardKinematics forwardKinematics;
 
   // A mode for holding wheel azimuths and setting speed to 0.
-  private boolean holdMode = true;
-  ;
+  private volatile boolean holdMode = true;
+
+  // The neutral mode requested since the last cycle, if any. Requests can
+  // come from any thread, but are only applied by the thread running the
+  // cycle, which owns the command writer's neutral mode state.
+  private final AtomicInteger pendingNeutralMode = new AtomicInteger(NEUTRAL_MODE_NONE);
+
+  // Buffers for the module states calculated by the inverse kinematics, reused every update.
+  private final double[] moduleAzimuthPositions;
+  private final double[] moduleWheelSpeeds;
 
   /**
    * Constructs the SwerveChassis from the config.
@@ -42,8 +65,16 @@ public class SwerveChassis {
   public SwerveChassis(Configuration config) {
     this.config = Objects.requireNonNull(config);
 
-    this.inverseKinematics = new InverseKinematics(this.config.getModules());
-    this.forwardKinematics = new ForwardKinematics(this.config.getModules());
+    this.inverseKinematics = new InverseKinematics(this.config.getModuleBank());
+    this.forwardKinematics =
+        new ForwardKinematics(
+            this.config.getLoopClock(),
+            this.config.getOdometryConfig(),
+            this.config.getGyro(),
+            this.config.getModuleBank());
+
+    this.moduleAzimuthPositions = new double[this.config.getModules().length];
+    this.moduleWheelSpeeds = new double[this.config.getModules().length];
   }
 
   /**
@@ -91,50 +122,207 @@ public class SwerveChassis {
     return this.holdMode;
   }
 
+  /**
+   * Starts a control cycle by capturing the cycle's timestamp and sampling the sensors on every
+   * module, so that everything in the cycle works from the same values. Must be called before
+   * {@link #update()} and before any tuning or telemetry reads module state.
+   */
+  public void beginCycle() {
+    this.config.getLoopClock().update();
+    this.config.getModuleBank().sample();
+  }
+
+  /**
+   * Ends a control cycle by writing the motor commands collected during it, and applying any
+   * neutral mode requested since the last cycle. Should be called once per cycle, after anything
+   * that commands the modules.
+   */
+  public void endCycle() {
+    this.config.getCommandWriter().flush();
+    switch (this.pendingNeutralMode.getAndSet(NEUTRAL_MODE_NONE)) {
+      case NEUTRAL_MODE_BRAKE:
+        Stream.of(this.config.getModules()).forEach(m -> m.setBrake());
+        break;
+      case NEUTRAL_MODE_COAST:
+        Stream.of(this.config.getModules()).forEach(m -> m.setCoast());
+        break;
+      default:
+        break;
+    }
+  }
+
   /** Updates all periodic processes in the swerve chassis, such as setting module controls. */
   public void update() {
     // Update the forward kinematics and compute current pose
     this.forwardKinematics.update();
 
+    // Modules left out of the odometry this update are left out of control too
+    int enabledModules = this.forwardKinematics.getActiveModules();
+
     // Constrain the target state
     VelocityState targetState = this.getTargetState();
+    SwerveModule[] modules = this.config.getModules();
+    CapabilityEnvelope envelope = this.config.getCapabilityEnvelope();
 
     // Must be robot-centric
-    VelocityState semiConstrainedState = this.makeRobotCentric(targetState);
+    double translationDirection = targetState.getTranslationDirection();
+    if (targetState.isFieldCentric()) {
+      translationDirection -= this.config.getGyro().getYaw();
+    }
+    double translationSpeed = targetState.getTranslationSpeed();
+    double rotationVelocity = targetState.getRotationVelocity();
+
+    // Solve for the module states once, with the module velocity vectors
+    // only being calculated here
+    this.inverseKinematics.calculate(
+        translationDirection,
+        translationSpeed,
+        rotationVelocity,
+        targetState.getCenterOfRotationX(),
+        targetState.getCenterOfRotationY(),
+        this.moduleAzimuthPositions,
+        this.moduleWheelSpeeds);
+
+    // Do not let any wheel exceed it's max speed. Determine the module with
+    // the highest ratio of desired speed to max speed.
+    double speedFactor = 0.;
+    for (int idx = 0; idx < modules.length; idx++) {
+      if ((enabledModules & (1 << idx)) == 0) {
+        continue;
+      }
+      double individualSpeedFactor = this.moduleWheelSpeeds[idx] / envelope.getMaxWheelSpeed(idx);
+      if (individualSpeedFactor > speedFactor) {
+        speedFactor = individualSpeedFactor;
+      }
+    }
 
-    // Do not let any wheel exceed it's max speed
-    semiConstrainedState = this.limitWheelSpeed(semiConstrainedState);
+    // Reducing both translation and rotation by the speedFactor will result in
+    // the fastest wheel being at exactly max speed. Scaling the motion does
+    // not change the module directions, so only the solved speeds need to be
+    // scaled.
+    if (speedFactor > 1) {
+      translationSpeed /= speedFactor;
+      rotationVelocity /= speedFactor;
+      for (int idx = 0; idx < modules.length; idx++) {
+        this.moduleWheelSpeeds[idx] /= speedFactor;
+      }
+    }
 
     // Set the constrained state
-    this.constrainedState = semiConstrainedState;
+    this.setConstrainedState(
+        targetState,
+        translationDirection,
+        translationSpeed,
+        rotationVelocity,
+        targetState.getCenterOfRotationX(),
+        targetState.getCenterOfRotationY());
 
     // Command the modules
-    ModuleState moduleStates[] = this.inverseKinematics.calculate(constrainedState);
-    for (int idx = 0; idx < moduleStates.length; idx++) {
-      SwerveModule module = this.config.getModules()[idx];
-      if (this.holdMode
-          && this.constrainedState.getTranslationSpeed() == 0
-          && this.constrainedState.getRotationVelocity() == 0) {
-        module.set(0, module.getAzimuthPosition());
+    for (int idx = 0; idx < modules.length; idx++) {
+      SwerveModule module = modules[idx];
+      if ((enabledModules & (1 << idx)) == 0) {
+        // Don't trust a disabled module's sensors, just stop its motors
+        module.setRawWheelVelocities(0, 0);
+      } else if (this.holdMode && translationSpeed == 0 && rotationVelocity == 0) {
+        module.set(0, module.getAzimuthPositionDegrees());
       } else {
-        module.set(
-            moduleStates[idx].getWheelSpeed(),
-            new WrappedAngle(moduleStates[idx].getAzimuthPosition()));
+        module.set(this.moduleWheelSpeeds[idx], this.moduleAzimuthPositions[idx]);
       }
     }
   }
 
   /**
-   * Gets the chassis odometry state.
+   * Gets the chassis odometry state. Safe to call from any thread.
    *
-   * @return The odometry state
+   * @return A snapshot of the odometry state
    */
   public OdomState getOdomState() {
     return this.forwardKinematics.getOdom();
   }
 
   /**
-   * Sets the chassis odometry state. (for setting chassis initial conditions)
+   * Gets the chassis odometry state into an existing object. Safe to call from any thread.
+   *
+   * @param state The state to fill with a snapshot of the odometry state
+   * @return The given state
+   */
+  public OdomState getOdomState(OdomState state) {
+    return this.forwardKinematics.getOdom(state);
+  }
+
+  /**
+   * Gets the chassis odometry state into an existing object without allocating. Safe to call from
+   * any thread, as long as each thread uses its own buffers.
+   *
+   * @param state The state to fill with a snapshot of the odometry state
+   * @param buffer A scratch buffer of at least 6 doubles
+   * @return The given state
+   */
+  public OdomState getOdomState(OdomState state, double[] buffer) {
+    return this.forwardKinematics.getOdom(state, buffer);
+  }
+
+  /**
+   * Sets if a module is used. A disabled module is stopped and ignored by the odometry, and the
+   * chassis keeps driving on the remaining modules. Safe to call from any thread, and takes effect
+   * on the next update.
+   *
+   * @param index The index of the module.
+   * @param enabled True to use the module, false to disable it.
+   * @throws IllegalStateException If disabling the module would leave fewer than 2 modules.
+   */
+  public void setModuleEnabled(int index, boolean enabled) {
+    this.forwardKinematics.setModuleEnabled(index, enabled);
+  }
+
+  /**
+   * Gets if a module is used.
+   *
+   * @param index The index of the module.
+   * @return True if the module is enabled, false if it is disabled.
+   */
+  public boolean isModuleEnabled(int index) {
+    return this.forwardKinematics.isModuleEnabled(index);
+  }
+
+  /**
+   * Gets the number of modules on this chassis.
+   *
+   * @return The module count.
+   */
+  public int getModuleCount() {
+    return this.config.getModules().length;
+  }
+
+  /**
+   * Gets how well each module agreed with the odometry's chassis velocity in the most recent
+   * update. Safe to call from any thread.
+   *
+   * @param residuals The buffer to fill with the distance of each module's measured velocity from
+   *     the chassis solution, in feet per second.
+   * @param weights The buffer to fill with the weight of each module in the solution, from 0 to 1.
+   */
+  public void getModuleFit(double[] residuals, double[] weights) {
+    this.forwardKinematics.getModuleFit(residuals, weights);
+  }
+
+  /**
+   * Gets how well each module agreed with the odometry's chassis velocity in the most recent
+   * update without allocating. Safe to call from any thread, as long as each thread uses its own
+   * buffers.
+   *
+   * @param residuals The buffer to fill with the distance of each module's measured velocity from
+   *     the chassis solution, in feet per second.
+   * @param weights The buffer to fill with the weight of each module in the solution, from 0 to 1.
+   * @param buffer A scratch buffer of at least twice the module count.
+   */
+  public void getModuleFit(double[] residuals, double[] weights, double[] buffer) {
+    this.forwardKinematics.getModuleFit(residuals, weights, buffer);
+  }
+
+  /**
+   * Sets the chassis odometry state. (for setting chassis initial conditions) Takes effect on the
+   * next update.
    *
    * @param state state to set the chassis to
    */
@@ -168,14 +356,46 @@ public class SwerveChassis {
     this.setOdomState(state);
   }
 
-  /** Sets all motors to coast mode. */
+  /**
+   * Adds a pose measured by a vision system, to be fused into the odometry on the next update.
+   * Safe to call from any thread.
+   *
+   * @param x The measured x position, in feet.
+   * @param y The measured y position, in feet.
+   * @param theta The measured heading, in degrees.
+   * @param timestamp The FPGA time when the measurement was captured, in seconds.
+   * @param stdDevs The standard deviations of the measurement as [x in feet, y in feet, theta in
+   *     degrees].
+   */
+  public void addVisionMeasurement(
+      double x, double y, double theta, double timestamp, double[] stdDevs) {
+    this.forwardKinematics.addVisionMeasurement(x, y, theta, timestamp, stdDevs);
+  }
+
+  /**
+   * Offsets the yaw readings from the gyro so that its current yaw will be the given yaw, without
+   * disturbing the odometry's heading. May be called from any thread.
+   *
+   * @param yaw The yaw to offset the gyro to, in degrees.
+   */
+  public void calibrateGyroYaw(double yaw) {
+    this.forwardKinematics.calibrateGyroYaw(yaw);
+  }
+
+  /**
+   * Sets all motors to coast mode. May be called from any thread, and takes effect at the end of
+   * the next control cycle.
+   */
   public void setCoast() {
-    Stream.of(this.config.getModules()).forEach(m -> m.setCoast());
+    this.pendingNeutralMode.set(NEUTRAL_MODE_COAST);
   }
 
-  /** Sets all motors to brake mode. */
+  /**
+   * Sets all motors to brake mode. May be called from any thread, and takes effect at the end of
+   * the next control cycle.
+   */
   public void setBrake() {
-    Stream.of(this.config.getModules()).forEach(m -> m.setBrake());
+    this.pendingNeutralMode.set(NEUTRAL_MODE_BRAKE);
   }
 
   /**
@@ -184,84 +404,66 @@ public class SwerveChassis {
    * @return The maximum translation speed, in feet per second.
    */
   public double getMaxTranslationSpeed() {
-    return Stream.of(this.config.getModules())
-        .map(m -> m.getMaxWheelSpeed())
-        .min(Double::compare)
-        .get();
+    return this.config.getCapabilityEnvelope().getMaxTranslationSpeed();
   }
 
   /**
-   * Gets the maximum rotation speed if the drive is doing nothing else.
+   * Gets the maximum rotation speed about the target center of rotation if the drive is doing
+   * nothing else.
    *
-   * @return The maximum rotation speed, in feet per second.
+   * @return The maximum rotation speed, in degrees per second.
    */
   public double getMaxRotationSpeed() {
-    return Stream.of(this.config.getModules())
-        .map(
-            module -> {
-              Vector2D centerOfRotation = this.getTargetState().getCenterOfRotationVector();
-              double distanceToCenter =
-                  module.getLocation().plus(centerOfRotation.times(-1)).getMagnitude();
-              return (module.getMaxWheelSpeed() / (2. * distanceToCenter * Math.PI)) * 360.;
-            })
-        .min(Double::compare)
-        .get();
+    return this.config
+        .getCapabilityEnvelope()
+        .getMaxRotationSpeed(
+            this.getTargetState().getCenterOfRotationX(),
+            this.getTargetState().getCenterOfRotationY());
   }
 
   /**
-   * Converts a velocity state to robot-centric using the gyro if it is field centric, otherwise
-   * returns it unmodified.
+   * Stores the components of the constrained state. The state object is only rebuilt when a
+   * component has changed, and the target state is reused directly if it needed no constraints.
    *
-   * @param state The state to make robot-centric.
-   * @return A robot-centric state.
+   * @param targetState The unmodified target state.
+   * @param translationDirection The constrained translation direction, in degrees.
+   * @param translationSpeed The constrained translation speed, in feet per second.
+   * @param rotationVelocity The constrained rotation velocity, in degrees per second.
+   * @param centerOfRotationX The x component of the center of rotation, in feet.
+   * @param centerOfRotationY The y component of the center of rotation, in feet.
    */
-  private VelocityState makeRobotCentric(VelocityState state) {
-    if (!state.isFieldCentric()) {
-      return state;
+  private void setConstrainedState(
+      VelocityState targetState,
+      double translationDirection,
+      double translationSpeed,
+      double rotationVelocity,
+      double centerOfRotationX,
+      double centerOfRotationY) {
+    boolean changed =
+        translationDirection != this.constrainedTranslationDirection
+            || translationSpeed != this.constrainedTranslationSpeed
+            || rotationVelocity != this.constrainedRotationVelocity
+            || centerOfRotationX != this.constrainedCenterOfRotationX
+            || centerOfRotationY != this.constrainedCenterOfRotationY;
+    this.constrainedTranslationDirection = translationDirection;
+    this.constrainedTranslationSpeed = translationSpeed;
+    this.constrainedRotationVelocity = rotationVelocity;
+    this.constrainedCenterOfRotationX = centerOfRotationX;
+    this.constrainedCenterOfRotationY = centerOfRotationY;
+
+    if (!targetState.isFieldCentric()
+        && translationSpeed == targetState.getTranslationSpeed()
+        && rotationVelocity == targetState.getRotationVelocity()) {
+      this.constrainedState = targetState;
+    } else if (changed || this.constrainedState == targetState) {
+      this.constrainedState =
+          new VelocityState(
+              translationDirection,
+              translationSpeed,
+              rotationVelocity,
+              centerOfRotationX,
+              centerOfRotationY,
+              false);
     }
-    return state
-        .changeTranslationDirection(
-            state.getTranslationDirection() - this.config.getGyro().getYaw())
-        .changeIsFieldCentric(false);
-  }
-
-  /**
-   * Limits the translation and rotation velocities such that no wheel exceeds it's max speed.
-   *
-   * @param state The state to limit.
-   * @return The limited state.
-   */
-  private VelocityState limitWheelSpeed(VelocityState state) {
-    SwerveModule[] modules = this.config.getModules();
-
-    // Get the wheel speeds from both translation and rotation.
-    Vector2D translationVector = this.inverseKinematics.calculateModuleTranslationVector(state);
-    Vector2D[] rotationVectors =
-        Stream.of(modules)
-            .map((m) -> this.inverseKinematics.calculateModuleRotationVectors(state, m))
-            .toArray(Vector2D[]::new);
-
-    // Determine the module with the highest ratio of desired speed to max speed.
-    double speedFactor = 0.;
-    for (int i = 0; i < modules.length; i++) {
-      Vector2D fullVector = translationVector.plus(rotationVectors[i]);
-      double individualSpeedFactor = fullVector.getMagnitude() / modules[i].getMaxWheelSpeed();
-      if (individualSpeedFactor > speedFactor) {
-        speedFactor = individualSpeedFactor;
-      }
-    }
-
-    // If no wheels are exceeding their max speed, just return the original state.
-    if (speedFactor <= 1) {
-      return state;
-    }
-
-    // Reducing both translation and rotation by the speedFactor will result in
-    // the fastest wheel being at exactly max speed.
-    return new VelocityState(
-        state.getTranslationDirection(),
-        state.getTranslationSpeed() / speedFactor,
-        state.getRotationVelocity() / speedFactor,
-        state.isFieldCentric());
   }
 }
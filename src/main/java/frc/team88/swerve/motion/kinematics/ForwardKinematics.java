@@ -1,12 +1,18 @@
 package frc.team88.swerve.motion.kinematics;
 
-import frc.team88.swerve.module.SwerveModule;
+import frc.team88.swerve.configuration.subconfig.OdometryConfiguration;
+import frc.team88.swerve.gyro.SwerveGyro;
+import frc.team88.swerve.module.ModuleBank;
 import frc.team88.swerve.motion.state.ModuleState;
 import frc.team88.swerve.motion.state.OdomState;
 import frc.team88.swerve.motion.state.VelocityState;
-import frc.team88.swerve.util.RobotControllerWrapper;
+import frc.team88.swerve.util.LoopClock;
+import frc.team88.swerve.util.SeqLockBuffer;
 import frc.team88.swerve.util.Vector2D;
-import java.util.stream.Stream;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.DecompositionSolver;
 import org.apache.commons.math3.linear.RealMatrix;
@@ -18,131 +24,526 @@ import org.apache.commons.math3.linear.SingularValueDecomposition;
 
 /** Does the calculation to convert for sensed module state to robot position/velocity. */
 public class ForwardKinematics {
-  // The modules being controlled.
-  private SwerveModule[] modules;
+  // The states of the modules being controlled, in parallel arrays.
+  private final ModuleBank bank;
 
-  private OdomState m_state;
-  private RealMatrix forwardKinematics;
-  private RealMatrix inverseKinematics;
+  // The number of modules.
+  private final int moduleCount;
 
-  private RealMatrix moduleStatesMatrix;
-  private RealMatrix poseRotationMatrix;
-  private RealMatrix poseTranslationMatrix;
-  private RealMatrix poseVector;
-  private RealMatrix deltaPoseVector;
+  // The indices of each value in the odometry buffers.
+  private static final int X_POSITION = 0;
+  private static final int Y_POSITION = 1;
+  private static final int THETA = 2;
+  private static final int X_VELOCITY = 3;
+  private static final int Y_VELOCITY = 4;
+  private static final int THETA_VELOCITY = 5;
+  private static final int ODOM_SIZE = 6;
+
+  // The odometry as calculated by the control loop, which is the only thread
+  // that touches it. Positions are in feet and degrees, velocities are in
+  // feet and degrees per second.
+  private final double[] odom = new double[ODOM_SIZE];
+
+  // The odometry as published to other threads.
+  private final SeqLockBuffer publishedOdom = new SeqLockBuffer(ODOM_SIZE);
+
+  // A pose requested by setOdom as [x, y, theta], waiting to be applied by
+  // the control loop, or null if there is none.
+  private final AtomicReference<double[]> pendingPose = new AtomicReference<>();
+
+  // The indices of each value in a vision measurement.
+  private static final int VISION_X = 0;
+  private static final int VISION_Y = 1;
+  private static final int VISION_THETA = 2;
+  private static final int VISION_TIMESTAMP = 3;
+  private static final int VISION_X_STD_DEV = 4;
+  private static final int VISION_Y_STD_DEV = 5;
+  private static final int VISION_THETA_STD_DEV = 6;
+
+  // Vision measurements added by addVisionMeasurement, waiting to be fused
+  // by the control loop.
+  private final Queue<double[]> pendingVisionMeasurements = new ConcurrentLinkedQueue<>();
+
+  // The poses calculated by recent updates, for fusing late vision
+  // measurements. Only accessed by the control loop.
+  private final PoseHistory poseHistory;
+
+  // Buffer for a pose looked up in the history, as [x, y, theta].
+  private final double[] historicalPose = new double[3];
+
+  // The configuration for the odometry.
+  private final OdometryConfiguration config;
+
+  // The gyro, and the filter that fuses it into the heading, or null if the
+  // heading is integrated from the wheels alone. The gyro may also be null
+  // if it isn't fused.
+  private final SwerveGyro gyro;
+  private final HeadingEstimator headingEstimator;
+
+  // A yaw requested by calibrateGyroYaw, waiting to be applied by the control
+  // loop, or null if there is none.
+  private final AtomicReference<Double> pendingGyroYaw = new AtomicReference<>();
+
+  // If the heading estimator has been reset to the current pose.
+  private boolean headingEstimatorInitialized = false;
+
+  // Added to the gyro yaw to put it in the odometry's frame, in degrees.
+  private double gyroOffset = 0;
+
+  // The pseudo-inverse of the inverse kinematics matrix, flattened in row-major order. It has 3
+  // rows (x velocity, y velocity, angular velocity in radians) and 2 columns per module (x
+  // velocity, y velocity).
+  private final double[] forwardKinematics;
+
+  // The pseudo-inverse for every subset of at least 2 modules, in the same format as the full
+  // pseudo-inverse with zero columns for the modules that are left out, indexed by the bitmask of
+  // modules in the subset. Precomputed so that switching subsets doesn't need a decomposition.
+  private final double[][] subsetKernels;
+
+  // The bitmask of all modules.
+  private final int allModules;
+
+  // The bitmask of modules used by the kinematics, which can be changed from any thread.
+  private volatile int enabledModules;
+
+  // The bitmask of modules used by the current update, latched at its start.
+  private int activeModules;
+
+  // True if the modules are centered on the robot's origin, such as in a symmetric rectangle. In
+  // that case the normal equations are diagonal and the solution can be computed directly.
+  private final boolean centeredLayout;
+
+  // The reciprocal of the sum of the squared module distances from the origin, used when the
+  // layout is centered.
+  private final double inverseSumSquaredDistance;
+
+  // The module locations, in feet, interleaved as [x0, y0, x1, y1, ...].
+  private final double[] moduleLocations;
+
+  // Buffer for the module velocity vectors, in feet per second, interleaved as [vx0, vy0, vx1,
+  // vy1, ...].
+  private final double[] moduleVelocities;
+
+  // Buffer for the calculated chassis velocity, as [vx, vy, omega].
+  private final double[] chassisVelocity = new double[3];
+
+  // The weight of each module in the measured chassis velocity solution,
+  // from 0 to 1, and the distance of each module's measured velocity from
+  // the solution, in feet per second.
+  private final double[] moduleWeights;
+  private final double[] moduleResiduals;
+
+  // The module residuals followed by the module weights, as published to
+  // other threads.
+  private final double[] moduleFit;
+  private final SeqLockBuffer publishedModuleFit;
+
+  // The wheel positions and azimuths at the last update, in feet and
+  // degrees, when integrating wheel positions.
+  private final double[] previousWheelPositions;
+  private final double[] previousAzimuths;
+
+  // If the previous wheel positions have been sampled.
+  private boolean wheelPositionsInitialized = false;
+
+  // Buffer for the module displacements since the last update, in feet,
+  // interleaved as [dx0, dy0, dx1, dy1, ...].
+  private final double[] moduleDisplacements;
+
+  // Buffer for the chassis displacement since the last update, as [dx in
+  // feet, dy in feet, dtheta in degrees].
+  private final double[] chassisDisplacement = new double[3];
+
+  // The maximum distance of the module centroid from the origin for the layout to be considered
+  // centered, in feet.
+  private static final double CENTERED_LAYOUT_TOLERANCE = 1E-9;
+
+  // The smallest weighted second moment of the module locations about their
+  // centroid, as a fraction of the moment about the origin, for which a
+  // weighted solve can determine the rotation.
+  private static final double MIN_CENTRAL_MOMENT_FRACTION = 1E-6;
+
+  // The most modules supported, since a pseudo-inverse is precomputed for
+  // every subset of them.
+  private static final int MAX_MODULES = 12;
+
+  // The clock for the control loop that the kinematics are calculated in.
+  private final LoopClock clock;
 
   // The last time the kinematics were calculated, in seconds.
-  private double previousTime_s = RobotControllerWrapper.getInstance().getFPGATime() * 1E-6;
+  private double previousTime_s;
 
   private final double kTimeJumpThreshold = 10.0;
 
   /**
    * Constructor.
    *
-   * @param modules The modules on this swerve drive.
+   * @param clock The clock for the control loop that the kinematics are calculated in.
+   * @param config The configuration for the odometry.
+   * @param gyro The gyro to fuse into the heading. Only used if the config enables gyro fusion.
+   * @param bank The modules on this swerve drive. Must be sampled before each update.
    */
-  public ForwardKinematics(SwerveModule... modules) {
-    if (modules.length < 2) {
+  public ForwardKinematics(
+      LoopClock clock, OdometryConfiguration config, SwerveGyro gyro, ModuleBank bank) {
+    int moduleCount = bank.size();
+    if (moduleCount < 2) {
       throw new IllegalArgumentException("Cannot do forward kinematics with less than 2 modules");
     }
-    this.modules = modules;
-    m_state = new OdomState();
+    if (moduleCount > MAX_MODULES) {
+      throw new IllegalArgumentException(
+          "Cannot do forward kinematics with more than " + MAX_MODULES + " modules");
+    }
+    if (config.isFuseGyro()) {
+      this.gyro = Objects.requireNonNull(gyro, "Gyro fusion is enabled but there is no gyro");
+      this.headingEstimator = new HeadingEstimator();
+    } else {
+      this.gyro = gyro;
+      this.headingEstimator = null;
+    }
+    this.clock = Objects.requireNonNull(clock);
+    this.previousTime_s = clock.getTimestampSeconds();
+    this.bank = bank;
+    this.moduleCount = moduleCount;
+    this.config = Objects.requireNonNull(config);
+    this.poseHistory = new PoseHistory(config.getHistoryCapacity());
 
-    inverseKinematics = new Array2DRowRealMatrix(modules.length * 2, 3);
-    moduleStatesMatrix = new Array2DRowRealMatrix(modules.length * 2, 1);
+    this.moduleLocations = new double[moduleCount * 2];
+    this.moduleVelocities = new double[moduleCount * 2];
+    this.moduleDisplacements = new double[moduleCount * 2];
+    this.moduleWeights = new double[moduleCount];
+    this.moduleResiduals = new double[moduleCount];
+    this.moduleFit = new double[moduleCount * 2];
+    this.publishedModuleFit = new SeqLockBuffer(moduleCount * 2);
+    this.previousWheelPositions = new double[moduleCount];
+    this.previousAzimuths = new double[moduleCount];
 
-    poseVector = new Array2DRowRealMatrix(3, 1);
-    deltaPoseVector = new Array2DRowRealMatrix(3, 1);
+    double sumX = 0;
+    double sumY = 0;
+    double sumSquaredDistance = 0;
+    double[] locationsX = bank.getLocationsX();
+    double[] locationsY = bank.getLocationsY();
+    for (int idx = 0; idx < moduleCount; idx++) {
+      this.moduleLocations[idx * 2] = locationsX[idx];
+      this.moduleLocations[idx * 2 + 1] = locationsY[idx];
+      sumX += locationsX[idx];
+      sumY += locationsY[idx];
+      sumSquaredDistance += locationsX[idx] * locationsX[idx] + locationsY[idx] * locationsY[idx];
+    }
 
-    /*  Matrix format:
-        [
-            [cos(th), -sin(th), 0],
-            [sin(th), cos(th), 0],
-            [0, 0, 1]
-        ]
-    */
-    poseRotationMatrix = new Array2DRowRealMatrix(3, 3);
-    poseRotationMatrix.setEntry(0, 2, 0);
-    poseRotationMatrix.setEntry(1, 2, 0);
-    poseRotationMatrix.setEntry(2, 2, 1);
-    poseRotationMatrix.setEntry(2, 0, 0);
-    poseRotationMatrix.setEntry(2, 1, 0);
+    this.centeredLayout =
+        Math.abs(sumX) / moduleCount < CENTERED_LAYOUT_TOLERANCE
+            && Math.abs(sumY) / moduleCount < CENTERED_LAYOUT_TOLERANCE
+            && sumSquaredDistance > 0;
+    this.inverseSumSquaredDistance = this.centeredLayout ? 1. / sumSquaredDistance : 0;
+    this.forwardKinematics =
+        this.centeredLayout
+            ? calculateCenteredPseudoInverse(this.moduleLocations, sumSquaredDistance)
+            : calculatePseudoInverse(this.moduleLocations, (1 << moduleCount) - 1);
 
-    /*  Matrix format:
-        [
-            [sin(dth)/dth, (cos(dth) - 1)/dth, 0],
-            [(1 - cos(dth))/dth, sin(dth)/dth, 0],
-            [0, 0, 1]
-        ]
-    */
-    poseTranslationMatrix = new Array2DRowRealMatrix(3, 3);
-    poseTranslationMatrix.setEntry(0, 2, 0);
-    poseTranslationMatrix.setEntry(1, 2, 0);
-    poseTranslationMatrix.setEntry(2, 2, 1);
-    poseTranslationMatrix.setEntry(2, 0, 0);
-    poseTranslationMatrix.setEntry(2, 1, 0);
+    this.allModules = (1 << moduleCount) - 1;
+    this.enabledModules = this.allModules;
+    this.activeModules = this.allModules;
+    this.subsetKernels = new double[1 << moduleCount][];
+    for (int subset = 0; subset < this.allModules; subset++) {
+      if (Integer.bitCount(subset) >= 2) {
+        this.subsetKernels[subset] = calculatePseudoInverse(this.moduleLocations, subset);
+      }
+    }
+    this.subsetKernels[this.allModules] = this.forwardKinematics;
+  }
 
-    /*  Matrix format:
-        [
-            [1, 0, -module_n0_y],
-            [0, 1, module_n0_x],
-            [1, 0, -module_n1_y],
-            [0, 1, module_n1_x],
-            ...
-        ]
-    */
-    for (int idx = 0; idx < modules.length; idx++) {
-      Vector2D module_loc = modules[idx].getLocation();
-      inverseKinematics.setEntry(idx * 2, 0, 1);
-      inverseKinematics.setEntry(idx * 2, 1, 0);
-      inverseKinematics.setEntry(idx * 2, 2, -module_loc.getY());
-      inverseKinematics.setEntry(idx * 2 + 1, 0, 0);
-      inverseKinematics.setEntry(idx * 2 + 1, 1, 1);
-      inverseKinematics.setEntry(idx * 2 + 1, 2, module_loc.getX());
+  /**
+   * Sets if a module is used by the kinematics. Disabled modules are ignored by the odometry, which
+   * switches to a precomputed solution for the remaining modules on the next update. Safe to call
+   * from any thread.
+   *
+   * @param index The index of the module.
+   * @param enabled True to use the module, false to ignore it.
+   * @throws IllegalStateException If disabling the module would leave fewer than 2 modules.
+   */
+  public synchronized void setModuleEnabled(int index, boolean enabled) {
+    Objects.checkIndex(index, this.moduleCount);
+    int subset =
+        enabled ? this.enabledModules | (1 << index) : this.enabledModules & ~(1 << index);
+    if (Integer.bitCount(subset) < 2) {
+      throw new IllegalStateException("Cannot do forward kinematics with less than 2 modules");
     }
-    SingularValueDecomposition svd = new SingularValueDecomposition(inverseKinematics);
-    DecompositionSolver solver = svd.getSolver();
-    forwardKinematics = solver.getInverse();
+    this.enabledModules = subset;
+  }
+
+  /**
+   * Gets if a module is used by the kinematics.
+   *
+   * @param index The index of the module.
+   * @return True if the module is enabled, false otherwise.
+   */
+  public boolean isModuleEnabled(int index) {
+    return (this.enabledModules & (1 << index)) != 0;
+  }
+
+  /**
+   * Gets the modules used by the kinematics.
+   *
+   * @return The bitmask of enabled modules, where bit i is set if module i is enabled.
+   */
+  public int getEnabledModules() {
+    return this.enabledModules;
+  }
+
+  /**
+   * Gets the modules used by the most recent update. Should only be called by the thread that runs
+   * the updates.
+   *
+   * @return The bitmask of modules, where bit i is set if module i was used.
+   */
+  public int getActiveModules() {
+    return this.activeModules;
   }
 
   /** Update the current robot pose. */
   public void update() {
-    ModuleState[] currentModuleStates =
-        Stream.of(this.modules)
-            .map(
-                (m) -> {
-                  double wheelVelocity = m.getWheelVelocity();
-                  double azimuthPosition =
-                      wheelVelocity < 0
-                          ? -m.getAzimuthPosition().asDouble()
-                          : m.getAzimuthPosition().asDouble();
-                  return new ModuleState(azimuthPosition, Math.abs(wheelVelocity));
-                })
-            .toArray(ModuleState[]::new);
-    VelocityState velState = calculateChassisVector(currentModuleStates);
-    m_state.setVelocity(
-        velState.getTranslationVector().getX(), velState.getTranslationVector().getY());
-    m_state.setThetaVelocity(velState.getRotationVelocity());
+    this.activeModules = this.enabledModules;
+    if (Objects.nonNull(this.pendingPose.get())) {
+      double[] pose = this.pendingPose.getAndSet(null);
+      this.odom[X_POSITION] = pose[0];
+      this.odom[Y_POSITION] = pose[1];
+      this.odom[THETA] = pose[2];
+      this.poseHistory.clear();
+      this.headingEstimatorInitialized = false;
+      this.wheelPositionsInitialized = false;
+    }
+    if (Objects.nonNull(this.pendingGyroYaw.get())) {
+      // Move the offset with the calibration, so that the gyro stays lined up
+      // with the odometry instead of pulling the heading to the new yaw.
+      double yaw = this.pendingGyroYaw.getAndSet(null);
+      double previousYaw = this.gyro.getYaw();
+      this.gyro.calibrateYaw(yaw);
+      this.gyroOffset += previousYaw - yaw;
+    }
+    double[] measurement;
+    while (Objects.nonNull(measurement = this.pendingVisionMeasurements.poll())) {
+      this.fuseVisionMeasurement(measurement);
+    }
+
+    double[] wheelVelocities = this.bank.getWheelVelocities();
+    double[] azimuthPositions = this.bank.getAzimuthPositions();
+    for (int idx = 0; idx < this.moduleCount; idx++) {
+      double azimuthRad = Math.toRadians(azimuthPositions[idx]);
+      this.moduleVelocities[idx * 2] = wheelVelocities[idx] * Math.cos(azimuthRad);
+      this.moduleVelocities[idx * 2 + 1] = wheelVelocities[idx] * Math.sin(azimuthRad);
+    }
+    this.calculateMeasuredChassisVelocity();
+    this.odom[X_VELOCITY] = this.chassisVelocity[0];
+    this.odom[Y_VELOCITY] = this.chassisVelocity[1];
+    this.odom[THETA_VELOCITY] = this.chassisVelocity[2];
+    if (this.config.isIntegrateWheelPositions()) {
+      this.calculateChassisDisplacement();
+    }
 
     estimatePoseExponential();
+    this.poseHistory.add(
+        this.clock.getTimestampSeconds(),
+        this.odom[X_POSITION],
+        this.odom[Y_POSITION],
+        this.odom[THETA]);
+    this.publishedOdom.write(this.odom);
+    System.arraycopy(this.moduleResiduals, 0, this.moduleFit, 0, this.moduleCount);
+    System.arraycopy(
+        this.moduleWeights, 0, this.moduleFit, this.moduleCount, this.moduleCount);
+    this.publishedModuleFit.write(this.moduleFit);
   }
 
   /**
-   * Get the current robot pose.
+   * Gets how well each module agreed with the measured chassis velocity in the most recent update.
+   * Safe to call from any thread.
    *
-   * @return The current robot pose.
+   * @param residuals The buffer to fill with the distance of each module's measured velocity from
+   *     the velocity the chassis solution predicts for it, in feet per second.
+   * @param weights The buffer to fill with the weight of each module in the solution, from 0 to 1.
+   */
+  public void getModuleFit(double[] residuals, double[] weights) {
+    this.getModuleFit(residuals, weights, new double[this.moduleCount * 2]);
+  }
+
+  /**
+   * Gets how well each module agreed with the measured chassis velocity in the most recent update
+   * without allocating. Safe to call from any thread, as long as each thread uses its own buffers.
+   *
+   * @param residuals The buffer to fill with the distance of each module's measured velocity from
+   *     the velocity the chassis solution predicts for it, in feet per second.
+   * @param weights The buffer to fill with the weight of each module in the solution, from 0 to 1.
+   * @param buffer A scratch buffer of at least twice the module count.
+   */
+  public void getModuleFit(double[] residuals, double[] weights, double[] buffer) {
+    this.publishedModuleFit.read(buffer);
+    System.arraycopy(buffer, 0, residuals, 0, this.moduleCount);
+    System.arraycopy(buffer, this.moduleCount, weights, 0, this.moduleCount);
+  }
+
+  /**
+   * Adds a pose measured by a vision system, to be fused into the odometry at the start of the
+   * next update. Safe to call from any thread. The odometry pose at the time of the measurement is
+   * moved toward the measured pose, weighted by the standard deviations of each, and the odometry
+   * since then is replayed from the corrected pose. Measurements older than the pose history are
+   * ignored.
+   *
+   * @param x The measured x position, in feet.
+   * @param y The measured y position, in feet.
+   * @param theta The measured heading, in degrees.
+   * @param timestamp The FPGA time when the measurement was captured, in seconds.
+   * @param stdDevs The standard deviations of the measurement as [x in feet, y in feet, theta in
+   *     degrees].
+   * @throws IllegalArgumentException If the standard deviations are not 3 non-negative values.
+   */
+  public void addVisionMeasurement(
+      double x, double y, double theta, double timestamp, double[] stdDevs) {
+    if (stdDevs.length != 3) {
+      throw new IllegalArgumentException("Vision measurements need 3 standard deviations");
+    }
+    for (double stdDev : stdDevs) {
+      if (!(stdDev >= 0)) {
+        throw new IllegalArgumentException("Vision standard deviations must be non-negative");
+      }
+    }
+    this.pendingVisionMeasurements.add(
+        new double[] {x, y, theta, timestamp, stdDevs[0], stdDevs[1], stdDevs[2]});
+  }
+
+  /**
+   * Get the current robot pose. Safe to call from any thread.
+   *
+   * @return A snapshot of the robot pose from the most recent update, which is not modified by
+   *     later updates.
    */
   public OdomState getOdom() {
-    return m_state;
+    return this.getOdom(new OdomState());
+  }
+
+  /**
+   * Get the current robot pose without allocating. Safe to call from any thread, as long as each
+   * thread uses its own buffers.
+   *
+   * @param state The state to fill with a snapshot of the robot pose from the most recent update.
+   * @param buffer A scratch buffer of at least 6 doubles.
+   * @return The given state.
+   */
+  public OdomState getOdom(OdomState state, double[] buffer) {
+    this.publishedOdom.read(buffer);
+    state.setPosition(buffer[X_POSITION], buffer[Y_POSITION]);
+    state.setTheta(buffer[THETA]);
+    state.setVelocity(buffer[X_VELOCITY], buffer[Y_VELOCITY]);
+    state.setThetaVelocity(buffer[THETA_VELOCITY]);
+    return state;
+  }
+
+  /**
+   * Get the current robot pose. Safe to call from any thread.
+   *
+   * @param state The state to fill with a snapshot of the robot pose from the most recent update.
+   * @return The given state.
+   */
+  public OdomState getOdom(OdomState state) {
+    return this.getOdom(state, new double[ODOM_SIZE]);
   }
 
   /**
-   * Set the current robot pose.
+   * Gets the odometry pose at a recent time from the pose history, including any vision
+   * corrections that have been fused since. Must only be called from the control loop.
+   *
+   * @param timestamp The time to look up, in seconds.
+   * @param pose The buffer to fill with the pose as [x in feet, y in feet, theta in degrees].
+   * @return True if the pose was found, or false if the time is older than the pose history.
+   */
+  boolean getHistoricalPose(double timestamp, double[] pose) {
+    return this.poseHistory.getPose(timestamp, pose);
+  }
+
+  /**
+   * Set the current robot pose. Safe to call from any thread. The pose is applied at the start of
+   * the next update, so it will not be seen by {@link #getOdom()} until that update completes. The
+   * velocity of the given state is ignored, since it is recalculated every update.
    *
    * @param state The current robot pose.
    */
   public void setOdom(OdomState state) {
-    this.m_state = state;
+    this.pendingPose.set(
+        new double[] {state.getXPosition(), state.getYPosition(), state.getTheta()});
+  }
+
+  /**
+   * Offsets the yaw readings from the gyro so that its current yaw will be the given yaw. Safe to
+   * call from any thread. If the gyro is fused into the heading, the calibration is applied at the
+   * start of the next update, and the odometry's heading is unchanged by it. Otherwise, it is
+   * applied immediately.
+   *
+   * @param yaw The yaw to offset the gyro to, in degrees.
+   * @throws NullPointerException If there is no gyro.
+   */
+  public void calibrateGyroYaw(double yaw) {
+    if (Objects.isNull(this.headingEstimator)) {
+      Objects.requireNonNull(this.gyro, "There is no gyro to calibrate").calibrateYaw(yaw);
+    } else {
+      this.pendingGyroYaw.set(yaw);
+    }
+  }
+
+  /**
+   * Fuses a vision measurement into the pose history and the current pose.
+   *
+   * @param measurement The measurement, as passed to {@link #addVisionMeasurement}.
+   */
+  private void fuseVisionMeasurement(double[] measurement) {
+    double timestamp = measurement[VISION_TIMESTAMP];
+    if (!this.poseHistory.getPose(timestamp, this.historicalPose)) {
+      return;
+    }
+    double historicalX = this.historicalPose[0];
+    double historicalY = this.historicalPose[1];
+    double historicalTheta = this.historicalPose[2];
+
+    double positionVariance = this.config.getPositionStdDev() * this.config.getPositionStdDev();
+    double headingVariance =
+        this.headingEstimatorInitialized
+            ? this.headingEstimator.getHeadingVariance()
+            : this.config.getHeadingStdDev() * this.config.getHeadingStdDev();
+    double dx =
+        calculateGain(positionVariance, measurement[VISION_X_STD_DEV])
+            * (measurement[VISION_X] - historicalX);
+    double dy =
+        calculateGain(positionVariance, measurement[VISION_Y_STD_DEV])
+            * (measurement[VISION_Y] - historicalY);
+    double headingError = measurement[VISION_THETA] - historicalTheta;
+    headingError -= 360. * Math.round(headingError / 360.);
+    double headingGain = calculateGain(headingVariance, measurement[VISION_THETA_STD_DEV]);
+    double dTheta = headingGain * headingError;
+    if (this.headingEstimatorInitialized) {
+      this.headingEstimator.applyHeadingCorrection(dTheta, headingGain);
+      this.gyroOffset += dTheta;
+    }
+
+    // Everything from the measurement on is moved rigidly with the corrected
+    // pose, which is the same as replaying the odometry deltas from it.
+    this.poseHistory.transformAfter(timestamp, historicalX, historicalY, dx, dy, dTheta);
+    double dThetaRad = Math.toRadians(dTheta);
+    double cos = Math.cos(dThetaRad);
+    double sin = Math.sin(dThetaRad);
+    double relativeX = this.odom[X_POSITION] - historicalX;
+    double relativeY = this.odom[Y_POSITION] - historicalY;
+    this.odom[X_POSITION] = historicalX + dx + cos * relativeX - sin * relativeY;
+    this.odom[Y_POSITION] = historicalY + dy + sin * relativeX + cos * relativeY;
+    this.odom[THETA] += dTheta;
+  }
+
+  /**
+   * Calculates how far to move a state toward a measurement of it.
+   *
+   * @param stateVariance The variance of the state.
+   * @param measurementStdDev The standard deviation of the measurement.
+   * @return The gain, from 0 to ignore the measurement to 1 to use it directly.
+   */
+  private static double calculateGain(double stateVariance, double measurementStdDev) {
+    double totalVariance = stateVariance + measurementStdDev * measurementStdDev;
+    return totalVariance == 0 ? 1 : stateVariance / totalVariance;
   }
 
   /**
@@ -152,101 +553,399 @@ public class ForwardKinematics {
    * @return VelocityState The velocity state calculated from the module states.
    */
   public VelocityState calculateChassisVector(ModuleState[] moduleStates) {
+    double[] moduleVelocities = new double[moduleStates.length * 2];
     for (int idx = 0; idx < moduleStates.length; idx++) {
-      double azimuth = moduleStates[idx].getAzimuthPosition();
-      double wheel_speed = moduleStates[idx].getWheelSpeed();
-
-      double azimuthRad = Math.toRadians(azimuth);
-
-      double vx = wheel_speed * Math.cos(azimuthRad);
-      double vy = wheel_speed * Math.sin(azimuthRad);
-      moduleStatesMatrix.setEntry(idx * 2, 0, vx);
-      moduleStatesMatrix.setEntry(idx * 2 + 1, 0, vy);
+      double azimuthRad = Math.toRadians(moduleStates[idx].getAzimuthPosition());
+      double wheelSpeed = moduleStates[idx].getWheelSpeed();
+      moduleVelocities[idx * 2] = wheelSpeed * Math.cos(azimuthRad);
+      moduleVelocities[idx * 2 + 1] = wheelSpeed * Math.sin(azimuthRad);
     }
-    RealMatrix chassisVector = forwardKinematics.multiply(moduleStatesMatrix);
+    double[] chassisVelocity = new double[3];
+    this.calculateChassisVelocity(moduleVelocities, chassisVelocity);
     Vector2D translationVector =
-        Vector2D.createCartesianCoordinates(
-            chassisVector.getEntry(0, 0), chassisVector.getEntry(1, 0));
+        Vector2D.createCartesianCoordinates(chassisVelocity[0], chassisVelocity[1]);
     return new VelocityState(
         translationVector.getAngle().asDouble(),
         translationVector.getMagnitude(),
-        chassisVector.getEntry(2, 0),
+        chassisVelocity[2],
         false);
   }
 
+  /**
+   * Calculate the velocities of the chassis without allocating any objects.
+   *
+   * @param moduleVelocities The velocity vector of each module, in feet per second, interleaved as
+   *     [vx0, vy0, vx1, vy1, ...].
+   * @param chassisVelocity The buffer to fill with the chassis velocity as [x velocity in feet per
+   *     second, y velocity in feet per second, angular velocity in degrees per second].
+   */
+  public void calculateChassisVelocity(double[] moduleVelocities, double[] chassisVelocity) {
+    double vx = 0;
+    double vy = 0;
+    double omega = 0;
+    int subset = this.activeModules;
+    if (this.centeredLayout && subset == this.allModules) {
+      // The normal equations are diagonal, so translation is the mean module
+      // velocity and rotation is the mean tangential velocity weighted by
+      // distance from the origin.
+      double[] locations = this.moduleLocations;
+      for (int col = 0; col < locations.length; col += 2) {
+        double moduleVx = moduleVelocities[col];
+        double moduleVy = moduleVelocities[col + 1];
+        vx += moduleVx;
+        vy += moduleVy;
+        omega += locations[col] * moduleVy - locations[col + 1] * moduleVx;
+      }
+      double inverseModuleCount = 2. / locations.length;
+      vx *= inverseModuleCount;
+      vy *= inverseModuleCount;
+      omega *= this.inverseSumSquaredDistance;
+    } else {
+      // Multiply all 3 rows of the pseudo-inverse in a single pass.
+      double[] kernel = this.subsetKernels[subset];
+      int columns = this.moduleLocations.length;
+      for (int col = 0; col < columns; col += 2) {
+        double moduleVx = moduleVelocities[col];
+        double moduleVy = moduleVelocities[col + 1];
+        vx += kernel[col] * moduleVx + kernel[col + 1] * moduleVy;
+        vy += kernel[columns + col] * moduleVx + kernel[columns + col + 1] * moduleVy;
+        omega += kernel[2 * columns + col] * moduleVx + kernel[2 * columns + col + 1] * moduleVy;
+      }
+    }
+    chassisVelocity[0] = vx;
+    chassisVelocity[1] = vy;
+    chassisVelocity[2] = Math.toDegrees(omega);
+  }
+
+  /**
+   * Calculates the chassis velocity from the measured module velocities with iteratively
+   * reweighted least squares. Starting from the equally weighted solution, each iteration
+   * down-weights the modules whose residual is beyond the slip threshold, in proportion to how far
+   * beyond it they are, and re-solves the 3x3 normal equations in closed form.
+   */
+  private void calculateMeasuredChassisVelocity() {
+    this.resetModuleWeights();
+    this.calculateChassisVelocity(this.moduleVelocities, this.chassisVelocity);
+    this.calculateResiduals();
+
+    int iterations = this.config.getSlipRejectionIterations();
+    double threshold = this.config.getSlipThreshold();
+    for (int iteration = 0; iteration < iterations; iteration++) {
+      for (int idx = 0; idx < this.moduleCount; idx++) {
+        if (this.moduleWeights[idx] > 0) {
+          double residual = this.moduleResiduals[idx];
+          this.moduleWeights[idx] = residual <= threshold ? 1. : threshold / residual;
+        }
+      }
+      if (!this.solveWeighted(this.moduleWeights, this.moduleVelocities, this.chassisVelocity)) {
+        // The remaining weight can't determine the rotation, so keep the
+        // equally weighted solution.
+        this.resetModuleWeights();
+        this.calculateChassisVelocity(this.moduleVelocities, this.chassisVelocity);
+        this.calculateResiduals();
+        return;
+      }
+      this.calculateResiduals();
+    }
+  }
+
+  /** Weights every enabled module equally, and disabled modules with 0. */
+  private void resetModuleWeights() {
+    for (int idx = 0; idx < this.moduleCount; idx++) {
+      this.moduleWeights[idx] = (this.activeModules & (1 << idx)) != 0 ? 1. : 0.;
+    }
+  }
+
+  /**
+   * Calculates the distance of each module's measured velocity from the velocity that the current
+   * chassis velocity predicts for it.
+   */
+  private void calculateResiduals() {
+    double vx = this.chassisVelocity[0];
+    double vy = this.chassisVelocity[1];
+    double omega = Math.toRadians(this.chassisVelocity[2]);
+    for (int idx = 0; idx < this.moduleCount; idx++) {
+      double errorX =
+          this.moduleVelocities[idx * 2] - (vx - omega * this.moduleLocations[idx * 2 + 1]);
+      double errorY =
+          this.moduleVelocities[idx * 2 + 1] - (vy + omega * this.moduleLocations[idx * 2]);
+      this.moduleResiduals[idx] = Math.sqrt(errorX * errorX + errorY * errorY);
+    }
+  }
+
+  /**
+   * Solves for the chassis motion from module motion using the given module weights.
+   *
+   * <p>The normal equations for weights w_i and module locations (x_i, y_i) are
+   *
+   * <pre>
+   *   [ S,   0,   -Sy ] [vx]   [ sum(w_i vx_i)                 ]
+   *   [ 0,   S,    Sx ] [vy] = [ sum(w_i vy_i)                 ]
+   *   [ -Sy, Sx,  Srr ] [w ]   [ sum(w_i (x_i vy_i - y_i vx_i)) ]
+   * </pre>
+   *
+   * <p>where S = sum(w_i), Sx = sum(w_i x_i), Sy = sum(w_i y_i), and Srr = sum(w_i (x_i^2 +
+   * y_i^2)). The first two rows give vx and vy in terms of w, leaving a scalar equation for w.
+   *
+   * @param weights The weight of each module.
+   * @param moduleVectors The module velocities or displacements, interleaved as [x0, y0, x1, y1,
+   *     ...].
+   * @param chassisVector The buffer to fill with the chassis motion as [x, y, rotation in degrees].
+   * @return True if the solution was found, or false if the weighted modules can't determine the
+   *     rotation, in which case the buffer is unchanged.
+   */
+  boolean solveWeighted(double[] weights, double[] moduleVectors, double[] chassisVector) {
+    double sumWeights = 0;
+    double sumX = 0;
+    double sumY = 0;
+    double sumSquaredDistance = 0;
+    double sumVx = 0;
+    double sumVy = 0;
+    double sumMoment = 0;
+    double[] locations = this.moduleLocations;
+    for (int idx = 0; idx < this.moduleCount; idx++) {
+      double weight = weights[idx];
+      double x = locations[idx * 2];
+      double y = locations[idx * 2 + 1];
+      double moduleVx = moduleVectors[idx * 2];
+      double moduleVy = moduleVectors[idx * 2 + 1];
+      sumWeights += weight;
+      sumX += weight * x;
+      sumY += weight * y;
+      sumSquaredDistance += weight * (x * x + y * y);
+      sumVx += weight * moduleVx;
+      sumVy += weight * moduleVy;
+      sumMoment += weight * (x * moduleVy - y * moduleVx);
+    }
+    if (sumWeights <= 0) {
+      return false;
+    }
+    // The weighted second moment of the module locations about their weighted centroid.
+    double centralMoment = sumSquaredDistance - (sumX * sumX + sumY * sumY) / sumWeights;
+    if (centralMoment <= MIN_CENTRAL_MOMENT_FRACTION * sumSquaredDistance) {
+      return false;
+    }
+    double omega = (sumMoment + (sumY * sumVx - sumX * sumVy) / sumWeights) / centralMoment;
+    chassisVector[0] = (sumVx + sumY * omega) / sumWeights;
+    chassisVector[1] = (sumVy - sumX * omega) / sumWeights;
+    chassisVector[2] = Math.toDegrees(omega);
+    return true;
+  }
+
   /**
    * Calculate the position of the robot.
    *
    * <p>See https://file.tavsys.net/control/controls-engineering-in-frc.pdf Section 10.2 "Pose
    * exponential" for the theory and derivation Takes vx, vy, vt calculated in
-   * calculateChassisVector and stored in state. Computes the next x, y, and t pose
+   * calculateChassisVector and stored in state, or the displacement calculated from the wheel
+   * positions. Computes the next x, y, and t pose
    */
   private void estimatePoseExponential() {
-    double currentTime_s = RobotControllerWrapper.getInstance().getFPGATime() * 1E-6;
+    double currentTime_s = this.clock.getTimestampSeconds();
     double dt = currentTime_s - previousTime_s;
     previousTime_s = currentTime_s;
-    if (dt > kTimeJumpThreshold
-        || dt <= 0.) { // ignore cases where the clock jumps forward or backwards suddenly
-      return;
-    }
-
-    double dx = m_state.getXVelocity() * dt;
-    double dy = m_state.getYVelocity() * dt;
-    double dtheta = Math.toRadians(m_state.getThetaVelocity()) * dt;
-
-    double sin_dtheta = Math.sin(dtheta);
-    double cos_dtheta = Math.cos(dtheta);
+    // ignore cases where the clock jumps forward or backwards suddenly
+    boolean validDt = dt <= kTimeJumpThreshold && dt > 0.;
 
-    double theta = Math.toRadians(m_state.getTheta()) + dtheta;
-    double sin_theta = Math.sin(theta);
-    double cos_theta = Math.cos(theta);
+    double dx;
+    double dy;
+    double wheelDTheta;
+    if (this.config.isIntegrateWheelPositions()) {
+      // Displacements don't depend on the clock, so a bad dt only affects
+      // the heading estimator.
+      dx = this.chassisDisplacement[0];
+      dy = this.chassisDisplacement[1];
+      wheelDTheta = this.chassisDisplacement[2];
+    } else {
+      if (!validDt) {
+        return;
+      }
+      dx = this.odom[X_VELOCITY] * dt;
+      dy = this.odom[Y_VELOCITY] * dt;
+      wheelDTheta = this.odom[THETA_VELOCITY] * dt;
+    }
+    double dtheta = Math.toRadians(this.estimateHeadingChange(validDt ? dt : 0, wheelDTheta));
 
     double s;
-    double c1;
-    double c2;
+    double c;
     // Transformation from twist to pose can be indeterminant when angular velocity is zero.
     // Use taylor series approximation to mitigate this problem.
     if (Math.abs(dtheta) < 1E-9) {
       s = 1.0 - 1.0 / 6.0 * dtheta * dtheta;
-      c1 = 0.5 * dtheta;
-      c2 = -0.5 * dtheta;
+      c = 0.5 * dtheta;
     } else {
-      s = sin_dtheta / dtheta;
-      c1 = (1 - cos_dtheta) / dtheta;
-      c2 = (cos_dtheta - 1) / dtheta;
+      s = Math.sin(dtheta) / dtheta;
+      c = (1 - Math.cos(dtheta)) / dtheta;
     }
 
-    /*  Matrix format:
-        [
-            [cos(th), -sin(th), 0],
-            [sin(th), cos(th), 0],
-            [0, 0, 1]
-        ]
+    /*  Closed form of the matrix product:
+        [                              [
+            [cos(th), -sin(th)],   x       [sin(dth)/dth, (cos(dth) - 1)/dth],
+            [sin(th), cos(th)]             [(1 - cos(dth))/dth, sin(dth)/dth]
+        ]                              ]
     */
-    poseRotationMatrix.setEntry(0, 0, cos_theta);
-    poseRotationMatrix.setEntry(0, 1, -sin_theta);
-    poseRotationMatrix.setEntry(1, 0, sin_theta);
-    poseRotationMatrix.setEntry(1, 1, cos_theta);
+    double localDx = s * dx - c * dy;
+    double localDy = c * dx + s * dy;
+
+    double theta = Math.toRadians(this.odom[THETA]);
+    double sinTheta = Math.sin(theta);
+    double cosTheta = Math.cos(theta);
+
+    this.odom[X_POSITION] += cosTheta * localDx - sinTheta * localDy;
+    this.odom[Y_POSITION] += sinTheta * localDx + cosTheta * localDy;
+    this.odom[THETA] += Math.toDegrees(dtheta);
+  }
+
+  /**
+   * Calculates the chassis displacement since the last update from how far each wheel turned,
+   * using the average of each module's previous and current azimuth as the direction it moved.
+   */
+  private void calculateChassisDisplacement() {
+    double[] wheelPositions = this.bank.getWheelPositions();
+    double[] azimuthPositions = this.bank.getAzimuthPositions();
+    for (int idx = 0; idx < this.moduleCount; idx++) {
+      double wheelPosition = wheelPositions[idx];
+      double azimuth = azimuthPositions[idx];
+      if (!this.wheelPositionsInitialized) {
+        this.previousWheelPositions[idx] = wheelPosition;
+        this.previousAzimuths[idx] = azimuth;
+      }
+      double distance = wheelPosition - this.previousWheelPositions[idx];
+      double azimuthChange = azimuth - this.previousAzimuths[idx];
+      azimuthChange -= 360. * Math.round(azimuthChange / 360.);
+      double azimuthRad = Math.toRadians(this.previousAzimuths[idx] + 0.5 * azimuthChange);
+      this.moduleDisplacements[idx * 2] = distance * Math.cos(azimuthRad);
+      this.moduleDisplacements[idx * 2 + 1] = distance * Math.sin(azimuthRad);
+      this.previousWheelPositions[idx] = wheelPosition;
+      this.previousAzimuths[idx] = azimuth;
+    }
+    this.wheelPositionsInitialized = true;
+    // The kinematics are linear, so the same solve turns module displacements
+    // into the chassis displacement, with slipping modules weighted the same
+    // as they were for the velocity.
+    if (this.config.getSlipRejectionIterations() == 0
+        || !this.solveWeighted(
+            this.moduleWeights, this.moduleDisplacements, this.chassisDisplacement)) {
+      this.calculateChassisVelocity(this.moduleDisplacements, this.chassisDisplacement);
+    }
+  }
+
+  /**
+   * Calculates how much the heading changed since the last update. Without gyro fusion, this is
+   * the change calculated from the wheels. With it, the heading estimator is advanced and
+   * corrected with the wheel angular velocity and the gyro, and the odometry's angular velocity is
+   * replaced with the estimate.
+   *
+   * @param dt The time since the last update, in seconds, or 0 if the clock jumped.
+   * @param wheelHeadingChange The change in heading calculated from the wheels, in degrees.
+   * @return The change in heading, in degrees.
+   */
+  private double estimateHeadingChange(double dt, double wheelHeadingChange) {
+    if (Objects.isNull(this.headingEstimator)) {
+      return wheelHeadingChange;
+    }
+
+    double wheelRate = this.odom[THETA_VELOCITY];
+    double gyroYaw = this.gyro.getYaw();
+    if (!this.headingEstimatorInitialized) {
+      // Line the gyro up with the odometry, assuming the wheels were right
+      // about this cycle.
+      double heading = this.odom[THETA] + wheelHeadingChange;
+      this.gyroOffset = heading - gyroYaw;
+      this.headingEstimator.reset(
+          heading, wheelRate, this.config.getGyroYawStdDev(), this.config.getWheelRateStdDev());
+      this.headingEstimatorInitialized = true;
+      return wheelHeadingChange;
+    }
+    if (dt <= 0) {
+      // The filter can't be advanced, so keep it lined up with the wheels.
+      this.headingEstimator.applyHeadingCorrection(wheelHeadingChange, 0);
+      return wheelHeadingChange;
+    }
+
+    HeadingEstimator estimator = this.headingEstimator;
+    estimator.predict(dt, this.config.getYawAccelerationStdDev());
+    estimator.correctRate(wheelRate, this.config.getWheelRateStdDev());
+    estimator.correctRate(this.gyro.getYawRate(), this.config.getGyroRateStdDev());
+    estimator.correctHeading(gyroYaw + this.gyroOffset, this.config.getGyroYawStdDev());
+    this.odom[THETA_VELOCITY] = estimator.getRate();
+    return estimator.getHeading() - this.odom[THETA];
+  }
+
+  /**
+   * Calculates the pseudo-inverse of the inverse kinematics matrix for a subset of the modules
+   * using a singular value decomposition.
+   *
+   * @param moduleLocations The module locations, interleaved as [x0, y0, x1, y1, ...].
+   * @param subset The bitmask of modules to include.
+   * @return The flattened pseudo-inverse, in row-major order, with zero columns for the modules
+   *     not in the subset.
+   */
+  private static double[] calculatePseudoInverse(double[] moduleLocations, int subset) {
+    int columns = moduleLocations.length;
+    int subsetColumns = Integer.bitCount(subset) * 2;
+    RealMatrix inverseKinematics = new Array2DRowRealMatrix(subsetColumns, 3);
 
     /*  Matrix format:
         [
-            [sin(dth)/dth, (cos(dth) - 1)/dth, 0],
-            [(1 - cos(dth))/dth, sin(dth)/dth, 0],
-            [0, 0, 1]
+            [1, 0, -module_n0_y],
+            [0, 1, module_n0_x],
+            [1, 0, -module_n1_y],
+            [0, 1, module_n1_x],
+            ...
         ]
     */
-    poseTranslationMatrix.setEntry(0, 0, s);
-    poseTranslationMatrix.setEntry(0, 1, c1);
-    poseTranslationMatrix.setEntry(1, 0, c2);
-    poseTranslationMatrix.setEntry(1, 1, s);
-
-    poseVector.setEntry(0, 0, dx);
-    poseVector.setEntry(1, 0, dy);
-    poseVector.setEntry(2, 0, dtheta);
+    int subsetCol = 0;
+    for (int col = 0; col < columns; col += 2) {
+      if ((subset & (1 << (col / 2))) == 0) {
+        continue;
+      }
+      inverseKinematics.setEntry(subsetCol, 0, 1);
+      inverseKinematics.setEntry(subsetCol, 1, 0);
+      inverseKinematics.setEntry(subsetCol, 2, -moduleLocations[col + 1]);
+      inverseKinematics.setEntry(subsetCol + 1, 0, 0);
+      inverseKinematics.setEntry(subsetCol + 1, 1, 1);
+      inverseKinematics.setEntry(subsetCol + 1, 2, moduleLocations[col]);
+      subsetCol += 2;
+    }
+    SingularValueDecomposition svd = new SingularValueDecomposition(inverseKinematics);
+    DecompositionSolver solver = svd.getSolver();
+    RealMatrix pseudoInverse = solver.getInverse();
 
-    deltaPoseVector = poseRotationMatrix.multiply(poseTranslationMatrix.multiply(poseVector));
+    double[] flattened = new double[3 * columns];
+    for (int row = 0; row < 3; row++) {
+      subsetCol = 0;
+      for (int col = 0; col < columns; col += 2) {
+        if ((subset & (1 << (col / 2))) == 0) {
+          continue;
+        }
+        flattened[row * columns + col] = pseudoInverse.getEntry(row, subsetCol);
+        flattened[row * columns + col + 1] = pseudoInverse.getEntry(row, subsetCol + 1);
+        subsetCol += 2;
+      }
+    }
+    return flattened;
+  }
 
-    m_state.addToPosition(deltaPoseVector.getEntry(0, 0), deltaPoseVector.getEntry(1, 0));
-    m_state.addToTheta(Math.toDegrees(deltaPoseVector.getEntry(2, 0)));
+  /**
+   * Calculates the pseudo-inverse of the inverse kinematics matrix for modules centered on the
+   * origin, where it has a closed form.
+   *
+   * @param moduleLocations The module locations, interleaved as [x0, y0, x1, y1, ...].
+   * @param sumSquaredDistance The sum of the squared module distances from the origin.
+   * @return The flattened pseudo-inverse, in row-major order.
+   */
+  private static double[] calculateCenteredPseudoInverse(
+      double[] moduleLocations, double sumSquaredDistance) {
+    int columns = moduleLocations.length;
+    double inverseModuleCount = 2. / columns;
+    double[] flattened = new double[3 * columns];
+    for (int col = 0; col < columns; col += 2) {
+      flattened[col] = inverseModuleCount;
+      flattened[columns + col + 1] = inverseModuleCount;
+      flattened[2 * columns + col] = -moduleLocations[col + 1] / sumSquaredDistance;
+      flattened[2 * columns + col + 1] = moduleLocations[col] / sumSquaredDistance;
+    }
+    return flattened;
   }
 }
@@ -0,0 +1,156 @@
+package frc.team88.swerve.motion.kinematics;
+
+/**
+ * A Kalman filter for the robot's heading and angular velocity, which fuses any number of heading
+ * and angular velocity measurements per cycle. The angular velocity is modeled as constant between
+ * cycles, disturbed by random angular acceleration. The 2x2 covariance is kept in primitive fields,
+ * so a cycle is only a few dozen floating point operations and never allocates.
+ */
+public class HeadingEstimator {
+
+  // The estimated heading, in degrees, which is not wrapped.
+  private double heading = 0;
+
+  // The estimated angular velocity, in degrees per second.
+  private double rate = 0;
+
+  // The covariance of [heading, rate]. The matrix is symmetric, so only
+  // one off-diagonal element is stored.
+  private double headingVariance = 0;
+  private double covariance = 0;
+  private double rateVariance = 0;
+
+  /**
+   * Resets the estimate.
+   *
+   * @param heading The heading, in degrees.
+   * @param rate The angular velocity, in degrees per second.
+   * @param headingStdDev The standard deviation of the heading, in degrees.
+   * @param rateStdDev The standard deviation of the angular velocity, in degrees per second.
+   */
+  public void reset(double heading, double rate, double headingStdDev, double rateStdDev) {
+    this.heading = heading;
+    this.rate = rate;
+    this.headingVariance = headingStdDev * headingStdDev;
+    this.covariance = 0;
+    this.rateVariance = rateStdDev * rateStdDev;
+  }
+
+  /**
+   * Advances the estimate by the given time.
+   *
+   * @param dt The time since the last prediction, in seconds.
+   * @param accelerationStdDev The standard deviation of the angular acceleration, in degrees per
+   *     second squared.
+   */
+  public void predict(double dt, double accelerationStdDev) {
+    this.heading += this.rate * dt;
+
+    // P = F P F^T + Q, with F = [[1, dt], [0, 1]] and Q from white noise
+    // angular acceleration.
+    double accelerationVariance = accelerationStdDev * accelerationStdDev;
+    double dt2 = dt * dt;
+    this.headingVariance +=
+        dt * (2 * this.covariance + dt * this.rateVariance)
+            + 0.25 * dt2 * dt2 * accelerationVariance;
+    this.covariance += dt * this.rateVariance + 0.5 * dt2 * dt * accelerationVariance;
+    this.rateVariance += dt2 * accelerationVariance;
+  }
+
+  /**
+   * Corrects the estimate with a heading measurement. The measurement is unwrapped to within 180
+   * degrees of the estimate, so it may be given in any range.
+   *
+   * @param measuredHeading The measured heading, in degrees.
+   * @param stdDev The standard deviation of the measurement, in degrees.
+   */
+  public void correctHeading(double measuredHeading, double stdDev) {
+    double error = measuredHeading - this.heading;
+    error -= 360. * Math.round(error / 360.);
+    double innovationVariance = this.headingVariance + stdDev * stdDev;
+    if (innovationVariance <= 0) {
+      return;
+    }
+    double headingGain = this.headingVariance / innovationVariance;
+    double rateGain = this.covariance / innovationVariance;
+    this.heading += headingGain * error;
+    this.rate += rateGain * error;
+
+    // P = (I - K H) P, with H = [1, 0].
+    this.rateVariance -= rateGain * this.covariance;
+    this.covariance -= headingGain * this.covariance;
+    this.headingVariance -= headingGain * this.headingVariance;
+  }
+
+  /**
+   * Corrects the estimate with an angular velocity measurement.
+   *
+   * @param measuredRate The measured angular velocity, in degrees per second.
+   * @param stdDev The standard deviation of the measurement, in degrees per second.
+   */
+  public void correctRate(double measuredRate, double stdDev) {
+    double error = measuredRate - this.rate;
+    double innovationVariance = this.rateVariance + stdDev * stdDev;
+    if (innovationVariance <= 0) {
+      return;
+    }
+    double headingGain = this.covariance / innovationVariance;
+    double rateGain = this.rateVariance / innovationVariance;
+    this.heading += headingGain * error;
+    this.rate += rateGain * error;
+
+    // P = (I - K H) P, with H = [0, 1].
+    this.headingVariance -= headingGain * this.covariance;
+    this.covariance -= rateGain * this.covariance;
+    this.rateVariance -= rateGain * this.rateVariance;
+  }
+
+  /**
+   * Moves the heading by a correction that was calculated outside of the filter, such as from a
+   * vision measurement, and reduces the heading uncertainty accordingly.
+   *
+   * @param dHeading The change in heading, in degrees.
+   * @param gain The fraction of the heading error that the correction removed, in [0, 1].
+   */
+  public void applyHeadingCorrection(double dHeading, double gain) {
+    this.heading += dHeading;
+    this.headingVariance *= 1 - gain;
+    this.covariance *= 1 - gain;
+  }
+
+  /**
+   * Gets the estimated heading.
+   *
+   * @return The heading, in degrees.
+   */
+  public double getHeading() {
+    return this.heading;
+  }
+
+  /**
+   * Gets the estimated angular velocity.
+   *
+   * @return The angular velocity, in degrees per second.
+   */
+  public double getRate() {
+    return this.rate;
+  }
+
+  /**
+   * Gets the variance of the estimated heading.
+   *
+   * @return The heading variance, in degrees squared.
+   */
+  public double getHeadingVariance() {
+    return this.headingVariance;
+  }
+
+  /**
+   * Gets the variance of the estimated angular velocity.
+   *
+   * @return The angular velocity variance, in degrees squared per second squared.
+   */
+  public double getRateVariance() {
+    return this.rateVariance;
+  }
+}
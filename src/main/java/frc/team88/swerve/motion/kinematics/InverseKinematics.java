@@ -1,10 +1,13 @@
 package frc.team88.swerve.motion.kinematics;
 
+import frc.team88.swerve.module.ModuleBank;
 import frc.team88.swerve.module.SwerveModule;
 import frc.team88.swerve.motion.state.ModuleState;
 import frc.team88.swerve.motion.state.VelocityState;
+import frc.team88.swerve.util.MutableVector2D;
 import frc.team88.swerve.util.Vector2D;
 import frc.team88.swerve.util.WrappedAngle;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -13,8 +16,28 @@ import java.util.Objects;
  */
 public class InverseKinematics {
 
-  // The modules being controlled.
-  private SwerveModule[] modules;
+  // The module locations being controlled, in parallel arrays.
+  private final ModuleBank bank;
+
+  // The number of modules.
+  private final int moduleCount;
+
+  // Scratch vector for the module velocity calculation, reused every call.
+  private final MutableVector2D moduleVelocity = new MutableVector2D();
+
+  // The velocity of each module per degree per second of rotation about the
+  // cached center of rotation, in feet per second, interleaved as
+  // [x0, y0, x1, y1, ...].
+  private final double[] rotationVectors;
+
+  // The module locations and center of rotation that the rotation vectors
+  // were calculated for, in feet. NaN forces a calculation on first use.
+  private final double[] cachedModuleLocations;
+  private double cachedCenterOfRotationX = Double.NaN;
+  private double cachedCenterOfRotationY = Double.NaN;
+
+  // Converts an angle from degrees to radians.
+  private static final double DEGREES_TO_RADIANS = Math.PI / 180.;
 
   /**
    * Constructor.
@@ -22,10 +45,24 @@ public class InverseKinematics {
    * @param modules The modules to be controlled. Minimumn 2.
    */
   public InverseKinematics(SwerveModule... modules) {
-    if (modules.length < 2) {
+    this(new ModuleBank(modules));
+  }
+
+  /**
+   * Constructor. Module locations are read from the bank, so changes to them are seen after the
+   * bank is refreshed.
+   *
+   * @param bank The modules to be controlled. Minimumn 2.
+   */
+  public InverseKinematics(ModuleBank bank) {
+    if (bank.size() < 2) {
       throw new IllegalArgumentException("Cannot do inverse kinematics with less than 2 modules");
     }
-    this.modules = modules;
+    this.bank = bank;
+    this.moduleCount = bank.size();
+    this.rotationVectors = new double[this.moduleCount * 2];
+    this.cachedModuleLocations = new double[this.moduleCount * 2];
+    Arrays.fill(this.cachedModuleLocations, Double.NaN);
   }
 
   /**
@@ -36,28 +73,137 @@ public class InverseKinematics {
    * @return The calculated module states.
    */
   public ModuleState[] calculate(VelocityState target) {
+    double[] azimuthPositions = new double[this.moduleCount];
+    double[] wheelSpeeds = new double[this.moduleCount];
+    this.calculate(target, azimuthPositions, wheelSpeeds);
+
+    ModuleState moduleStates[] = new ModuleState[this.moduleCount];
+    for (int idx = 0; idx < this.moduleCount; ++idx) {
+      moduleStates[idx] = new ModuleState(azimuthPositions[idx], wheelSpeeds[idx]);
+    }
+    return moduleStates;
+  }
+
+  /**
+   * Calculates the module states for the target motion state, writing them into the given buffers
+   * instead of allocating new objects. This function does not maintain any state, so it can be
+   * used to test a target state without commiting to it.
+   *
+   * @param target The motion state to target. Robot-centric.
+   * @param azimuthPositions The buffer to fill with the azimuth position of each module, in
+   *     degrees. Must have at least one element per module.
+   * @param wheelSpeeds The buffer to fill with the wheel speed of each module, in feet per second.
+   *     Must have at least one element per module.
+   */
+  public void calculate(VelocityState target, double[] azimuthPositions, double[] wheelSpeeds) {
     Objects.requireNonNull(target);
     if (target.isFieldCentric()) {
       throw new IllegalArgumentException(
           "Cannot give field-centric velocity state to inverse kinematics");
     }
+    this.calculate(
+        target.getTranslationDirection(),
+        target.getTranslationSpeed(),
+        target.getRotationVelocity(),
+        target.getCenterOfRotationX(),
+        target.getCenterOfRotationY(),
+        azimuthPositions,
+        wheelSpeeds);
+  }
+
+  /**
+   * Calculates the module states for the given robot-centric motion, writing them into the given
+   * buffers. Takes the components of a velocity state directly so that callers constraining the
+   * motion do not need to construct intermediate states.
+   *
+   * @param translationDirection The direction of translation, in degrees counterclockwise from
+   *     forwards.
+   * @param translationSpeed The translation speed, in feet per second.
+   * @param rotationVelocity The rotation velocity, in degrees per second counterclockwise.
+   * @param centerOfRotationX The x component of the center of rotation, in feet.
+   * @param centerOfRotationY The y component of the center of rotation, in feet.
+   * @param azimuthPositions The buffer to fill with the azimuth position of each module, in
+   *     degrees. Must have at least one element per module.
+   * @param wheelSpeeds The buffer to fill with the wheel speed of each module, in feet per second.
+   *     Must have at least one element per module.
+   */
+  public void calculate(
+      double translationDirection,
+      double translationSpeed,
+      double rotationVelocity,
+      double centerOfRotationX,
+      double centerOfRotationY,
+      double[] azimuthPositions,
+      double[] wheelSpeeds) {
+    if (azimuthPositions.length < this.moduleCount
+        || wheelSpeeds.length < this.moduleCount) {
+      throw new IllegalArgumentException("Module state buffers are smaller than the module count");
+    }
 
     // Get the translation vector, which is the same for all modules
-    Vector2D translationVector = calculateModuleTranslationVector(target);
-
-    ModuleState moduleStates[] = new ModuleState[this.modules.length];
-    for (int idx = 0; idx < this.modules.length; ++idx) {
-      Vector2D rotationVector = calculateModuleRotationVectors(target, modules[idx]);
-      Vector2D combinedVector = translationVector.plus(rotationVector);
-      if (combinedVector.getMagnitude() == 0) {
-        moduleStates[idx] = new ModuleState(target.getTranslationDirection(), 0);
+    double translationDirectionRad = Math.toRadians(translationDirection);
+    double translationX = translationSpeed * Math.cos(translationDirectionRad);
+    double translationY = translationSpeed * Math.sin(translationDirectionRad);
+
+    // Get the rotation vectors for the center of rotation, which only need
+    // scaling by the rotation velocity
+    double[] rotationVectors = this.getModuleRotationVectors(centerOfRotationX, centerOfRotationY);
+
+    for (int idx = 0; idx < this.moduleCount; ++idx) {
+      this.moduleVelocity
+          .set(rotationVectors[idx * 2], rotationVectors[idx * 2 + 1])
+          .scale(rotationVelocity)
+          .plus(translationX, translationY);
+      double combinedMagnitude = this.moduleVelocity.getMagnitude();
+
+      if (combinedMagnitude == 0) {
+        azimuthPositions[idx] = translationDirection;
+        wheelSpeeds[idx] = 0;
       } else {
-        moduleStates[idx] =
-            new ModuleState(combinedVector.getAngle().asDouble(), combinedVector.getMagnitude());
+        azimuthPositions[idx] = this.moduleVelocity.getAngle();
+        wheelSpeeds[idx] = combinedMagnitude;
       }
     }
+  }
 
-    return moduleStates;
+  /**
+   * Gets the velocity of each module for a rotation of 1 degree per second about the given center
+   * of rotation. The vectors are cached, and only recalculated when the center of rotation or a
+   * module location in the bank changes, so this can be called by every step of the control loop.
+   *
+   * @param centerOfRotationX The x component of the center of rotation, in feet.
+   * @param centerOfRotationY The y component of the center of rotation, in feet.
+   * @return The rotation vectors in feet per second per degree per second, interleaved as [x0, y0,
+   *     x1, y1, ...]. This array is owned by this object and must not be modified.
+   */
+  public double[] getModuleRotationVectors(double centerOfRotationX, double centerOfRotationY) {
+    boolean centerOfRotationChanged =
+        centerOfRotationX != this.cachedCenterOfRotationX
+            || centerOfRotationY != this.cachedCenterOfRotationY;
+    this.cachedCenterOfRotationX = centerOfRotationX;
+    this.cachedCenterOfRotationY = centerOfRotationY;
+
+    double[] locationsX = this.bank.getLocationsX();
+    double[] locationsY = this.bank.getLocationsY();
+    for (int idx = 0; idx < this.moduleCount; ++idx) {
+      double locationX = locationsX[idx];
+      double locationY = locationsY[idx];
+      if (!centerOfRotationChanged
+          && locationX == this.cachedModuleLocations[idx * 2]
+          && locationY == this.cachedModuleLocations[idx * 2 + 1]) {
+        continue;
+      }
+      this.cachedModuleLocations[idx * 2] = locationX;
+      this.cachedModuleLocations[idx * 2 + 1] = locationY;
+
+      // Each module moves perpendicular to its position relative to the
+      // center of rotation, once around the circumference of that circle
+      // per full rotation. Scaling the perpendicular position vector by the
+      // angular velocity in radians gives that velocity directly.
+      this.rotationVectors[idx * 2] = -(locationY - centerOfRotationY) * DEGREES_TO_RADIANS;
+      this.rotationVectors[idx * 2 + 1] = (locationX - centerOfRotationX) * DEGREES_TO_RADIANS;
+    }
+    return this.rotationVectors;
   }
 
   /**
@@ -87,17 +233,17 @@ public class InverseKinematics {
     Vector2D location = module.getLocation();
     // Calculate the location relative to the center of rotation.
     // (location - centerOfRotation)
-    Vector2D positionFromRotationCenter =
-        location.plus(state.getCenterOfRotationVector().times(-1));
-    // The direction to move is perpendicular to the position vector
-    Vector2D unscaled = positionFromRotationCenter.rotate(90);
-    // For every full rotation of the robot, each wheel needs to drive
-    // once around the circumference of the circle defined by the center
-    // of rotation at it's center and the location of the module on the
-    // circle. Therefore, the velocity for w rotations per second is w
-    // times the circumference of the circle, and 1/360th of that for
-    // w degrees per second.
-    double circumference = positionFromRotationCenter.getMagnitude() * 2. * Math.PI;
-    return unscaled.changeMagnitude(state.getRotationVelocity() * circumference / 360.);
+    double positionFromRotationCenterX = location.getX() - state.getCenterOfRotationX();
+    double positionFromRotationCenterY = location.getY() - state.getCenterOfRotationY();
+    // The direction to move is perpendicular to the position vector. For
+    // every full rotation of the robot, each wheel needs to drive once
+    // around the circumference of the circle defined by the center of
+    // rotation at it's center and the location of the module on the
+    // circle, so scaling the perpendicular vector by the angular velocity
+    // in radians gives the module velocity.
+    double rotationVelocityRad = Math.toRadians(state.getRotationVelocity());
+    return Vector2D.createCartesianCoordinates(
+        -positionFromRotationCenterY * rotationVelocityRad,
+        positionFromRotationCenterX * rotationVelocityRad);
   }
 }
@@ -0,0 +1,223 @@
+package frc.team88.swerve.motion.kinematics;
+
+/**
+ * A fixed-capacity ring buffer of timestamped robot poses, used to look up where the odometry
+ * thought the robot was at some time in the recent past. Samples are stored in parallel primitive
+ * arrays, so adding one never allocates. Once full, each new sample replaces the oldest one.
+ */
+public class PoseHistory {
+
+  // The samples, in insertion order starting at the oldest index and
+  // wrapping around the end of the arrays. Timestamps are in seconds,
+  // positions in feet, and headings in degrees.
+  private final double[] timestamps;
+  private final double[] xPositions;
+  private final double[] yPositions;
+  private final double[] thetas;
+
+  // The physical index of the oldest sample.
+  private int oldest = 0;
+
+  // The number of samples stored.
+  private int size = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param capacity The maximum number of samples to store.
+   */
+  public PoseHistory(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("Pose history capacity must be at least 2");
+    }
+    this.timestamps = new double[capacity];
+    this.xPositions = new double[capacity];
+    this.yPositions = new double[capacity];
+    this.thetas = new double[capacity];
+  }
+
+  /**
+   * Gets the maximum number of samples.
+   *
+   * @return The capacity.
+   */
+  public int getCapacity() {
+    return this.timestamps.length;
+  }
+
+  /**
+   * Gets the number of samples stored.
+   *
+   * @return The size.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /** Removes all samples. */
+  public void clear() {
+    this.oldest = 0;
+    this.size = 0;
+  }
+
+  /**
+   * Gets the timestamp of the oldest sample.
+   *
+   * @return The timestamp, in seconds, or NaN if there are no samples.
+   */
+  public double getOldestTimestamp() {
+    return this.size == 0 ? Double.NaN : this.timestamps[this.oldest];
+  }
+
+  /**
+   * Gets the timestamp of the newest sample.
+   *
+   * @return The timestamp, in seconds, or NaN if there are no samples.
+   */
+  public double getNewestTimestamp() {
+    return this.size == 0 ? Double.NaN : this.timestamps[this.physicalIndex(this.size - 1)];
+  }
+
+  /**
+   * Adds a sample. A sample with the same timestamp as the newest one replaces it, and a sample
+   * older than the newest one clears the history first, since the clock must have jumped.
+   *
+   * @param timestamp The time of the sample, in seconds.
+   * @param x The x position, in feet.
+   * @param y The y position, in feet.
+   * @param theta The heading, in degrees.
+   */
+  public void add(double timestamp, double x, double y, double theta) {
+    int index;
+    if (this.size > 0 && timestamp == this.getNewestTimestamp()) {
+      index = this.physicalIndex(this.size - 1);
+    } else {
+      if (this.size > 0 && timestamp < this.getNewestTimestamp()) {
+        this.clear();
+      }
+      if (this.size == this.timestamps.length) {
+        index = this.oldest;
+        this.oldest = this.physicalIndex(1);
+      } else {
+        index = this.physicalIndex(this.size);
+        this.size++;
+      }
+    }
+    this.timestamps[index] = timestamp;
+    this.xPositions[index] = x;
+    this.yPositions[index] = y;
+    this.thetas[index] = theta;
+  }
+
+  /**
+   * Gets the pose at the given time, linearly interpolating between the samples on either side of
+   * it. Times after the newest sample give the newest pose.
+   *
+   * @param timestamp The time to look up, in seconds.
+   * @param pose The buffer to fill with the pose as [x in feet, y in feet, theta in degrees].
+   * @return True if the pose was found, or false if the time is before the oldest sample or there
+   *     are no samples, in which case the buffer is unchanged.
+   */
+  public boolean getPose(double timestamp, double[] pose) {
+    if (this.size == 0 || timestamp < this.getOldestTimestamp()) {
+      return false;
+    }
+    int before = this.findLatestAtOrBefore(timestamp);
+    int beforeIndex = this.physicalIndex(before);
+    if (before == this.size - 1 || this.timestamps[beforeIndex] == timestamp) {
+      pose[0] = this.xPositions[beforeIndex];
+      pose[1] = this.yPositions[beforeIndex];
+      pose[2] = this.thetas[beforeIndex];
+      return true;
+    }
+    int afterIndex = this.physicalIndex(before + 1);
+    double fraction =
+        (timestamp - this.timestamps[beforeIndex])
+            / (this.timestamps[afterIndex] - this.timestamps[beforeIndex]);
+    pose[0] = interpolate(this.xPositions[beforeIndex], this.xPositions[afterIndex], fraction);
+    pose[1] = interpolate(this.yPositions[beforeIndex], this.yPositions[afterIndex], fraction);
+    pose[2] = interpolate(this.thetas[beforeIndex], this.thetas[afterIndex], fraction);
+    return true;
+  }
+
+  /**
+   * Applies a rigid transform to every sample from the given time on, as if the odometry had been
+   * corrected at that time and then integrated forward again. Each sample is rotated about the
+   * pivot by the heading change and then translated.
+   *
+   * @param timestamp Samples at or after this time are transformed, in seconds.
+   * @param pivotX The x position to rotate about, in feet.
+   * @param pivotY The y position to rotate about, in feet.
+   * @param dx The x translation, in feet.
+   * @param dy The y translation, in feet.
+   * @param dTheta The heading change, in degrees.
+   */
+  public void transformAfter(
+      double timestamp, double pivotX, double pivotY, double dx, double dy, double dTheta) {
+    if (this.size == 0 || timestamp > this.getNewestTimestamp()) {
+      return;
+    }
+    double dThetaRad = Math.toRadians(dTheta);
+    double cos = Math.cos(dThetaRad);
+    double sin = Math.sin(dThetaRad);
+    int first = 0;
+    if (timestamp >= this.getOldestTimestamp()) {
+      first = this.findLatestAtOrBefore(timestamp);
+      if (this.timestamps[this.physicalIndex(first)] < timestamp) {
+        first++;
+      }
+    }
+    for (int logical = first; logical < this.size; logical++) {
+      int index = this.physicalIndex(logical);
+      double relativeX = this.xPositions[index] - pivotX;
+      double relativeY = this.yPositions[index] - pivotY;
+      this.xPositions[index] = pivotX + dx + cos * relativeX - sin * relativeY;
+      this.yPositions[index] = pivotY + dy + sin * relativeX + cos * relativeY;
+      this.thetas[index] += dTheta;
+    }
+  }
+
+  /**
+   * Binary searches for the newest sample that is not after the given time. The time must not be
+   * before the oldest sample.
+   *
+   * @param timestamp The time to search for, in seconds.
+   * @return The logical index of the sample, where 0 is the oldest.
+   */
+  private int findLatestAtOrBefore(double timestamp) {
+    int low = 0;
+    int high = this.size - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (this.timestamps[this.physicalIndex(mid)] <= timestamp) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Converts an index counted from the oldest sample to an index into the arrays.
+   *
+   * @param logical The logical index, where 0 is the oldest sample.
+   * @return The physical index.
+   */
+  private int physicalIndex(int logical) {
+    int index = this.oldest + logical;
+    return index >= this.timestamps.length ? index - this.timestamps.length : index;
+  }
+
+  /**
+   * Linearly interpolates between two values.
+   *
+   * @param start The value at fraction 0.
+   * @param end The value at fraction 1.
+   * @param fraction The fraction of the way from start to end.
+   * @return The interpolated value.
+   */
+  private static double interpolate(double start, double end, double fraction) {
+    return start + (end - start) * fraction;
+  }
+}
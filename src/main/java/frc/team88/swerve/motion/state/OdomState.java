@@ -3,7 +3,11 @@ package frc.team88.swerve.motion.state;
 import edu.wpi.first.networktables.NetworkTable;
 import frc.team88.swerve.data.NetworkTablePopulator;
 
-/** Represents the state of the robot as determined by the odometry, both position and velocity. */
+/**
+ * Represents the state of the robot as determined by the odometry, both position and velocity.
+ * Instances returned by the odometry are snapshots owned by the caller, and are never modified by
+ * the control loop.
+ */
 public class OdomState implements NetworkTablePopulator {
   private double xPosition = 0.0;
   private double yPosition = 0.0;
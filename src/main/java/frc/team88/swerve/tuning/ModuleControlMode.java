@@ -1,8 +1,8 @@
 package frc.team88.swerve.tuning;
 
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
 import frc.team88.swerve.module.SwerveModule;
-import frc.team88.swerve.util.WrappedAngle;
 import java.util.Objects;
 
 /**
@@ -16,6 +16,11 @@ public class ModuleControlMode implements TuningMode {
   private final double[] azimuthPositions;
   private final double[] wheelSpeeds;
 
+  // The entries of each module, resolved by the first call to
+  // populateNetworkTable so that later calls do no string lookups.
+  private NetworkTableEntry[] azimuthPositionEntries;
+  private NetworkTableEntry[] wheelSpeedEntries;
+
   private boolean firstRun = true;
 
   /**
@@ -38,24 +43,30 @@ public class ModuleControlMode implements TuningMode {
   @Override
   public void run() {
     for (int idx = 0; idx < this.modules.length; idx++) {
-      this.modules[idx].set(wheelSpeeds[idx], new WrappedAngle(azimuthPositions[idx]));
+      this.modules[idx].set(wheelSpeeds[idx], azimuthPositions[idx]);
     }
   }
 
   @Override
   public void populateNetworkTable(NetworkTable table) {
+    if (Objects.isNull(this.azimuthPositionEntries)) {
+      this.azimuthPositionEntries = new NetworkTableEntry[this.modules.length];
+      this.wheelSpeedEntries = new NetworkTableEntry[this.modules.length];
+      for (int idx = 0; idx < this.modules.length; idx++) {
+        this.azimuthPositionEntries[idx] = table.getEntry("modules/" + idx + "/azimuthPosition");
+        this.wheelSpeedEntries[idx] = table.getEntry("modules/" + idx + "/wheelSpeed");
+      }
+    }
     if (this.firstRun) {
       for (int idx = 0; idx < this.modules.length; idx++) {
-        table.getEntry("modules/" + idx + "/azimuthPosition").setDouble(0);
-        table.getEntry("modules/" + idx + "/wheelSpeed").setDouble(0);
+        this.azimuthPositionEntries[idx].setDouble(0);
+        this.wheelSpeedEntries[idx].setDouble(0);
       }
       this.firstRun = false;
     }
     for (int idx = 0; idx < this.modules.length; idx++) {
-      azimuthPositions[idx] =
-          table.getEntry("modules/" + idx + "/azimuthPosition").getDouble(azimuthPositions[idx]);
-      wheelSpeeds[idx] =
-          table.getEntry("modules/" + idx + "/wheelSpeed").getDouble(wheelSpeeds[idx]);
+      azimuthPositions[idx] = this.azimuthPositionEntries[idx].getDouble(azimuthPositions[idx]);
+      wheelSpeeds[idx] = this.wheelSpeedEntries[idx].getDouble(wheelSpeeds[idx]);
     }
   }
 }
@@ -14,6 +14,10 @@ public class MotorControlMode implements TuningMode {
 
   private double[][] velocities;
 
+  // The velocity entry of each motor, resolved by the first call to
+  // populateNetworkTable so that later calls do no string lookups.
+  private NetworkTableEntry[][] velocityEntries;
+
   private boolean firstRun = true;
 
   /**
@@ -43,17 +47,26 @@ public class MotorControlMode implements TuningMode {
 
   @Override
   public void populateNetworkTable(NetworkTable table) {
+    if (Objects.isNull(this.velocityEntries)) {
+      this.velocityEntries = new NetworkTableEntry[velocities.length][];
+      for (int i = 0; i < velocities.length; i++) {
+        this.velocityEntries[i] = new NetworkTableEntry[velocities[i].length];
+        for (int j = 0; j < velocities[i].length; j++) {
+          this.velocityEntries[i][j] = this.getVelocityEntry(table, i, j);
+        }
+      }
+    }
     if (this.firstRun) {
       for (int i = 0; i < velocities.length; i++) {
         for (int j = 0; j < velocities[i].length; j++) {
-          this.getVelocityEntry(table, i, j).setDouble(0);
+          this.velocityEntries[i][j].setDouble(0);
         }
       }
       this.firstRun = false;
     }
     for (int i = 0; i < velocities.length; i++) {
       for (int j = 0; j < velocities[i].length; j++) {
-        velocities[i][j] = this.getVelocityEntry(table, i, j).getDouble(velocities[i][j]);
+        velocities[i][j] = this.velocityEntries[i][j].getDouble(velocities[i][j]);
       }
     }
   }
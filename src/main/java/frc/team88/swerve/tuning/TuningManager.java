@@ -11,15 +11,27 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 
-/** Manages the running of the available tuning modes. */
+/**
+ * Manages the running of the available tuning modes.
+ *
+ * <p>The active mode and the tunables of each mode are only read back from NetworkTables when the
+ * table is populated, which the data manager does on the control loop at the end of a cycle. Any
+ * change made on the dashboard is therefore handed to the control loop at a cycle boundary, and
+ * takes effect from the next call to {@link #update()}.
+ */
 public class TuningManager implements NetworkTablePopulator {
 
   private final Map<String, TuningMode> modes;
 
+  // The active mode, and if it has yet to be initialized. Only accessed by
+  // the control loop.
   private Optional<String> activeMode;
   private boolean newActiveMode = false;
 
-  private boolean firstNetworkTableCall = true;
+  // The table and enable entry of each mode, resolved by the first call to
+  // populateNetworkTable so that later calls do no string lookups.
+  private final Map<String, NetworkTable> modeTables = new HashMap<>();
+  private final Map<String, NetworkTableEntry> enableEntries = new HashMap<>();
 
   /**
    * Constructs a tuning manager.
@@ -65,18 +77,20 @@ public class TuningManager implements NetworkTablePopulator {
 
   @Override
   public void populateNetworkTable(NetworkTable table) {
-    if (this.firstNetworkTableCall) {
+    if (this.modeTables.isEmpty()) {
       // Populate table for first time
       for (Entry<String, TuningMode> entry : modes.entrySet()) {
         NetworkTable modeTable = table.getSubTable(entry.getKey());
-        modeTable.getEntry("enable").setBoolean(false);
+        NetworkTableEntry enabledEntry = modeTable.getEntry("enable");
+        enabledEntry.setBoolean(false);
         entry.getValue().populateNetworkTable(modeTable);
+        this.modeTables.put(entry.getKey(), modeTable);
+        this.enableEntries.put(entry.getKey(), enabledEntry);
       }
-      this.firstNetworkTableCall = false;
     } else {
       for (Entry<String, TuningMode> entry : modes.entrySet()) {
-        NetworkTableEntry enabledEntry = table.getSubTable(entry.getKey()).getEntry("enable");
         String mode = entry.getKey();
+        NetworkTableEntry enabledEntry = this.enableEntries.get(mode);
 
         // Check if this is the active mode and was disabled.
         if (this.isActiveMode(mode) && !enabledEntry.getBoolean(false)) {
@@ -88,7 +102,7 @@ public class TuningManager implements NetworkTablePopulator {
             && enabledEntry.getBoolean(false)
             && DriverStation.getInstance().isEnabled()) {
           if (this.activeMode.isPresent()) {
-            table.getSubTable(this.activeMode.get()).getEntry("enable").setBoolean(false);
+            this.enableEntries.get(this.activeMode.get()).setBoolean(false);
             this.activeMode = Optional.empty();
           }
           this.activeMode = Optional.of(mode);
@@ -98,7 +112,7 @@ public class TuningManager implements NetworkTablePopulator {
         // Only the enabled mode should show as such.
         enabledEntry.setBoolean(this.isActiveMode(mode));
 
-        entry.getValue().populateNetworkTable(table.getSubTable(mode));
+        entry.getValue().populateNetworkTable(this.modeTables.get(mode));
       }
     }
   }
@@ -0,0 +1,225 @@
+package frc.team88.swerve.util;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Threads;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a task periodically on a dedicated thread, independent of the robot's main loop, and
+ * measures how closely the cycles follow the requested period. The statistics are written only by
+ * the control thread and can be read from any thread.
+ */
+public class ControlThread {
+
+  // The task to run every cycle.
+  private final Runnable task;
+
+  // The period between cycles, in seconds.
+  private final double period;
+
+  // The real-time priority for the thread, or 0 to leave it unchanged.
+  private final int priority;
+
+  // Provides the current time, in microseconds.
+  private final LongSupplier timeSource;
+
+  // The period between cycles, in microseconds.
+  private final long periodMicroseconds;
+
+  // The name of the thread.
+  private String name = "SwerveControlThread";
+
+  // The notifier running the task, or null if it has never been started.
+  private Notifier notifier;
+
+  // If the thread is currently running.
+  private volatile boolean running = false;
+
+  // The start time of the previous cycle, in microseconds, or -1 if there has
+  // not been one since the thread was started.
+  private long lastStartTime = -1;
+
+  // The sum of the absolute jitter of all measured cycles, in microseconds,
+  // and the number of cycles measured. The first cycle after starting has
+  // nothing to be measured against.
+  private long jitterSum = 0;
+  private long jitterSampleCount = 0;
+
+  // The statistics for the cycles. See getters for documentation.
+  private volatile long cycleCount = 0;
+  private volatile long overrunCount = 0;
+  private volatile long lastJitter = 0;
+  private volatile long maxJitter = 0;
+  private volatile double meanJitter = 0;
+  private volatile long lastExecutionTime = 0;
+
+  /**
+   * Constructor. Uses the FPGA timer to measure the cycles.
+   *
+   * @param task The task to run every cycle.
+   * @param period The period between cycles, in seconds.
+   * @param priority The real-time priority for the thread in the range [1, 99], or 0 to leave it
+   *     at normal priority.
+   */
+  public ControlThread(Runnable task, double period, int priority) {
+    this(task, period, priority, () -> RobotControllerWrapper.getInstance().getFPGATime());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param task The task to run every cycle.
+   * @param period The period between cycles, in seconds.
+   * @param priority The real-time priority for the thread in the range [1, 99], or 0 to leave it
+   *     at normal priority.
+   * @param timeSource Provides the current time, in microseconds.
+   */
+  public ControlThread(Runnable task, double period, int priority, LongSupplier timeSource) {
+    this.task = Objects.requireNonNull(task);
+    if (period <= 0) {
+      throw new IllegalArgumentException("Control thread period must be positive");
+    }
+    this.period = period;
+    this.priority = priority;
+    this.timeSource = Objects.requireNonNull(timeSource);
+    this.periodMicroseconds = Math.round(period * 1E6);
+  }
+
+  /**
+   * Sets the name of the thread, as shown by debuggers and profilers. Only takes effect if called
+   * before the thread is first started.
+   *
+   * @param name The name of the thread.
+   */
+  public synchronized void setName(String name) {
+    this.name = Objects.requireNonNull(name);
+  }
+
+  /** Starts running the task periodically. Does nothing if the thread is already running. */
+  public synchronized void start() {
+    if (this.running) {
+      return;
+    }
+    if (Objects.isNull(this.notifier)) {
+      this.notifier = new Notifier(this::runCycle);
+      this.notifier.setName(this.name);
+    }
+    this.lastStartTime = -1;
+    this.running = true;
+    this.notifier.startPeriodic(this.period);
+  }
+
+  /**
+   * Stops running the task. A cycle that is already in progress will still complete. Does nothing
+   * if the thread is not running.
+   */
+  public synchronized void stop() {
+    if (!this.running) {
+      return;
+    }
+    this.notifier.stop();
+    this.running = false;
+  }
+
+  /**
+   * Gets if the thread is running.
+   *
+   * @return True if the task is being run periodically, false otherwise.
+   */
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Gets the period between cycles.
+   *
+   * @return The period, in seconds.
+   */
+  public double getPeriod() {
+    return this.period;
+  }
+
+  /**
+   * Gets the number of cycles that have run.
+   *
+   * @return The cycle count.
+   */
+  public long getCycleCount() {
+    return this.cycleCount;
+  }
+
+  /**
+   * Gets the number of cycles whose task took longer than the period.
+   *
+   * @return The overrun count.
+   */
+  public long getOverrunCount() {
+    return this.overrunCount;
+  }
+
+  /**
+   * Gets the jitter of the most recent cycle, which is the difference between the time since the
+   * previous cycle started and the period.
+   *
+   * @return The jitter, in microseconds. Positive if the cycle started late.
+   */
+  public long getLastJitter() {
+    return this.lastJitter;
+  }
+
+  /**
+   * Gets the largest absolute jitter of any cycle.
+   *
+   * @return The max jitter, in microseconds.
+   */
+  public long getMaxJitter() {
+    return this.maxJitter;
+  }
+
+  /**
+   * Gets the mean absolute jitter of all cycles.
+   *
+   * @return The mean jitter, in microseconds.
+   */
+  public double getMeanJitter() {
+    return this.meanJitter;
+  }
+
+  /**
+   * Gets how long the task took to run in the most recent cycle.
+   *
+   * @return The execution time, in microseconds.
+   */
+  public long getLastExecutionTime() {
+    return this.lastExecutionTime;
+  }
+
+  /** Runs a single cycle of the task and records its timing. Called by the notifier. */
+  void runCycle() {
+    long startTime = this.timeSource.getAsLong();
+    if (this.lastStartTime < 0) {
+      if (this.priority > 0) {
+        Threads.setCurrentThreadPriority(true, this.priority);
+      }
+    } else {
+      long jitter = startTime - this.lastStartTime - this.periodMicroseconds;
+      long absoluteJitter = Math.abs(jitter);
+      this.jitterSum += absoluteJitter;
+      this.jitterSampleCount++;
+      this.lastJitter = jitter;
+      this.maxJitter = Math.max(this.maxJitter, absoluteJitter);
+      this.meanJitter = (double) this.jitterSum / this.jitterSampleCount;
+    }
+    this.lastStartTime = startTime;
+
+    this.task.run();
+
+    long executionTime = this.timeSource.getAsLong() - startTime;
+    this.lastExecutionTime = executionTime;
+    if (executionTime > this.periodMicroseconds) {
+      this.overrunCount++;
+    }
+    this.cycleCount++;
+  }
+}
@@ -0,0 +1,79 @@
+package frc.team88.swerve.util;
+
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * A clock that captures a single timestamp per control cycle, so that every controller in the
+ * cycle sees the same time and a consistent dt. The time source defaults to the FPGA timer, but can
+ * be swapped for a virtual clock for replay, simulation, and benchmarks.
+ */
+public class LoopClock {
+
+  // Provides the current time, in microseconds.
+  private LongSupplier timeSource;
+
+  // The timestamp captured by the most recent update, in microseconds.
+  private long timestamp;
+
+  // The timestamp captured by the update before that, in microseconds.
+  private long previousTimestamp;
+
+  /** Constructor. Uses the FPGA timer as the time source. */
+  public LoopClock() {
+    this(() -> RobotControllerWrapper.getInstance().getFPGATime());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param timeSource Provides the current time, in microseconds.
+   */
+  public LoopClock(LongSupplier timeSource) {
+    this.timeSource = Objects.requireNonNull(timeSource);
+    this.timestamp = timeSource.getAsLong();
+    this.previousTimestamp = this.timestamp;
+  }
+
+  /**
+   * Sets the time source, such as a virtual clock for replay. Takes effect on the next update.
+   *
+   * @param timeSource Provides the current time, in microseconds.
+   */
+  public void setTimeSource(LongSupplier timeSource) {
+    this.timeSource = Objects.requireNonNull(timeSource);
+  }
+
+  /** Captures the timestamp for a new cycle. Should be called once at the start of each cycle. */
+  public void update() {
+    this.previousTimestamp = this.timestamp;
+    this.timestamp = this.timeSource.getAsLong();
+  }
+
+  /**
+   * Gets the timestamp captured for the current cycle.
+   *
+   * @return The timestamp, in microseconds.
+   */
+  public long getTimestamp() {
+    return this.timestamp;
+  }
+
+  /**
+   * Gets the timestamp captured for the current cycle.
+   *
+   * @return The timestamp, in seconds.
+   */
+  public double getTimestampSeconds() {
+    return this.timestamp * 1E-6;
+  }
+
+  /**
+   * Gets the time between the last two updates.
+   *
+   * @return The elapsed time, in seconds.
+   */
+  public double getDt() {
+    return (this.timestamp - this.previousTimestamp) * 1E-6;
+  }
+}
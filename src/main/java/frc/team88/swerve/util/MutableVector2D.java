@@ -0,0 +1,175 @@
+package frc.team88.swerve.util;
+
+/**
+ * A mutable companion to {@link Vector2D} for hot loops, where allocating a new vector for every
+ * operation would create garbage each control cycle. All operations modify this vector in place
+ * and return it to allow chaining. Uses the same frame of reference as {@link Vector2D}.
+ */
+public class MutableVector2D {
+
+  // The components of the vector
+  private double x;
+  private double y;
+
+  /** Constructs a zero vector. */
+  public MutableVector2D() {
+    this(0, 0);
+  }
+
+  /**
+   * Constructor using cartesian coordinates.
+   *
+   * @param x The x component of the vector.
+   * @param y The y component of the vector.
+   */
+  public MutableVector2D(double x, double y) {
+    this.x = x;
+    this.y = y;
+  }
+
+  /**
+   * Get the x component of this vector.
+   *
+   * @return The x component
+   */
+  public double getX() {
+    return this.x;
+  }
+
+  /**
+   * Get the y component of this vector.
+   *
+   * @return The y component
+   */
+  public double getY() {
+    return this.y;
+  }
+
+  /**
+   * Get the magnitude of this vector.
+   *
+   * @return The magnitude
+   */
+  public double getMagnitude() {
+    return Math.sqrt(this.x * this.x + this.y * this.y);
+  }
+
+  /**
+   * Get the angle of this vector.
+   *
+   * @return The angle, in degrees, in the range [-180, 180)
+   */
+  public double getAngle() {
+    return WrappedAngle.wrapAngle(Math.toDegrees(Math.atan2(this.y, this.x)));
+  }
+
+  /**
+   * Sets the components of this vector.
+   *
+   * @param x The x component
+   * @param y The y component
+   * @return This vector
+   */
+  public MutableVector2D set(double x, double y) {
+    this.x = x;
+    this.y = y;
+    return this;
+  }
+
+  /**
+   * Sets the components of this vector to those of the given vector.
+   *
+   * @param that The vector to copy
+   * @return This vector
+   */
+  public MutableVector2D set(Vector2D that) {
+    return this.set(that.getX(), that.getY());
+  }
+
+  /**
+   * Sets this vector using the given polar coordinates.
+   *
+   * @param magnitude The magnitude
+   * @param angle The angle, in degrees
+   * @return This vector
+   */
+  public MutableVector2D setPolar(double magnitude, double angle) {
+    double angleRad = Math.toRadians(angle);
+    return this.set(magnitude * Math.cos(angleRad), magnitude * Math.sin(angleRad));
+  }
+
+  /**
+   * Adds the given components to this vector.
+   *
+   * @param x The x component to add
+   * @param y The y component to add
+   * @return This vector
+   */
+  public MutableVector2D plus(double x, double y) {
+    this.x += x;
+    this.y += y;
+    return this;
+  }
+
+  /**
+   * Adds the given vector to this vector.
+   *
+   * @param that The vector to add
+   * @return This vector
+   */
+  public MutableVector2D plus(MutableVector2D that) {
+    return this.plus(that.x, that.y);
+  }
+
+  /**
+   * Adds the given vector to this vector.
+   *
+   * @param that The vector to add
+   * @return This vector
+   */
+  public MutableVector2D plus(Vector2D that) {
+    return this.plus(that.getX(), that.getY());
+  }
+
+  /**
+   * Multiplies this vector by the given scalar.
+   *
+   * @param scalar The scalar multiplicand
+   * @return This vector
+   */
+  public MutableVector2D scale(double scalar) {
+    this.x *= scalar;
+    this.y *= scalar;
+    return this;
+  }
+
+  /**
+   * Rotates this vector by the angle with the given cosine and sine, so that callers rotating many
+   * vectors by the same angle only need to compute the trig functions once.
+   *
+   * @param cos The cosine of the angle to rotate by
+   * @param sin The sine of the angle to rotate by
+   * @return This vector
+   */
+  public MutableVector2D rotate(double cos, double sin) {
+    return this.set(this.x * cos - this.y * sin, this.x * sin + this.y * cos);
+  }
+
+  /**
+   * Rotates this vector 90 degrees counterclockwise, without any trig functions.
+   *
+   * @return This vector
+   */
+  public MutableVector2D rotate90() {
+    return this.set(-this.y, this.x);
+  }
+
+  /**
+   * Creates an immutable copy of this vector.
+   *
+   * @return The immutable vector
+   */
+  public Vector2D toVector2D() {
+    return Vector2D.createCartesianCoordinates(this.x, this.y);
+  }
+}
@@ -0,0 +1,92 @@
+package frc.team88.swerve.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+
+/**
+ * Publishes a fixed number of doubles from a single writer thread to any number of reader threads
+ * without locking or allocating. A sequence counter is incremented before and after every write;
+ * readers retry if the counter was odd or changed while they were copying, so they always see a
+ * complete set of values from one write. Readers never block the writer.
+ */
+public class SeqLockBuffer {
+
+  private static final VarHandle SEQUENCE;
+
+  static {
+    try {
+      SEQUENCE =
+          MethodHandles.lookup().findVarHandle(SeqLockBuffer.class, "sequence", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  // The published values.
+  private final double[] values;
+
+  // Odd while a write is in progress, and incremented twice per write.
+  // Accessed through SEQUENCE.
+  @SuppressWarnings("unused")
+  private volatile long sequence = 0;
+
+  /**
+   * Constructor. All values start at 0.
+   *
+   * @param size The number of values in the buffer.
+   */
+  public SeqLockBuffer(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Buffer size must be positive");
+    }
+    this.values = new double[size];
+  }
+
+  /**
+   * Gets the number of values in the buffer.
+   *
+   * @return The size.
+   */
+  public int size() {
+    return this.values.length;
+  }
+
+  /**
+   * Publishes new values. Must only be called from one thread at a time.
+   *
+   * @param source The values to publish. Must be at least as long as the buffer.
+   */
+  public void write(double[] source) {
+    Objects.requireNonNull(source);
+    long current = (long) SEQUENCE.getOpaque(this);
+    SEQUENCE.setOpaque(this, current + 1);
+    // Keep the value stores from being seen before the odd sequence.
+    VarHandle.releaseFence();
+    System.arraycopy(source, 0, this.values, 0, this.values.length);
+    SEQUENCE.setRelease(this, current + 2);
+  }
+
+  /**
+   * Copies the most recently published values. Spins if a write is in progress, which can only
+   * last as long as the copy in {@link #write(double[])}.
+   *
+   * @param destination The buffer to fill. Must be at least as long as this buffer.
+   * @return The sequence number of the write that was read, which increases with every write.
+   */
+  public long read(double[] destination) {
+    Objects.requireNonNull(destination);
+    while (true) {
+      long before = (long) SEQUENCE.getAcquire(this);
+      if ((before & 1) == 0) {
+        System.arraycopy(this.values, 0, destination, 0, this.values.length);
+        // Keep the value loads from being reordered after the second sequence load.
+        VarHandle.acquireFence();
+        if ((long) SEQUENCE.getOpaque(this) == before) {
+          return before >>> 1;
+        }
+      }
+      Thread.onSpinWait();
+    }
+  }
+}
@@ -10,6 +10,8 @@ public class SyncPIDController {
 
   private PIDConfiguration config;
 
+  private final LoopClock clock;
+
   private double m_accum = 0;
   private double m_prevError = 0;
   private long m_lastLoopTime = 0; // us
@@ -20,9 +22,11 @@ public class SyncPIDController {
    * Constructor that uses a PIDConfiguration object.
    *
    * @param constants Contains all of the PID constants for this PID controller
+   * @param clock The clock for the control loop that this PID controller runs in
    */
-  public SyncPIDController(final PIDConfiguration constants) {
+  public SyncPIDController(final PIDConfiguration constants, final LoopClock clock) {
     this.config = Objects.requireNonNull(constants);
+    this.clock = Objects.requireNonNull(clock);
   }
 
   /**
@@ -164,7 +168,11 @@ public class SyncPIDController {
    */
   protected double calculateD(double error) {
 
-    long curTime = RobotControllerWrapper.getInstance().getFPGATime();
+    long curTime = this.clock.getTimestamp();
+    if (curTime <= m_lastLoopTime) {
+      // Already run this cycle, so there is no elapsed time to differentiate over
+      return 0;
+    }
 
     double ret = getKD() * (error - m_prevError) / ((curTime - m_lastLoopTime) / 1e6);
 
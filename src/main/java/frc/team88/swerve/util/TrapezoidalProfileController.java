@@ -15,6 +15,9 @@ public class TrapezoidalProfileController {
   // The position controller used to adjust the velocity.
   private final SyncPIDController positionPID;
 
+  // The clock for the control loop that this controller runs in.
+  private final LoopClock clock;
+
   // The target velocity which is a setpoint for this controller, in units per
   // second.
   private double targetVelocity = 0;
@@ -35,10 +38,12 @@ public class TrapezoidalProfileController {
    * Constructor.
    *
    * @param config The configuration for this controller.
+   * @param clock The clock for the control loop that this controller runs in.
    */
-  public TrapezoidalProfileController(TrapezoidalControllerConfiguration config) {
+  public TrapezoidalProfileController(TrapezoidalControllerConfiguration config, LoopClock clock) {
     this.config = Objects.requireNonNull(config);
-    this.positionPID = new SyncPIDController(config.getPIDConfig());
+    this.clock = Objects.requireNonNull(clock);
+    this.positionPID = new SyncPIDController(config.getPIDConfig(), clock);
   }
 
   /**
@@ -130,7 +135,7 @@ public class TrapezoidalProfileController {
    * @param currentPosition The current positon.
    */
   public void reset(double currentPosition) {
-    this.lastCalculationTime = RobotControllerWrapper.getInstance().getFPGATime();
+    this.lastCalculationTime = this.clock.getTimestamp();
     this.lastCommandedPosition = currentPosition;
     this.positionPID.reset();
   }
@@ -143,19 +148,23 @@ public class TrapezoidalProfileController {
    * @return The velocity value to command as the output, in units per second
    */
   public double calculateCommandVelocity(double currentPosition, double currentVelocity) {
+    // Every step of the calculation uses the same timestamp for this cycle
+    long currentTime = this.clock.getTimestamp();
+
     // Make sure the elapsed time and difference in commanded position is reasonable
-    if (RobotControllerWrapper.getInstance().getFPGATime() - lastCalculationTime > 200_000
+    if (currentTime - lastCalculationTime > 200_000
         || Math.abs(this.lastCommandedPosition - currentPosition) > this.getMaxSpeed() / 20.) {
       this.lastCommandedPosition = currentPosition;
-      this.lastCalculationTime = RobotControllerWrapper.getInstance().getFPGATime() - 20_000;
+      this.lastCalculationTime = currentTime - 20_000;
     }
+    double dt = (currentTime - lastCalculationTime) / 1_000_000.;
 
     // Determine if the position target is ahead of or behind the current position
     boolean forwards = targetPosition > lastCommandedPosition;
 
     // Calculate the command velocity based on the current velocity and max
     // acceleration
-    double commandVelocity = calculateAcceleratedVelocity(lastCommandedVelocity, forwards);
+    double commandVelocity = calculateAcceleratedVelocity(lastCommandedVelocity, forwards, dt);
 
     // Limit the command velocity based on the max speed
     commandVelocity = applyMaxSpeedLimit(commandVelocity);
@@ -166,13 +175,13 @@ public class TrapezoidalProfileController {
     this.lastCommandedVelocity = commandVelocity;
 
     // Determine the position to command
-    double commandPosition = calculateCommandPosition(commandVelocity);
+    double commandPosition = calculateCommandPosition(commandVelocity, dt);
 
     // Apply the position PID
     commandVelocity += positionPID.calculateOutput(currentPosition, commandPosition);
 
     // Update the last calculation time and commanded position
-    this.lastCalculationTime = RobotControllerWrapper.getInstance().getFPGATime();
+    this.lastCalculationTime = currentTime;
     this.lastCommandedPosition = commandPosition;
 
     // Return the command velocity
@@ -185,14 +194,13 @@ public class TrapezoidalProfileController {
    * @param currentVelocity The current velocity, in units per second.
    * @param forwards True if the value returned should be greater than the current velocity, false
    *     if it should be smaller.
+   * @param dt The time since the last calculation, in seconds.
    * @return The calculated command velocity, in units per second.
    */
-  protected double calculateAcceleratedVelocity(double currentVelocity, boolean forwards) {
+  protected double calculateAcceleratedVelocity(
+      double currentVelocity, boolean forwards, double dt) {
     double sign = forwards ? 1 : -1;
-    double addedVelocity =
-        ((RobotControllerWrapper.getInstance().getFPGATime() - lastCalculationTime) / 1_000_000.)
-            * this.getMaxAcceleration()
-            * sign;
+    double addedVelocity = dt * this.getMaxAcceleration() * sign;
     return currentVelocity + addedVelocity;
   }
 
@@ -231,11 +239,10 @@ public class TrapezoidalProfileController {
    * Determine the command position based on the last command position and the velocity.
    *
    * @param commandVelocity The currently commanded velocity, in units per second.
+   * @param dt The time since the last calculation, in seconds.
    * @return The position to command.
    */
-  protected double calculateCommandPosition(double commandVelocity) {
-    return lastCommandedPosition
-        + ((RobotControllerWrapper.getInstance().getFPGATime() - lastCalculationTime) / 1_000_000.)
-            * commandVelocity;
+  protected double calculateCommandPosition(double commandVelocity, double dt) {
+    return lastCommandedPosition + dt * commandVelocity;
   }
 }
@@ -50,7 +50,7 @@ public class Vector2D {
    * @return The magnitude
    */
   public double getMagnitude() {
-    return Math.sqrt(Math.pow(this.x, 2) + Math.pow(this.y, 2));
+    return Math.sqrt(this.x * this.x + this.y * this.y);
   }
 
   /**
@@ -116,7 +116,12 @@ public class Vector2D {
    * @return The changed vector
    */
   public Vector2D changeMagnitude(double magnitude) {
-    return Vector2D.createPolarCoordinates(magnitude, this.getAngle());
+    double currentMagnitude = this.getMagnitude();
+    if (magnitude == 0. || currentMagnitude == 0.) {
+      // A zero vector has no direction to scale, so fall back to the polar form
+      return Vector2D.createPolarCoordinates(magnitude, this.getAngle());
+    }
+    return this.scale(magnitude / currentMagnitude);
   }
 
   /**
@@ -146,7 +151,10 @@ public class Vector2D {
    * @return The product
    */
   public Vector2D times(double scalar) {
-    return this.changeMagnitude(this.getMagnitude() * scalar);
+    if (scalar == 0. || (this.x == 0. && this.y == 0.)) {
+      return Vector2D.ORIGIN;
+    }
+    return this.scale(scalar);
   }
 
   /**
@@ -156,7 +164,13 @@ public class Vector2D {
    * @return The rotated vector
    */
   public Vector2D rotate(double angle) {
-    return this.changeAngle(this.getAngle().plus(angle));
+    if (this.x == 0. && this.y == 0.) {
+      return Vector2D.ORIGIN;
+    }
+    double angleRad = Math.toRadians(angle);
+    double cos = Math.cos(angleRad);
+    double sin = Math.sin(angleRad);
+    return createCartesianCoordinates(this.x * cos - this.y * sin, this.x * sin + this.y * cos);
   }
 
   /**
@@ -170,12 +184,27 @@ public class Vector2D {
    */
   public Vector2D limitChange(Vector2D desired, double maxChange) {
     // Get the full difference between this vector and the desired vector
-    Vector2D difference = desired.plus(this.times(-1));
+    double differenceX = desired.getX() - this.x;
+    double differenceY = desired.getY() - this.y;
     // Shorten the magnitude of the difference if it is too large
-    if (difference.getMagnitude() > maxChange) {
-      difference = difference.changeMagnitude(maxChange);
+    double differenceMagnitude =
+        Math.sqrt(differenceX * differenceX + differenceY * differenceY);
+    if (differenceMagnitude > maxChange) {
+      double scale = maxChange / differenceMagnitude;
+      differenceX *= scale;
+      differenceY *= scale;
     }
     // Add the difference back onto this vector
-    return this.plus(difference);
+    return createCartesianCoordinates(this.x + differenceX, this.y + differenceY);
+  }
+
+  /**
+   * Returns this vector with both components multiplied by the given scalar.
+   *
+   * @param scalar The scalar multiplicand
+   * @return The scaled vector
+   */
+  private Vector2D scale(double scalar) {
+    return createCartesianCoordinates(this.x * scalar, this.y * scalar);
   }
 }
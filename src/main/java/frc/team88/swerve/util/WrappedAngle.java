@@ -57,14 +57,20 @@ public class WrappedAngle {
    */
   public double getSmallestDifferenceWith(WrappedAngle that) {
     Objects.requireNonNull(that);
-    double difference = that.asDouble() - this.asDouble();
-    if (difference >= -180 && difference < 180) {
-      return difference;
-    } else if (difference < -180) {
-      return difference + 360;
-    } else {
-      return difference - 360;
-    }
+    return getSmallestDifference(this.asDouble(), that.asDouble());
+  }
+
+  /**
+   * Gets the smallest difference (by magnitude) between two angles, either going clockwise or
+   * counter-clockwise. Does not allocate any objects.
+   *
+   * @param from The angle to get the difference from, in degrees. Not bound to any range.
+   * @param to The angle to get the difference to, in degrees. Not bound to any range.
+   * @return The difference, in degrees, in the range [-180, 180). When added to the first angle,
+   *     the sum will be equivalent to the second angle.
+   */
+  public static double getSmallestDifference(double from, double to) {
+    return wrapAngle(to - from);
   }
 
   /**
@@ -74,11 +80,18 @@ public class WrappedAngle {
    * @return The wrapped angle, in degrees
    */
   public static double wrapAngle(double angle) {
-    angle = (angle + 180) % 360;
-    if (angle < 0) {
-      angle += 360;
-    }
-    angle -= 180;
-    return angle;
+    // Branch-free equivalent of a floored modulo, which avoids the cost of
+    // the floating point remainder operation.
+    return angle - 360. * Math.floor((angle + 180.) / 360.);
+  }
+
+  /**
+   * Wraps the angle to be in the range [0, 360).
+   *
+   * @param angle The angle to wrap, in degrees
+   * @return The wrapped angle, in degrees
+   */
+  public static double wrapAngle360(double angle) {
+    return angle - 360. * Math.floor(angle / 360.);
   }
 }
@@ -0,0 +1,40 @@
+package frc.team88.swerve.data;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CANBusLoadEstimatorTest {
+
+  private CANBusLoadEstimator estimator;
+
+  @BeforeEach
+  public void setup() {
+    estimator = new CANBusLoadEstimator();
+  }
+
+  @Test
+  public void testFramesPerSecond() {
+    estimator.addFrame("motor", 10);
+    estimator.addFrame("motor", 20);
+    estimator.addFrame("sensor", 5);
+
+    assertDoubleEquals(150, estimator.getFramesPerSecond("motor"));
+    assertDoubleEquals(200, estimator.getFramesPerSecond("sensor"));
+    assertDoubleEquals(0, estimator.getFramesPerSecond("missing"));
+    assertDoubleEquals(350, estimator.getFramesPerSecond());
+  }
+
+  @Test
+  public void testUtilization() {
+    estimator.addFrame("motor", 1);
+    assertDoubleEquals(0.16, estimator.getUtilization());
+  }
+
+  @Test
+  public void testInvalidPeriod() {
+    assertThrows(IllegalArgumentException.class, () -> estimator.addFrame("motor", 0));
+  }
+}
@@ -0,0 +1,81 @@
+package frc.team88.swerve.data;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+public class PackedTelemetryTest {
+
+  /**
+   * Creates a frame with a distinct value in every slot.
+   *
+   * @param moduleCount The number of modules.
+   * @param hasControlThread True if the frame includes the control thread stats.
+   * @return The frame.
+   */
+  private static TelemetryFrame createFrame(int moduleCount, boolean hasControlThread) {
+    TelemetryFrame frame = new TelemetryFrame(moduleCount, hasControlThread);
+    double[] values = frame.getValues();
+    for (int slot = 0; slot < values.length; slot++) {
+      values[slot] = slot * 1.5 - 7;
+    }
+    for (int idx = 0; idx < moduleCount; idx++) {
+      frame.getModuleResiduals()[idx] = idx + 0.25;
+      frame.getModuleWeights()[idx] = 1. / (idx + 1);
+      frame.getModulesEnabled()[idx] = idx % 2 == 0;
+    }
+    frame.setGroups(TelemetryGroup.GYRO.getMask() | TelemetryGroup.MODULES.getMask());
+    return frame;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    TelemetryFrame frame = createFrame(4, true);
+    ByteBuffer buffer = ByteBuffer.allocate(PackedTelemetry.getPackedSize(4));
+    PackedTelemetry.encode(frame, buffer);
+    assertFalse(buffer.hasRemaining());
+
+    buffer.flip();
+    TelemetryFrame decoded = PackedTelemetry.decode(buffer);
+    assertFalse(buffer.hasRemaining());
+    assertEquals(4, decoded.getModuleCount());
+    assertTrue(decoded.hasControlThread());
+    assertEquals(frame.getGroups(), decoded.getGroups());
+    assertArrayEquals(frame.getValues(), decoded.getValues());
+    assertArrayEquals(frame.getModuleResiduals(), decoded.getModuleResiduals());
+    assertArrayEquals(frame.getModuleWeights(), decoded.getModuleWeights());
+    assertArrayEquals(frame.getModulesEnabled(), decoded.getModulesEnabled());
+    assertDoubleEquals(
+        frame.get(frame.getModuleSlot(3, TelemetryFrame.AZIMUTH_POSITION)),
+        decoded.get(decoded.getModuleSlot(3, TelemetryFrame.AZIMUTH_POSITION)));
+  }
+
+  @Test
+  public void testRejectsOtherVersions() {
+    ByteBuffer buffer = ByteBuffer.allocate(PackedTelemetry.getPackedSize(2));
+    PackedTelemetry.encode(createFrame(2, false), buffer);
+    buffer.put(0, (byte) (PackedTelemetry.VERSION + 1));
+    buffer.flip();
+    assertThrows(IllegalArgumentException.class, () -> PackedTelemetry.decode(buffer));
+  }
+
+  @Test
+  public void testRejectsMismatchedAndTruncatedRecords() {
+    ByteBuffer buffer = ByteBuffer.allocate(PackedTelemetry.getPackedSize(2));
+    PackedTelemetry.encode(createFrame(2, false), buffer);
+    buffer.flip();
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PackedTelemetry.decode(buffer.duplicate(), new TelemetryFrame(3, false)));
+
+    buffer.limit(buffer.limit() - 1);
+    assertThrows(BufferUnderflowException.class, () -> PackedTelemetry.decode(buffer));
+  }
+}
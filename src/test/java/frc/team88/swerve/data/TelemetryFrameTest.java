@@ -0,0 +1,101 @@
+package frc.team88.swerve.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class TelemetryFrameTest {
+
+  @Test
+  public void testKeysAreUnique() {
+    TelemetryFrame frame = new TelemetryFrame(4, true);
+    Set<String> keys = new HashSet<>();
+    for (int slot = 0; slot < frame.size(); slot++) {
+      String key = frame.getKey(slot);
+      assertTrue(Objects.nonNull(key));
+      assertTrue(keys.add(key), key);
+    }
+  }
+
+  @Test
+  public void testModuleKeys() {
+    TelemetryFrame frame = new TelemetryFrame(6, false);
+    assertEquals(
+        "modules/5/motor1/currentDraw",
+        frame.getKey(
+            frame.getModuleSlot(
+                5, TelemetryFrame.MOTOR_FIELDS + TelemetryFrame.MOTOR_CURRENT_DRAW)));
+    assertEquals(
+        "modules/2/azimuthPosition",
+        frame.getKey(frame.getModuleSlot(2, TelemetryFrame.AZIMUTH_POSITION)));
+    assertEquals(
+        "modules/0/locationY", frame.getKey(frame.getModuleSlot(0, TelemetryFrame.LOCATION_Y)));
+    assertEquals("modules/5/locationY", frame.getKey(frame.size() - 1));
+  }
+
+  @Test
+  public void testControlThreadOnlyWhenPresent() {
+    TelemetryFrame frame = new TelemetryFrame(4, false);
+    assertNull(frame.getKey(TelemetryFrame.CONTROL_THREAD + TelemetryFrame.CYCLE_COUNT));
+    assertEquals("timestamp", frame.getKey(TelemetryFrame.TIMESTAMP));
+  }
+
+  @Test
+  public void testBooleanSlots() {
+    TelemetryFrame frame = new TelemetryFrame(4, true);
+    assertTrue(frame.isBoolean(TelemetryFrame.HOLD_AZIMUTH_MODE));
+    assertTrue(frame.isBoolean(TelemetryFrame.TARGET_STATE + TelemetryFrame.IS_FIELD_CENTRIC));
+    assertFalse(frame.isBoolean(TelemetryFrame.GYRO_YAW));
+    assertEquals(
+        "odometryState/theta", frame.getKey(TelemetryFrame.ODOMETRY_STATE + TelemetryFrame.THETA));
+  }
+
+  @Test
+  public void testGroups() {
+    TelemetryFrame frame = new TelemetryFrame(4, true);
+    assertEquals(TelemetryGroup.GYRO, frame.getGroup(TelemetryFrame.GYRO_YAW_RATE));
+    assertEquals(TelemetryGroup.CHASSIS, frame.getGroup(TelemetryFrame.HOLD_AZIMUTH_MODE));
+    assertEquals(TelemetryGroup.COMMANDS, frame.getGroup(TelemetryFrame.ODOMETRY_STATE - 1));
+    assertEquals(TelemetryGroup.ODOMETRY, frame.getGroup(TelemetryFrame.TIMESTAMP));
+    assertEquals(
+        TelemetryGroup.MODULES,
+        frame.getGroup(frame.getModuleSlot(3, TelemetryFrame.TARGET_AZIMUTH_VELOCITY)));
+    assertEquals(
+        TelemetryGroup.CONFIGURATION,
+        frame.getGroup(frame.getModuleSlot(3, TelemetryFrame.LOCATION_X)));
+  }
+
+  @Test
+  public void testUnits() {
+    TelemetryFrame frame = new TelemetryFrame(4, true);
+    assertEquals(TelemetryUnit.DEGREES, frame.getUnit(TelemetryFrame.GYRO_YAW));
+    assertEquals(TelemetryUnit.BOOLEAN, frame.getUnit(TelemetryFrame.HOLD_AZIMUTH_MODE));
+    assertEquals(TelemetryUnit.COUNT, frame.getUnit(TelemetryFrame.ACTUATION_SENT_COUNT));
+    assertEquals(
+        TelemetryUnit.FEET_PER_SECOND,
+        frame.getUnit(TelemetryFrame.CONSTRAINED_COMMAND_STATE + TelemetryFrame.TRANSLATION_SPEED));
+    assertEquals(
+        TelemetryUnit.FEET,
+        frame.getUnit(TelemetryFrame.ODOMETRY_STATE + TelemetryFrame.Y_POSITION));
+    assertEquals(TelemetryUnit.MICROSECONDS, frame.getUnit(TelemetryFrame.TIMESTAMP));
+    assertEquals(
+        TelemetryUnit.MICROSECONDS,
+        frame.getUnit(TelemetryFrame.CONTROL_THREAD + TelemetryFrame.MEAN_JITTER));
+    assertEquals(
+        TelemetryUnit.AMPS,
+        frame.getUnit(
+            frame.getModuleSlot(
+                2, TelemetryFrame.MOTOR_FIELDS + TelemetryFrame.MOTOR_CURRENT_DRAW)));
+    assertEquals(
+        TelemetryUnit.DEGREES_PER_SECOND,
+        frame.getUnit(frame.getModuleSlot(3, TelemetryFrame.TARGET_AZIMUTH_VELOCITY)));
+    assertEquals(
+        TelemetryUnit.FEET, frame.getUnit(frame.getModuleSlot(1, TelemetryFrame.LOCATION_X)));
+  }
+}
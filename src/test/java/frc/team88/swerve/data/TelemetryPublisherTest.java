@@ -0,0 +1,125 @@
+package frc.team88.swerve.data;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import frc.team88.swerve.configuration.subconfig.TelemetryConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class TelemetryPublisherTest {
+
+  private static final int GROUPS =
+      TelemetryGroup.GYRO.getMask() | TelemetryGroup.CHASSIS.getMask();
+
+  private TelemetryPublisher publisher;
+
+  private TelemetryFrame frame;
+
+  @Mock private NetworkTable table;
+
+  @Mock private TelemetryConfiguration telemetryConfig;
+
+  @Mock private NetworkTableEntry yawEntry;
+
+  @Mock private NetworkTableEntry yawRateEntry;
+
+  @Mock private NetworkTableEntry holdAzimuthModeEntry;
+
+  @Mock private NetworkTableEntry moduleResidualsEntry;
+
+  @Mock private NetworkTableEntry moduleWeightsEntry;
+
+  @Mock private NetworkTableEntry modulesEnabledEntry;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(table.getEntry("gyro/yaw")).thenReturn(yawEntry);
+    when(table.getEntry("gyro/yawRate")).thenReturn(yawRateEntry);
+    when(table.getEntry("chassis/holdAzimuthMode")).thenReturn(holdAzimuthModeEntry);
+    when(table.getEntry("chassis/moduleResiduals")).thenReturn(moduleResidualsEntry);
+    when(table.getEntry("chassis/moduleWeights")).thenReturn(moduleWeightsEntry);
+    when(table.getEntry("chassis/modulesEnabled")).thenReturn(modulesEnabledEntry);
+    when(telemetryConfig.getDeadband(TelemetryUnit.DEGREES)).thenReturn(0.5);
+    when(telemetryConfig.getDeadband(TelemetryUnit.DEGREES_PER_SECOND)).thenReturn(2.);
+
+    frame = new TelemetryFrame(0, false);
+    publisher = new TelemetryPublisher(table, frame, telemetryConfig);
+  }
+
+  /**
+   * Sets the values of the gyro and chassis slots, then publishes those groups.
+   *
+   * @param yaw The gyro yaw.
+   * @param yawRate The gyro yaw rate.
+   * @param holdAzimuthMode The hold azimuth mode flag.
+   */
+  private void publish(double yaw, double yawRate, boolean holdAzimuthMode) {
+    double[] values = frame.getValues();
+    values[TelemetryFrame.GYRO_YAW] = yaw;
+    values[TelemetryFrame.GYRO_YAW_RATE] = yawRate;
+    values[TelemetryFrame.HOLD_AZIMUTH_MODE] = holdAzimuthMode ? 1 : 0;
+    publisher.publish(frame, GROUPS);
+  }
+
+  @Test
+  public void testValuesWithinDeadbandAreSkipped() {
+    publish(10, 0, false);
+    verify(yawEntry).setDouble(10.);
+
+    publish(10.3, 0, false);
+    verify(yawEntry, never()).setDouble(10.3);
+
+    // The deadband is measured from the last published value, not the last skipped one
+    publish(10.6, 0, false);
+    verify(yawEntry).setDouble(10.6);
+  }
+
+  @Test
+  public void testEachUnitHasItsOwnDeadband() {
+    publish(10, 5, false);
+    publish(11, 6, false);
+    verify(yawEntry).setDouble(11.);
+    verify(yawRateEntry, never()).setDouble(6.);
+
+    publish(11, 7.5, false);
+    verify(yawRateEntry).setDouble(7.5);
+  }
+
+  @Test
+  public void testForceRefreshResendsValues() {
+    publish(10, 5, true);
+    publish(10, 5, true);
+    verify(yawEntry, times(1)).setDouble(10.);
+    verify(yawRateEntry, times(1)).setDouble(5.);
+    verify(holdAzimuthModeEntry, times(1)).setBoolean(true);
+
+    publisher.forceRefresh();
+    publish(10, 5, true);
+    verify(yawEntry, times(2)).setDouble(10.);
+    verify(yawRateEntry, times(2)).setDouble(5.);
+    verify(holdAzimuthModeEntry, times(2)).setBoolean(true);
+  }
+
+  @Test
+  public void testBooleansAreSentOnEveryChange() {
+    // Booleans are stored as 1 or 0, which would fall within a deadband of 1
+    when(telemetryConfig.getDeadband(TelemetryUnit.BOOLEAN)).thenReturn(1.);
+    publisher = new TelemetryPublisher(table, frame, telemetryConfig);
+
+    publish(0, 0, false);
+    publish(0, 0, true);
+    publish(0, 0, false);
+    verify(holdAzimuthModeEntry, times(2)).setBoolean(false);
+    verify(holdAzimuthModeEntry, times(1)).setBoolean(true);
+    verify(holdAzimuthModeEntry, never()).setDouble(anyDouble());
+  }
+}
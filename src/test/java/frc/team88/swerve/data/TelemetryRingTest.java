@@ -0,0 +1,90 @@
+package frc.team88.swerve.data;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class TelemetryRingTest {
+
+  /**
+   * Writes a frame with every value set to the given number.
+   *
+   * @param ring The ring to write to.
+   * @param value The value for every slot.
+   */
+  private static void write(TelemetryRing ring, double value) {
+    TelemetryFrame frame = ring.beginWrite();
+    Arrays.fill(frame.getValues(), value);
+    ring.endWrite();
+  }
+
+  @Test
+  public void testPollsInOrder() {
+    TelemetryRing ring = new TelemetryRing(4, 2, false);
+    TelemetryFrame destination = new TelemetryFrame(2, false);
+    assertFalse(ring.poll(destination));
+
+    write(ring, 1);
+    write(ring, 2);
+    assertTrue(ring.poll(destination));
+    assertDoubleEquals(1, destination.get(TelemetryFrame.GYRO_YAW));
+    assertTrue(ring.poll(destination));
+    assertDoubleEquals(2, destination.get(destination.size() - 1));
+    assertFalse(ring.poll(destination));
+    assertEquals(0, ring.getDroppedCount());
+  }
+
+  @Test
+  public void testOverwritesOldestWhenFull() {
+    TelemetryRing ring = new TelemetryRing(3, 2, false);
+    assertEquals(4, ring.getCapacity());
+    TelemetryFrame destination = new TelemetryFrame(2, false);
+    for (int write = 1; write <= 10; write++) {
+      write(ring, write);
+    }
+
+    for (int expected = 7; expected <= 10; expected++) {
+      assertTrue(ring.poll(destination));
+      assertDoubleEquals(expected, destination.get(TelemetryFrame.TIMESTAMP));
+    }
+    assertFalse(ring.poll(destination));
+    assertEquals(6, ring.getDroppedCount());
+  }
+
+  @Test
+  public void testConcurrentFramesAreNotTorn() throws InterruptedException {
+    TelemetryRing ring = new TelemetryRing(4, 4, true);
+    int writes = 200_000;
+    Thread writer =
+        new Thread(
+            () -> {
+              for (int write = 1; write <= writes; write++) {
+                write(ring, write);
+              }
+            });
+    writer.start();
+
+    TelemetryFrame destination = new TelemetryFrame(4, true);
+    double lastValue = 0;
+    long received = 0;
+    while (lastValue < writes) {
+      if (!ring.poll(destination)) {
+        Thread.onSpinWait();
+        continue;
+      }
+      double value = destination.get(0);
+      assertTrue(value > lastValue);
+      for (double slotValue : destination.getValues()) {
+        assertDoubleEquals(value, slotValue);
+      }
+      lastValue = value;
+      received++;
+    }
+    writer.join();
+    assertEquals(writes, received + ring.getDroppedCount());
+  }
+}
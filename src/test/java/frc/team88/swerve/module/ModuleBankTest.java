@@ -0,0 +1,121 @@
+package frc.team88.swerve.module;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import frc.team88.swerve.module.motor.SwerveMotor;
+import frc.team88.swerve.module.sensor.PositionSensor;
+import frc.team88.swerve.util.Vector2D;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.junit.jupiter.api.Test;
+
+public class ModuleBankTest {
+
+  private SwerveModule[] modules;
+  private SwerveMotor[][] motors;
+  private PositionSensor[] azimuthSensors;
+  private RealMatrix[] forwardMatrices;
+  private double[] wheelRotationsToFeet;
+
+  /**
+   * Creates mocked modules with a different differential, wheel size and sensor reading each.
+   *
+   * @param moduleCount The number of modules to create.
+   */
+  private void createModules(int moduleCount) {
+    modules = new SwerveModule[moduleCount];
+    motors = new SwerveMotor[moduleCount][];
+    azimuthSensors = new PositionSensor[moduleCount];
+    forwardMatrices = new RealMatrix[moduleCount];
+    wheelRotationsToFeet = new double[moduleCount];
+    for (int idx = 0; idx < moduleCount; idx++) {
+      motors[idx] = new SwerveMotor[] {mock(SwerveMotor.class), mock(SwerveMotor.class)};
+      when(motors[idx][0].getPosition()).thenReturn(10. + 3. * idx);
+      when(motors[idx][1].getPosition()).thenReturn(-4. + 1.5 * idx);
+      when(motors[idx][0].getVelocity()).thenReturn(80. - 7. * idx);
+      when(motors[idx][1].getVelocity()).thenReturn(-20. + 11. * idx);
+      azimuthSensors[idx] = mock(PositionSensor.class);
+      when(azimuthSensors[idx].getPosition()).thenReturn(-300. + 130. * idx);
+      forwardMatrices[idx] =
+          new Array2DRowRealMatrix(
+              new double[][] {
+                {1. / (12. + idx), -1. / (12. + idx)}, {1. / (6. + idx), 1. / (8. - idx)}
+              });
+      wheelRotationsToFeet[idx] = (0.25 + 0.01 * idx) * Math.PI;
+
+      SwerveModule module = mock(SwerveModule.class);
+      when(module.getMotors()).thenReturn(motors[idx]);
+      when(module.getAzimuthSensor()).thenReturn(azimuthSensors[idx]);
+      when(module.getSnapshot()).thenReturn(new ModuleSnapshot());
+      when(module.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(idx, -idx));
+      when(module.getWheelRotationsToFeet()).thenReturn(wheelRotationsToFeet[idx]);
+      for (int row = 0; row < 2; row++) {
+        for (int column = 0; column < 2; column++) {
+          when(module.getForwardMatrixEntry(row, column))
+              .thenReturn(forwardMatrices[idx].getEntry(row, column));
+        }
+      }
+      modules[idx] = module;
+    }
+  }
+
+  /**
+   * Samples a bank over the given number of modules, and checks every derived value against the
+   * values a module's own snapshot derives from the same sensors.
+   *
+   * @param moduleCount The number of modules.
+   */
+  private void checkSampleMatchesModuleMath(int moduleCount) {
+    createModules(moduleCount);
+    ModuleBank bank = new ModuleBank(modules);
+    bank.sample();
+
+    for (int idx = 0; idx < moduleCount; idx++) {
+      ModuleSnapshot expected = new ModuleSnapshot();
+      expected.sample(
+          motors[idx], azimuthSensors[idx], forwardMatrices[idx], wheelRotationsToFeet[idx]);
+
+      assertDoubleEquals(expected.getWheelPosition(), bank.getWheelPositions()[idx]);
+      assertDoubleEquals(expected.getWheelVelocity(), bank.getWheelVelocities()[idx]);
+      assertDoubleEquals(expected.getAzimuthVelocity(), bank.getAzimuthVelocities()[idx]);
+      assertDoubleEquals(expected.getAzimuthPosition(), bank.getAzimuthPositions()[idx]);
+
+      ModuleSnapshot stored = modules[idx].getSnapshot();
+      assertDoubleEquals(expected.getWheelPosition(), stored.getWheelPosition());
+      assertDoubleEquals(expected.getWheelVelocity(), stored.getWheelVelocity());
+      assertDoubleEquals(expected.getAzimuthVelocity(), stored.getAzimuthVelocity());
+      assertDoubleEquals(expected.getAzimuthSensorPosition(), stored.getAzimuthSensorPosition());
+    }
+  }
+
+  @Test
+  public void testSampleMatchesModuleMathFourModules() {
+    checkSampleMatchesModuleMath(4);
+  }
+
+  @Test
+  public void testSampleMatchesModuleMathSixModules() {
+    checkSampleMatchesModuleMath(6);
+  }
+
+  @Test
+  public void testRefreshOnlyWhenChanged() {
+    createModules(4);
+    ModuleBank bank = new ModuleBank(modules);
+    assertFalse(bank.refresh());
+
+    when(modules[2].getWheelRotationsToFeet()).thenReturn(0.5 * Math.PI);
+    assertTrue(bank.refresh());
+    bank.sample();
+    double expected =
+        (forwardMatrices[2].getEntry(1, 0) * motors[2][0].getVelocity()
+                + forwardMatrices[2].getEntry(1, 1) * motors[2][1].getVelocity())
+            * 0.5
+            * Math.PI;
+    assertDoubleEquals(expected, bank.getWheelVelocities()[2]);
+  }
+}
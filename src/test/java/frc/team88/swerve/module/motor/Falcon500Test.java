@@ -0,0 +1,77 @@
+package frc.team88.swerve.module.motor;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+import com.electronwill.nightconfig.core.Config;
+import frc.team88.swerve.configuration.subconfig.Falcon500Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class Falcon500Test {
+
+  @Mock private TalonFX talon;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  private static Falcon500Configuration createConfig(boolean closedLoopVelocity) {
+    Config config = Config.inMemory();
+    config.set("inverted", false);
+    config.set("max-speed-rps", 100.);
+    config.set("general-status-period-ms", 10);
+    config.set("feedback-status-period-ms", 20);
+    config.set("control-period-ms", 10);
+    config.set("closed-loop-velocity", closedLoopVelocity);
+    config.set("velocity-controller.kP", 0.5);
+    config.set("velocity-controller.kF", 0.01);
+    return new Falcon500Configuration(config);
+  }
+
+  @Test
+  public void testGetVelocity() {
+    Falcon500 falcon = new Falcon500(talon, createConfig(false));
+    when(talon.getSelectedSensorVelocity()).thenReturn(2048.);
+    assertDoubleEquals(10, falcon.getVelocity());
+  }
+
+  @Test
+  public void testOpenLoopVelocity() {
+    Falcon500 falcon = new Falcon500(talon, createConfig(false));
+    falcon.setVelocity(50);
+
+    verify(talon).set(ControlMode.PercentOutput, 0.5);
+    verify(talon, never()).config_kP(anyInt(), anyDouble());
+  }
+
+  @Test
+  public void testClosedLoopVelocity() {
+    Falcon500 falcon = new Falcon500(talon, createConfig(true));
+    falcon.setVelocity(10);
+
+    verify(talon).set(ControlMode.Velocity, 2048.);
+    verify(talon).config_kP(0, 0.5 * (1023. / 204.8));
+    verify(talon).config_kF(0, 0.01 * (1023. / 204.8));
+  }
+
+  @Test
+  public void testGainsOnlySentWhenChanged() {
+    Falcon500 falcon = new Falcon500(talon, createConfig(true));
+    falcon.setVelocity(10);
+    falcon.setVelocity(20);
+
+    verify(talon, times(1)).config_kP(eq(0), anyDouble());
+  }
+}
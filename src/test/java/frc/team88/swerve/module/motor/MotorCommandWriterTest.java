@@ -0,0 +1,112 @@
+package frc.team88.swerve.module.motor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.electronwill.nightconfig.core.Config;
+import frc.team88.swerve.configuration.subconfig.ActuationConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class MotorCommandWriterTest {
+
+  private MotorCommandWriter writer;
+
+  @Mock private SwerveMotor motor1;
+
+  @Mock private SwerveMotor motor2;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+
+    Config config = Config.inMemory();
+    config.set("velocity-epsilon-rps", 0.1);
+    config.set("refresh-cycles", 3);
+    writer =
+        new MotorCommandWriter(
+            new SwerveMotor[] {motor1, motor2}, new ActuationConfiguration(config));
+  }
+
+  @Test
+  public void testIndexOf() {
+    assertEquals(1, writer.indexOf(motor2));
+    assertThrows(IllegalArgumentException.class, () -> writer.indexOf(null));
+  }
+
+  @Test
+  public void testCommandsWrittenOnFlush() {
+    writer.setVelocity(0, 5);
+    writer.setVelocity(0, 6);
+    verify(motor1, never()).setVelocity(anyDouble());
+
+    writer.flush();
+    verify(motor1).setVelocity(6);
+    verify(motor2, never()).setVelocity(anyDouble());
+    assertEquals(1, writer.getSentCount());
+  }
+
+  @Test
+  public void testSmallChangeSuppressed() {
+    writer.setVelocity(0, 5);
+    writer.flush();
+    writer.setVelocity(0, 5.05);
+    writer.flush();
+    writer.setVelocity(0, 5.2);
+    writer.flush();
+
+    verify(motor1).setVelocity(5);
+    verify(motor1, never()).setVelocity(5.05);
+    verify(motor1).setVelocity(5.2);
+    assertEquals(2, writer.getSentCount());
+    assertEquals(1, writer.getSuppressedCount());
+  }
+
+  @Test
+  public void testStopAlwaysSent() {
+    writer.setVelocity(0, 0.05);
+    writer.flush();
+    writer.setVelocity(0, 0);
+    writer.flush();
+
+    verify(motor1).setVelocity(0);
+  }
+
+  @Test
+  public void testUnchangedCommandRefreshed() {
+    for (int cycle = 0; cycle < 4; cycle++) {
+      writer.setVelocity(0, 5);
+      writer.flush();
+    }
+
+    verify(motor1, times(2)).setVelocity(5);
+    assertEquals(2, writer.getSuppressedCount());
+  }
+
+  @Test
+  public void testInvalidate() {
+    writer.setVelocity(0, 5);
+    writer.flush();
+    writer.invalidate();
+    writer.setVelocity(0, 5);
+    writer.flush();
+
+    verify(motor1, times(2)).setVelocity(5);
+  }
+
+  @Test
+  public void testNeutralModeDeduplicated() {
+    writer.setBrake(0);
+    writer.setBrake(0);
+    writer.setCoast(0);
+
+    verify(motor1).setBrake();
+    verify(motor1).setCoast();
+  }
+}
@@ -0,0 +1,87 @@
+package frc.team88.swerve.module.motor;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.electronwill.nightconfig.core.Config;
+import com.revrobotics.CANEncoder;
+import com.revrobotics.CANPIDController;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.ControlType;
+import frc.team88.swerve.configuration.subconfig.NeoConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class NeoTest {
+
+  @Mock private CANSparkMax spark;
+
+  @Mock private CANPIDController pidController;
+
+  @Mock private CANEncoder encoder;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(spark.getPIDController()).thenReturn(pidController);
+    when(spark.getEncoder()).thenReturn(encoder);
+  }
+
+  private static NeoConfiguration createConfig(boolean closedLoopVelocity) {
+    Config config = Config.inMemory();
+    config.set("inverted", false);
+    config.set("max-speed-rps", 100.);
+    config.set("status-0-period-ms", 10);
+    config.set("status-1-period-ms", 20);
+    config.set("status-2-period-ms", 20);
+    config.set("control-period-ms", 10);
+    config.set("closed-loop-velocity", closedLoopVelocity);
+    config.set("velocity-controller.kP", 0.6);
+    config.set("velocity-controller.kF", 0.01);
+    return new NeoConfiguration(config);
+  }
+
+  @Test
+  public void testGetVelocity() {
+    Neo neo = new Neo(spark, createConfig(false));
+    when(encoder.getVelocity()).thenReturn(600.);
+    assertDoubleEquals(10, neo.getVelocity());
+  }
+
+  @Test
+  public void testOpenLoopVelocity() {
+    Neo neo = new Neo(spark, createConfig(false));
+    neo.setVelocity(50);
+
+    verify(spark).set(0.5);
+    verify(pidController, never()).setReference(anyDouble(), any(ControlType.class));
+  }
+
+  @Test
+  public void testClosedLoopVelocity() {
+    Neo neo = new Neo(spark, createConfig(true));
+    neo.setVelocity(10);
+
+    verify(pidController).setReference(600., ControlType.kVelocity);
+    verify(pidController).setP(0.6 * (1. / 60.));
+    verify(pidController).setFF(0.01 * (1. / 60.));
+  }
+
+  @Test
+  public void testGainsOnlySentWhenChanged() {
+    Neo neo = new Neo(spark, createConfig(true));
+    neo.setVelocity(10);
+    neo.setVelocity(20);
+
+    verify(pidController, times(1)).setP(anyDouble());
+    verify(pidController, times(2)).setReference(anyDouble(), eq(ControlType.kVelocity));
+  }
+}
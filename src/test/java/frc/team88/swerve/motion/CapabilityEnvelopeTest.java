@@ -0,0 +1,82 @@
+package frc.team88.swerve.motion;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import frc.team88.swerve.module.SwerveModule;
+import frc.team88.swerve.util.Vector2D;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class CapabilityEnvelopeTest {
+
+  private CapabilityEnvelope envelope;
+
+  @Mock private SwerveModule module1;
+
+  @Mock private SwerveModule module2;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+
+    when(module1.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(1, 1));
+    when(module2.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(-1, -1));
+    when(module1.getMaxWheelSpeed()).thenReturn(12.);
+    when(module2.getMaxWheelSpeed()).thenReturn(10.);
+
+    envelope = new CapabilityEnvelope(module1, module2);
+  }
+
+  @Test
+  public void testMaxTranslationSpeed() {
+    assertDoubleEquals(10, envelope.getMaxTranslationSpeed());
+  }
+
+  @Test
+  public void testMaxRotationSpeed() {
+    assertDoubleEquals(10. / (2. * Math.sqrt(2) * Math.PI) * 360., envelope.getMaxRotationSpeed());
+  }
+
+  @Test
+  public void testMaxRotationSpeedOffsetCenter() {
+    assertDoubleEquals(10. / (2. * 2. * Math.PI) * 360., envelope.getMaxRotationSpeed(-1, 1));
+  }
+
+  @Test
+  public void testAchievableScaleMatchesCalculation() {
+    for (double direction = -180; direction < 180; direction += 7.5) {
+      for (double ratio = -1; ratio <= 1; ratio += 0.05) {
+        double expected = envelope.calculateAchievableScale(direction, ratio);
+        assertEquals(expected, envelope.getAchievableScale(direction, ratio), expected * 0.02);
+        assertTrue(expected >= 1. - 1E-9);
+      }
+    }
+  }
+
+  @Test
+  public void testAchievableScaleOfCommand() {
+    assertDoubleEquals(2., envelope.getAchievableScale(90, 5, 0));
+  }
+
+  @Test
+  public void testRefreshOnlyWhenChanged() {
+    assertFalse(envelope.refresh());
+    when(module2.getMaxWheelSpeed()).thenReturn(8.);
+    assertTrue(envelope.refresh());
+    assertDoubleEquals(8, envelope.getMaxTranslationSpeed());
+  }
+
+  @Test
+  public void testRefreshClearsCachedRotationSpeed() {
+    assertDoubleEquals(10. / (2. * 2. * Math.PI) * 360., envelope.getMaxRotationSpeed(-1, 1));
+    when(module2.getMaxWheelSpeed()).thenReturn(8.);
+    envelope.refresh();
+    assertDoubleEquals(8. / (2. * 2. * Math.PI) * 360., envelope.getMaxRotationSpeed(-1, 1));
+  }
+}
@@ -0,0 +1,121 @@
+package frc.team88.swerve.motion;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import frc.team88.swerve.configuration.Configuration;
+import frc.team88.swerve.configuration.subconfig.OdometryConfiguration;
+import frc.team88.swerve.module.ModuleBank;
+import frc.team88.swerve.module.SwerveModule;
+import frc.team88.swerve.module.motor.MotorCommandWriter;
+import frc.team88.swerve.module.motor.SwerveMotor;
+import frc.team88.swerve.motion.state.VelocityState;
+import frc.team88.swerve.util.LoopClock;
+import frc.team88.swerve.util.Vector2D;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class SwerveChassisTest {
+
+  private SwerveChassis chassis;
+
+  private SwerveModule[] modules;
+
+  @Mock private Configuration config;
+
+  @Mock private OdometryConfiguration odometryConfig;
+
+  @Mock private LoopClock clock;
+
+  @Mock private MotorCommandWriter commandWriter;
+
+  @Mock private CapabilityEnvelope envelope;
+
+  @Mock private SwerveModule module0;
+
+  @Mock private SwerveModule module1;
+
+  @Mock private SwerveModule module2;
+
+  @Mock private SwerveModule module3;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    modules = new SwerveModule[] {module0, module1, module2, module3};
+    when(module0.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(1, 1));
+    when(module1.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(-1, 1));
+    when(module2.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(-1, -1));
+    when(module3.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(1, -1));
+    for (SwerveModule module : modules) {
+      when(module.getMotors())
+          .thenReturn(new SwerveMotor[] {mock(SwerveMotor.class), mock(SwerveMotor.class)});
+    }
+    when(odometryConfig.getHistoryCapacity()).thenReturn(50);
+
+    when(config.getModules()).thenReturn(modules);
+    when(config.getModuleBank()).thenReturn(new ModuleBank(modules));
+    when(config.getOdometryConfig()).thenReturn(odometryConfig);
+    when(config.getLoopClock()).thenReturn(clock);
+    when(config.getCommandWriter()).thenReturn(commandWriter);
+    when(config.getCapabilityEnvelope()).thenReturn(envelope);
+    for (int idx = 0; idx < modules.length; idx++) {
+      when(envelope.getMaxWheelSpeed(idx)).thenReturn(10.);
+    }
+
+    chassis = new SwerveChassis(config);
+  }
+
+  @Test
+  public void testNeutralModeAppliedAtEndOfCycle() {
+    chassis.setCoast();
+    for (SwerveModule module : modules) {
+      verify(module, never()).setCoast();
+    }
+
+    chassis.endCycle();
+    for (SwerveModule module : modules) {
+      verify(module).setCoast();
+      verify(module, never()).setBrake();
+    }
+  }
+
+  @Test
+  public void testLatestNeutralModeWins() {
+    chassis.setCoast();
+    chassis.setBrake();
+    chassis.endCycle();
+    for (SwerveModule module : modules) {
+      verify(module, never()).setCoast();
+      verify(module).setBrake();
+    }
+
+    // The request is only applied once
+    chassis.endCycle();
+    for (SwerveModule module : modules) {
+      verify(module).setBrake();
+    }
+  }
+
+  @Test
+  public void testDisabledModuleIsStoppedAndIgnoredBySpeedLimit() {
+    // The disabled module would limit the drive to 1 foot per second
+    when(envelope.getMaxWheelSpeed(0)).thenReturn(1.);
+    chassis.setModuleEnabled(0, false);
+    chassis.setTargetState(new VelocityState(0, 5, 0, false));
+    chassis.update();
+
+    verify(module0).setRawWheelVelocities(0., 0.);
+    verify(module0, never()).set(anyDouble(), anyDouble());
+    for (int idx = 1; idx < modules.length; idx++) {
+      verify(modules[idx]).set(5., 0.);
+    }
+    assertDoubleEquals(5, chassis.getConstrainedCommandState().getTranslationSpeed());
+  }
+}
@@ -0,0 +1,160 @@
+package frc.team88.swerve.motion.kinematics;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import frc.team88.swerve.configuration.subconfig.OdometryConfiguration;
+import frc.team88.swerve.module.ModuleBank;
+import frc.team88.swerve.module.SwerveModule;
+import frc.team88.swerve.module.motor.SwerveMotor;
+import frc.team88.swerve.util.LoopClock;
+import frc.team88.swerve.util.Vector2D;
+import java.util.Random;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SingularValueDecomposition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the flat forward kinematics kernel against the matrix multiply it replaced, checking
+ * that they agree and printing the time per solve for common module counts. Tagged so that it is
+ * left out of the unit tests, and only run by the benchmark task.
+ */
+@Tag("benchmark")
+public class ForwardKinematicsBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 20_000;
+  private static final int TIMED_ITERATIONS = 200_000;
+
+  private Random random;
+
+  @BeforeEach
+  public void setup() {
+    random = new Random(88);
+  }
+
+  @Test
+  public void testBenchmarkCenteredLayouts() {
+    for (int moduleCount : new int[] {2, 4, 6, 8}) {
+      benchmark("centered", createModules(moduleCount, 0, 0));
+    }
+  }
+
+  @Test
+  public void testBenchmarkOffsetLayouts() {
+    for (int moduleCount : new int[] {2, 4, 6, 8}) {
+      benchmark("offset", createModules(moduleCount, 0.7, -0.4));
+    }
+  }
+
+  /**
+   * Checks the flat kernel against the legacy matrix solve, then times both.
+   *
+   * @param label The name of the layout, for printing.
+   * @param modules The modules to benchmark.
+   */
+  private void benchmark(String label, SwerveModule[] modules) {
+    OdometryConfiguration odometryConfig = mock(OdometryConfiguration.class);
+    when(odometryConfig.getHistoryCapacity()).thenReturn(50);
+    ForwardKinematics fk =
+        new ForwardKinematics(
+            new LoopClock(() -> 0), odometryConfig, null, new ModuleBank(modules));
+    LegacyKernel legacy = new LegacyKernel(modules);
+    double[] moduleVelocities = new double[modules.length * 2];
+    double[] chassisVelocity = new double[3];
+
+    for (int trial = 0; trial < 100; trial++) {
+      for (int idx = 0; idx < moduleVelocities.length; idx++) {
+        moduleVelocities[idx] = random.nextDouble() * 20 - 10;
+      }
+      fk.calculateChassisVelocity(moduleVelocities, chassisVelocity);
+      RealMatrix expected = legacy.calculate(moduleVelocities);
+      assertDoubleEquals(expected.getEntry(0, 0), chassisVelocity[0]);
+      assertDoubleEquals(expected.getEntry(1, 0), chassisVelocity[1]);
+      assertDoubleEquals(Math.toDegrees(expected.getEntry(2, 0)), chassisVelocity[2]);
+    }
+
+    double sink = 0;
+    for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+      fk.calculateChassisVelocity(moduleVelocities, chassisVelocity);
+      sink += chassisVelocity[2];
+      sink += legacy.calculate(moduleVelocities).getEntry(2, 0);
+    }
+
+    long start = System.nanoTime();
+    for (int iteration = 0; iteration < TIMED_ITERATIONS; iteration++) {
+      moduleVelocities[0] = iteration;
+      fk.calculateChassisVelocity(moduleVelocities, chassisVelocity);
+      sink += chassisVelocity[2];
+    }
+    long flatNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int iteration = 0; iteration < TIMED_ITERATIONS; iteration++) {
+      moduleVelocities[0] = iteration;
+      sink += legacy.calculate(moduleVelocities).getEntry(2, 0);
+    }
+    long legacyNanos = System.nanoTime() - start;
+
+    System.out.printf(
+        "ForwardKinematics %s %d modules: flat %.1f ns/solve, matrix %.1f ns/solve (%s)%n",
+        label,
+        modules.length,
+        (double) flatNanos / TIMED_ITERATIONS,
+        (double) legacyNanos / TIMED_ITERATIONS,
+        Double.isNaN(sink) ? "NaN" : "ok");
+  }
+
+  /**
+   * Creates modules evenly spaced around a circle.
+   *
+   * @param moduleCount The number of modules.
+   * @param centerX The x coordinate of the circle's center, in feet.
+   * @param centerY The y coordinate of the circle's center, in feet.
+   * @return The mocked modules.
+   */
+  private SwerveModule[] createModules(int moduleCount, double centerX, double centerY) {
+    SwerveModule[] modules = new SwerveModule[moduleCount];
+    for (int idx = 0; idx < moduleCount; idx++) {
+      double angle = 2 * Math.PI * (idx + 0.5) / moduleCount;
+      modules[idx] = mock(SwerveModule.class);
+      when(modules[idx].getLocation())
+          .thenReturn(
+              Vector2D.createCartesianCoordinates(
+                  centerX + Math.cos(angle), centerY + Math.sin(angle)));
+      when(modules[idx].getMotors())
+          .thenReturn(new SwerveMotor[] {mock(SwerveMotor.class), mock(SwerveMotor.class)});
+    }
+    return modules;
+  }
+
+  /** The Commons Math matrix solve that the flat kernel replaced. */
+  private static class LegacyKernel {
+    private final RealMatrix forwardKinematics;
+    private final RealMatrix moduleStatesMatrix;
+
+    public LegacyKernel(SwerveModule[] modules) {
+      RealMatrix inverseKinematics = new Array2DRowRealMatrix(modules.length * 2, 3);
+      for (int idx = 0; idx < modules.length; idx++) {
+        Vector2D location = modules[idx].getLocation();
+        inverseKinematics.setEntry(idx * 2, 0, 1);
+        inverseKinematics.setEntry(idx * 2, 2, -location.getY());
+        inverseKinematics.setEntry(idx * 2 + 1, 1, 1);
+        inverseKinematics.setEntry(idx * 2 + 1, 2, location.getX());
+      }
+      forwardKinematics =
+          new SingularValueDecomposition(inverseKinematics).getSolver().getInverse();
+      moduleStatesMatrix = new Array2DRowRealMatrix(modules.length * 2, 1);
+    }
+
+    public RealMatrix calculate(double[] moduleVelocities) {
+      for (int idx = 0; idx < moduleVelocities.length; idx++) {
+        moduleStatesMatrix.setEntry(idx, 0, moduleVelocities[idx]);
+      }
+      return forwardKinematics.multiply(moduleStatesMatrix);
+    }
+  }
+}
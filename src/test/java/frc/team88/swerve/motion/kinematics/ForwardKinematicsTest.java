@@ -0,0 +1,465 @@
+package frc.team88.swerve.motion.kinematics;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import frc.team88.swerve.configuration.subconfig.OdometryConfiguration;
+import frc.team88.swerve.gyro.SwerveGyro;
+import frc.team88.swerve.module.ModuleBank;
+import frc.team88.swerve.motion.state.OdomState;
+import frc.team88.swerve.util.LoopClock;
+import java.util.Random;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SingularValueDecomposition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class ForwardKinematicsTest {
+
+  private LoopClock clock;
+
+  // The time returned by the clock's time source, in microseconds.
+  private long time;
+
+  @Mock private OdometryConfiguration odometryConfig;
+
+  private TestGyro gyro;
+
+  @Mock private ModuleBank bank;
+
+  // The module state returned by the bank, which the tests set directly.
+  private double[] locations;
+  private double[] wheelVelocities;
+  private double[] wheelPositions;
+  private double[] azimuthPositions;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    time = 0;
+    clock = new LoopClock(() -> time);
+    gyro = new TestGyro();
+    when(odometryConfig.getHistoryCapacity()).thenReturn(50);
+  }
+
+  /** Enables fusing the gyro into the heading. */
+  private void enableGyroFusion() {
+    when(odometryConfig.isFuseGyro()).thenReturn(true);
+    when(odometryConfig.getHeadingStdDev()).thenReturn(1.);
+    when(odometryConfig.getGyroYawStdDev()).thenReturn(0.5);
+    when(odometryConfig.getGyroRateStdDev()).thenReturn(1.);
+    when(odometryConfig.getWheelRateStdDev()).thenReturn(2.);
+    when(odometryConfig.getYawAccelerationStdDev()).thenReturn(100.);
+  }
+
+  /**
+   * Creates forward kinematics over the mocked module bank.
+   *
+   * @param moduleLocations The module locations, in feet, interleaved as [x0, y0, x1, y1, ...].
+   * @return The forward kinematics.
+   */
+  private ForwardKinematics createKinematics(double... moduleLocations) {
+    int moduleCount = moduleLocations.length / 2;
+    locations = moduleLocations;
+    double[] locationsX = new double[moduleCount];
+    double[] locationsY = new double[moduleCount];
+    for (int idx = 0; idx < moduleCount; idx++) {
+      locationsX[idx] = moduleLocations[idx * 2];
+      locationsY[idx] = moduleLocations[idx * 2 + 1];
+    }
+    wheelVelocities = new double[moduleCount];
+    wheelPositions = new double[moduleCount];
+    azimuthPositions = new double[moduleCount];
+    when(bank.size()).thenReturn(moduleCount);
+    when(bank.getLocationsX()).thenReturn(locationsX);
+    when(bank.getLocationsY()).thenReturn(locationsY);
+    when(bank.getWheelVelocities()).thenReturn(wheelVelocities);
+    when(bank.getWheelPositions()).thenReturn(wheelPositions);
+    when(bank.getAzimuthPositions()).thenReturn(azimuthPositions);
+    return new ForwardKinematics(clock, odometryConfig, gyro, bank);
+  }
+
+  /**
+   * Calculates the velocity of each module for a chassis motion.
+   *
+   * @param vx The chassis x velocity, in feet per second.
+   * @param vy The chassis y velocity, in feet per second.
+   * @param omega The chassis angular velocity, in degrees per second.
+   * @return The module velocities, interleaved as [vx0, vy0, vx1, vy1, ...].
+   */
+  private double[] calculateModuleVelocities(double vx, double vy, double omega) {
+    double omegaRad = Math.toRadians(omega);
+    double[] moduleVelocities = new double[locations.length];
+    for (int idx = 0; idx < locations.length; idx += 2) {
+      moduleVelocities[idx] = vx - omegaRad * locations[idx + 1];
+      moduleVelocities[idx + 1] = vy + omegaRad * locations[idx];
+    }
+    return moduleVelocities;
+  }
+
+  /**
+   * Sets the wheel velocities and azimuths returned by the bank for a chassis motion.
+   *
+   * @param vx The chassis x velocity, in feet per second.
+   * @param vy The chassis y velocity, in feet per second.
+   * @param omega The chassis angular velocity, in degrees per second.
+   */
+  private void setChassisMotion(double vx, double vy, double omega) {
+    double[] moduleVelocities = calculateModuleVelocities(vx, vy, omega);
+    for (int idx = 0; idx < wheelVelocities.length; idx++) {
+      double moduleVx = moduleVelocities[idx * 2];
+      double moduleVy = moduleVelocities[idx * 2 + 1];
+      wheelVelocities[idx] = Math.sqrt(moduleVx * moduleVx + moduleVy * moduleVy);
+      azimuthPositions[idx] = Math.toDegrees(Math.atan2(moduleVy, moduleVx));
+    }
+  }
+
+  /**
+   * Advances the clock and updates the kinematics.
+   *
+   * @param fk The forward kinematics to update.
+   * @param dt The time to advance, in seconds.
+   */
+  private void step(ForwardKinematics fk, double dt) {
+    time += Math.round(dt * 1E6);
+    clock.update();
+    fk.update();
+  }
+
+  @Test
+  public void testCalculateChassisVelocityCentered() {
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1, 1, -1);
+    double[] chassisVelocity = new double[3];
+    fk.calculateChassisVelocity(calculateModuleVelocities(3, -2, 45), chassisVelocity);
+    assertDoubleEquals(3, chassisVelocity[0]);
+    assertDoubleEquals(-2, chassisVelocity[1]);
+    assertDoubleEquals(45, chassisVelocity[2]);
+  }
+
+  @Test
+  public void testCalculateChassisVelocityOffset() {
+    ForwardKinematics fk = createKinematics(2, 1.5, 0.5, 1, 0, -1, 2.5, -0.5);
+    double[] chassisVelocity = new double[3];
+    fk.calculateChassisVelocity(calculateModuleVelocities(-1.5, 4, -120), chassisVelocity);
+    assertDoubleEquals(-1.5, chassisVelocity[0]);
+    assertDoubleEquals(4, chassisVelocity[1]);
+    assertDoubleEquals(-120, chassisVelocity[2]);
+  }
+
+  @Test
+  public void testUpdateMeasuresChassisVelocity() {
+    ForwardKinematics fk = createKinematics(2, 1.5, 0.5, 1, 0, -1, 2.5, -0.5);
+    setChassisMotion(2, 1, 30);
+    step(fk, 0.02);
+    assertDoubleEquals(2, fk.getOdom().getXVelocity());
+    assertDoubleEquals(1, fk.getOdom().getYVelocity());
+    assertDoubleEquals(30, fk.getOdom().getThetaVelocity());
+  }
+
+  @Test
+  public void testGyroCalibrationDoesNotMoveHeading() {
+    enableGyroFusion();
+    gyro.yaw = 10;
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1, 1, -1);
+    for (int cycle = 0; cycle < 5; cycle++) {
+      step(fk, 0.02);
+    }
+    assertDoubleEquals(0, fk.getOdom().getTheta());
+
+    // The calibration waits for the control loop
+    fk.calibrateGyroYaw(90);
+    assertDoubleEquals(10, gyro.yaw);
+
+    for (int cycle = 0; cycle < 5; cycle++) {
+      step(fk, 0.02);
+    }
+    assertDoubleEquals(90, gyro.yaw);
+    assertDoubleEquals(0, fk.getOdom().getTheta());
+
+    // The gyro still steers the heading from its new yaw
+    gyro.yaw = 100;
+    for (int cycle = 0; cycle < 150; cycle++) {
+      step(fk, 0.02);
+    }
+    assertEquals(10, fk.getOdom().getTheta(), 0.5);
+  }
+
+  @Test
+  public void testLateVisionMeasurementCorrectsHistoryAndReplays() {
+    when(odometryConfig.getPositionStdDev()).thenReturn(1.);
+    when(odometryConfig.getHeadingStdDev()).thenReturn(1.);
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1, 1, -1);
+    setChassisMotion(5, 0, 0);
+    for (int cycle = 0; cycle < 5; cycle++) {
+      step(fk, 0.02);
+    }
+    double measurementTime = clock.getTimestampSeconds();
+    OdomState historical = fk.getOdom();
+    for (int cycle = 0; cycle < 5; cycle++) {
+      step(fk, 0.02);
+    }
+    OdomState current = fk.getOdom();
+    assertTrue(current.getXPosition() > historical.getXPosition() + 0.4);
+
+    // The measurement arrives late, and has the same uncertainty as the
+    // odometry, so the historical pose moves halfway to it
+    fk.addVisionMeasurement(
+        historical.getXPosition() + 2,
+        historical.getYPosition() + 1,
+        historical.getTheta() + 10,
+        measurementTime,
+        new double[] {1, 1, 1});
+    setChassisMotion(0, 0, 0);
+    step(fk, 0.02);
+
+    double[] pose = new double[3];
+    assertTrue(fk.getHistoricalPose(measurementTime, pose));
+    assertDoubleEquals(historical.getXPosition() + 1, pose[0]);
+    assertDoubleEquals(historical.getYPosition() + 0.5, pose[1]);
+    assertDoubleEquals(historical.getTheta() + 5, pose[2]);
+
+    // The driving since the measurement is replayed from the corrected pose,
+    // so it is rotated by the heading correction
+    double traveled = current.getXPosition() - historical.getXPosition();
+    double dThetaRad = Math.toRadians(5);
+    OdomState corrected = fk.getOdom();
+    assertDoubleEquals(pose[0] + Math.cos(dThetaRad) * traveled, corrected.getXPosition());
+    assertDoubleEquals(pose[1] + Math.sin(dThetaRad) * traveled, corrected.getYPosition());
+    assertDoubleEquals(current.getTheta() + 5, corrected.getTheta());
+  }
+
+  @Test
+  public void testGyroCalibrationWithoutFusionIsImmediate() {
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1, 1, -1);
+    fk.calibrateGyroYaw(45);
+    assertDoubleEquals(45, gyro.yaw);
+  }
+
+  @Test
+  public void testSlippingModuleIsDownWeighted() {
+    when(odometryConfig.getSlipRejectionIterations()).thenReturn(10);
+    when(odometryConfig.getSlipThreshold()).thenReturn(0.25);
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1, 1, -1);
+    setChassisMotion(2, 0, 0);
+    wheelVelocities[0] += 3;
+    step(fk, 0.02);
+
+    double[] residuals = new double[4];
+    double[] weights = new double[4];
+    fk.getModuleFit(residuals, weights);
+    assertTrue(weights[0] < 0.25);
+    for (int idx = 1; idx < 4; idx++) {
+      assertDoubleEquals(1, weights[idx]);
+    }
+    // The equally weighted solution would be off by 0.75 feet per second
+    assertEquals(2, fk.getOdom().getXVelocity(), 0.15);
+  }
+
+  @Test
+  public void testSolveWeightedMatchesSubsetKernel() {
+    ForwardKinematics fk = createKinematics(2, 1.5, 0.5, 1, 0, -1, 2.5, -0.5);
+    double[] moduleVelocities = {1, 2, -0.5, 3, 4, 0.25, -2, -1};
+    double[] weighted = new double[3];
+    assertTrue(fk.solveWeighted(new double[] {1, 0, 1, 1}, moduleVelocities, weighted));
+
+    fk.setModuleEnabled(1, false);
+    step(fk, 0.02);
+    double[] expected = new double[3];
+    fk.calculateChassisVelocity(moduleVelocities, expected);
+    assertArrayEquals(expected, weighted, 1E-9);
+  }
+
+  @Test
+  public void testSolveWeightedRejectsDegenerateWeights() {
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1, 1, -1);
+    double[] chassisVelocity = {7, 8, 9};
+    assertFalse(
+        fk.solveWeighted(
+            new double[] {1, 0, 0, 0}, calculateModuleVelocities(1, 0, 0), chassisVelocity));
+    assertArrayEquals(new double[] {7, 8, 9}, chassisVelocity, 0);
+  }
+
+  @Test
+  public void testDegenerateSlipRejectionKeepsEqualWeights() {
+    when(odometryConfig.getSlipRejectionIterations()).thenReturn(25);
+    when(odometryConfig.getSlipThreshold()).thenReturn(1E-6);
+    // Two of the modules are almost in the same place, so once the third is
+    // rejected the rest can't determine the rotation
+    ForwardKinematics fk = createKinematics(1, 0, 1, 1E-4, -1, 0);
+    setChassisMotion(2, 0, 0);
+    wheelVelocities[2] += 10;
+    step(fk, 0.02);
+
+    double[] residuals = new double[3];
+    double[] weights = new double[3];
+    fk.getModuleFit(residuals, weights);
+    assertArrayEquals(new double[] {1, 1, 1}, weights, 0);
+    double[] expected = new double[3];
+    double[] moduleVelocities = calculateModuleVelocities(2, 0, 0);
+    moduleVelocities[4] += 10;
+    fk.calculateChassisVelocity(moduleVelocities, expected);
+    assertDoubleEquals(expected[0], fk.getOdom().getXVelocity());
+    assertDoubleEquals(expected[1], fk.getOdom().getYVelocity());
+    assertDoubleEquals(expected[2], fk.getOdom().getThetaVelocity());
+  }
+
+  @Test
+  public void testSubsetKernelsMatchSubsetDecomposition() {
+    ForwardKinematics fk = createKinematics(2, 1.5, 0.5, 1, 0, -1, 2.5, -0.5);
+    Random random = new Random(88);
+    double[] moduleVelocities = new double[8];
+    double[] chassisVelocity = new double[3];
+    for (int subset = 0; subset < 16; subset++) {
+      if (Integer.bitCount(subset) < 2) {
+        continue;
+      }
+      for (int idx = 0; idx < 4; idx++) {
+        fk.setModuleEnabled(idx, true);
+      }
+      for (int idx = 0; idx < 4; idx++) {
+        fk.setModuleEnabled(idx, (subset & (1 << idx)) != 0);
+      }
+      step(fk, 0.02);
+
+      // Solve the subset's own least squares problem
+      int subsetSize = Integer.bitCount(subset);
+      RealMatrix inverseKinematics = new Array2DRowRealMatrix(subsetSize * 2, 3);
+      double[] subsetVelocities = new double[subsetSize * 2];
+      for (int idx = 0; idx < 8; idx++) {
+        moduleVelocities[idx] = random.nextDouble() * 10 - 5;
+      }
+      int row = 0;
+      for (int idx = 0; idx < 4; idx++) {
+        if ((subset & (1 << idx)) == 0) {
+          continue;
+        }
+        inverseKinematics.setEntry(row, 0, 1);
+        inverseKinematics.setEntry(row, 2, -locations[idx * 2 + 1]);
+        inverseKinematics.setEntry(row + 1, 1, 1);
+        inverseKinematics.setEntry(row + 1, 2, locations[idx * 2]);
+        subsetVelocities[row] = moduleVelocities[idx * 2];
+        subsetVelocities[row + 1] = moduleVelocities[idx * 2 + 1];
+        row += 2;
+      }
+      double[] expected =
+          new SingularValueDecomposition(inverseKinematics)
+              .getSolver()
+              .getInverse()
+              .operate(subsetVelocities);
+
+      fk.calculateChassisVelocity(moduleVelocities, chassisVelocity);
+      assertEquals(expected[0], chassisVelocity[0], 1E-9);
+      assertEquals(expected[1], chassisVelocity[1], 1E-9);
+      assertEquals(Math.toDegrees(expected[2]), chassisVelocity[2], 1E-9);
+    }
+  }
+
+  @Test
+  public void testDisablingBelowTwoModulesThrows() {
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1);
+    fk.setModuleEnabled(0, false);
+    assertThrows(IllegalStateException.class, () -> fk.setModuleEnabled(1, false));
+    assertTrue(fk.isModuleEnabled(1));
+    assertTrue(fk.isModuleEnabled(2));
+    assertEquals(0b110, fk.getEnabledModules());
+  }
+
+  @Test
+  public void testWheelIntegrationIgnoresIrregularCycles() {
+    when(odometryConfig.isIntegrateWheelPositions()).thenReturn(true);
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1, 1, -1);
+    step(fk, 0.02);
+
+    // Drive straight at 3 feet per second, with a late cycle, a skipped
+    // cycle, and a clock jump
+    double[] dts = {0.02, 0.013, 0.031, 0.04, 0.02, 20, 0.02};
+    double distance = 0;
+    for (double dt : dts) {
+      distance += 3 * dt;
+      for (int idx = 0; idx < 4; idx++) {
+        wheelPositions[idx] = distance;
+      }
+      step(fk, dt);
+    }
+    assertDoubleEquals(distance, fk.getOdom().getXPosition());
+    assertDoubleEquals(0, fk.getOdom().getYPosition());
+    assertDoubleEquals(0, fk.getOdom().getTheta());
+  }
+
+  @Test
+  public void testWheelIntegrationWrapsAzimuth() {
+    when(odometryConfig.isIntegrateWheelPositions()).thenReturn(true);
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1, 1, -1);
+    for (int idx = 0; idx < 4; idx++) {
+      azimuthPositions[idx] = 179;
+    }
+    step(fk, 0.02);
+
+    // The wheels turned through 180 degrees, not through 0
+    for (int idx = 0; idx < 4; idx++) {
+      azimuthPositions[idx] = -179;
+      wheelPositions[idx] = 1;
+    }
+    step(fk, 0.02);
+    assertDoubleEquals(-1, fk.getOdom().getXPosition());
+    assertDoubleEquals(0, fk.getOdom().getYPosition());
+  }
+
+  @Test
+  public void testWheelIntegrationStartsFromFirstUpdate() {
+    when(odometryConfig.isIntegrateWheelPositions()).thenReturn(true);
+    ForwardKinematics fk = createKinematics(1, 1, -1, 1, -1, -1, 1, -1);
+    for (int idx = 0; idx < 4; idx++) {
+      wheelPositions[idx] = 5;
+    }
+    step(fk, 0.02);
+    assertDoubleEquals(0, fk.getOdom().getXPosition());
+
+    // The wheels moved before the pose was set, which shouldn't count
+    OdomState pose = new OdomState();
+    pose.setPosition(10, -4);
+    pose.setTheta(0);
+    fk.setOdom(pose);
+    for (int idx = 0; idx < 4; idx++) {
+      wheelPositions[idx] = 8;
+    }
+    step(fk, 0.02);
+    assertDoubleEquals(10, fk.getOdom().getXPosition());
+    assertDoubleEquals(-4, fk.getOdom().getYPosition());
+
+    for (int idx = 0; idx < 4; idx++) {
+      wheelPositions[idx] = 9;
+    }
+    step(fk, 0.02);
+    assertDoubleEquals(11, fk.getOdom().getXPosition());
+  }
+
+  /** A gyro that reads a set yaw, and is calibrated by setting it. */
+  private static class TestGyro implements SwerveGyro {
+
+    private double yaw;
+
+    @Override
+    public double getYaw() {
+      return this.yaw;
+    }
+
+    @Override
+    public double getYawRate() {
+      return 0;
+    }
+
+    @Override
+    public void calibrateYaw(double yaw) {
+      this.yaw = yaw;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package frc.team88.swerve.motion.kinematics;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HeadingEstimatorTest {
+
+  private HeadingEstimator estimator;
+
+  @BeforeEach
+  public void setup() {
+    estimator = new HeadingEstimator();
+    estimator.reset(10, 90, 1, 5);
+  }
+
+  @Test
+  public void testPredictIntegratesRate() {
+    double initialVariance = estimator.getHeadingVariance();
+    estimator.predict(0.02, 100);
+    assertDoubleEquals(11.8, estimator.getHeading());
+    assertDoubleEquals(90, estimator.getRate());
+    assertTrue(estimator.getHeadingVariance() > initialVariance);
+  }
+
+  @Test
+  public void testCorrectionsAreWeightedByVariance() {
+    // Equal variances split the difference.
+    estimator.correctHeading(12, 1);
+    assertDoubleEquals(11, estimator.getHeading());
+    assertDoubleEquals(0.5, estimator.getHeadingVariance());
+
+    // A perfect rate measurement is taken as is.
+    estimator.correctRate(45, 0);
+    assertDoubleEquals(45, estimator.getRate());
+    assertDoubleEquals(0, estimator.getRateVariance());
+  }
+
+  @Test
+  public void testHeadingMeasurementIsUnwrapped() {
+    estimator.reset(350, 0, 1, 1);
+    estimator.correctHeading(-8, 1);
+    assertDoubleEquals(351, estimator.getHeading());
+  }
+
+  @Test
+  public void testGyroRemovesWheelDrift() {
+    // The wheels report 5 deg/s of rotation while the gyro says the robot
+    // is still, as when the wheels are scrubbing.
+    estimator.reset(0, 0, 1, 1);
+    for (int cycle = 0; cycle < 500; cycle++) {
+      estimator.predict(0.02, 100);
+      estimator.correctRate(5, 20);
+      estimator.correctRate(0, 2);
+      estimator.correctHeading(0, 1);
+    }
+    assertEquals(0, estimator.getHeading(), 0.5);
+    assertEquals(0, estimator.getRate(), 0.5);
+  }
+}
@@ -2,9 +2,12 @@ package frc.team88.swerve.motion.kinematics;
 
 import static frc.team88.swerve.TestUtils.assertDoubleEquals;
 import static frc.team88.swerve.TestUtils.assertVectorEquals;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import frc.team88.swerve.module.ModuleBank;
 import frc.team88.swerve.module.SwerveModule;
+import frc.team88.swerve.module.motor.SwerveMotor;
 import frc.team88.swerve.motion.state.VelocityState;
 import frc.team88.swerve.util.Vector2D;
 import frc.team88.swerve.util.WrappedAngle;
@@ -17,6 +20,8 @@ public class InverseKinematicsTest {
 
   private InverseKinematics ik;
 
+  private ModuleBank bank;
+
   @Mock private SwerveModule module1;
 
   @Mock private SwerveModule module2;
@@ -24,8 +29,15 @@ public class InverseKinematicsTest {
   @BeforeEach
   public void setup() {
     MockitoAnnotations.initMocks(this);
+    when(module1.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(1, 1));
+    when(module2.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(-1, -1));
+    when(module1.getMotors())
+        .thenReturn(new SwerveMotor[] {mock(SwerveMotor.class), mock(SwerveMotor.class)});
+    when(module2.getMotors())
+        .thenReturn(new SwerveMotor[] {mock(SwerveMotor.class), mock(SwerveMotor.class)});
 
-    ik = new InverseKinematics(module1, module2);
+    bank = new ModuleBank(module1, module2);
+    ik = new InverseKinematics(bank);
   }
 
   @Test
@@ -58,4 +70,56 @@ public class InverseKinematicsTest {
     assertDoubleEquals(90. * Math.sqrt(5.) * (2. * Math.PI) / 360., result.getMagnitude());
     assertDoubleEquals(location.getAngle().plus(-90).asDouble(), result.getAngle().asDouble());
   }
+
+  @Test
+  public void testCalculateIntoBuffersStopped() {
+    when(module1.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(1, 1));
+    when(module2.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(-1, -1));
+    bank.refresh();
+    double[] azimuthPositions = new double[2];
+    double[] wheelSpeeds = new double[2];
+    ik.calculate(new VelocityState(30, 0, 0, false), azimuthPositions, wheelSpeeds);
+
+    for (int idx = 0; idx < 2; idx++) {
+      assertDoubleEquals(30, azimuthPositions[idx]);
+      assertDoubleEquals(0, wheelSpeeds[idx]);
+    }
+  }
+
+  @Test
+  public void testCalculateIntoBuffersMatchesVectors() {
+    Vector2D location = Vector2D.createCartesianCoordinates(3, 2);
+    when(module1.getLocation()).thenReturn(location);
+    when(module2.getLocation()).thenReturn(location);
+    bank.refresh();
+    VelocityState state = new VelocityState(-60, 3, -120, 1, -1, false);
+
+    Vector2D expected =
+        ik.calculateModuleTranslationVector(state)
+            .plus(ik.calculateModuleRotationVectors(state, module1));
+    double[] azimuthPositions = new double[2];
+    double[] wheelSpeeds = new double[2];
+    ik.calculate(state, azimuthPositions, wheelSpeeds);
+
+    assertDoubleEquals(expected.getAngle().asDouble(), azimuthPositions[0]);
+    assertDoubleEquals(expected.getMagnitude(), wheelSpeeds[0]);
+  }
+
+  @Test
+  public void testModuleRotationVectorsFollowCenterOfRotation() {
+    when(module1.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(3, 2));
+    when(module2.getLocation()).thenReturn(Vector2D.createCartesianCoordinates(-1, -1));
+    bank.refresh();
+    double degreesToRadians = Math.PI / 180.;
+
+    double[] rotationVectors = ik.getModuleRotationVectors(0, 0);
+    assertDoubleEquals(-2 * degreesToRadians, rotationVectors[0]);
+    assertDoubleEquals(3 * degreesToRadians, rotationVectors[1]);
+
+    rotationVectors = ik.getModuleRotationVectors(1, -1);
+    assertDoubleEquals(-3 * degreesToRadians, rotationVectors[0]);
+    assertDoubleEquals(2 * degreesToRadians, rotationVectors[1]);
+    assertDoubleEquals(0, rotationVectors[2]);
+    assertDoubleEquals(-2 * degreesToRadians, rotationVectors[3]);
+  }
 }
@@ -0,0 +1,109 @@
+package frc.team88.swerve.motion.kinematics;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PoseHistoryTest {
+
+  private PoseHistory history;
+  private double[] pose;
+
+  @BeforeEach
+  public void setup() {
+    history = new PoseHistory(4);
+    pose = new double[3];
+  }
+
+  @Test
+  public void testInterpolatesBetweenSamples() {
+    history.add(1.0, 0, 0, 0);
+    history.add(1.1, 2, 4, 10);
+    assertTrue(history.getPose(1.025, pose));
+    assertDoubleEquals(0.5, pose[0]);
+    assertDoubleEquals(1, pose[1]);
+    assertDoubleEquals(2.5, pose[2]);
+  }
+
+  @Test
+  public void testLookupOutsideHistory() {
+    assertFalse(history.getPose(1.0, pose));
+    history.add(1.0, 1, 2, 3);
+    history.add(1.1, 4, 5, 6);
+    assertFalse(history.getPose(0.9, pose));
+    assertTrue(history.getPose(2.0, pose));
+    assertDoubleEquals(4, pose[0]);
+    assertDoubleEquals(6, pose[2]);
+  }
+
+  @Test
+  public void testOverwritesOldestWhenFull() {
+    for (int sample = 0; sample < 6; sample++) {
+      history.add(sample, sample, 0, 0);
+    }
+    assertEquals(4, history.size());
+    assertDoubleEquals(2, history.getOldestTimestamp());
+    assertDoubleEquals(5, history.getNewestTimestamp());
+    assertTrue(history.getPose(4.5, pose));
+    assertDoubleEquals(4.5, pose[0]);
+  }
+
+  @Test
+  public void testClockJumpClearsHistory() {
+    history.add(5, 1, 1, 1);
+    history.add(6, 2, 2, 2);
+    history.add(1, 3, 3, 3);
+    assertEquals(1, history.size());
+    assertDoubleEquals(1, history.getOldestTimestamp());
+  }
+
+  @Test
+  public void testTransformAfter() {
+    history.add(1, 0, 0, 0);
+    history.add(2, 1, 0, 0);
+    history.add(3, 2, 0, 0);
+    // Rotate 90 degrees about (1, 0) and shift by (0, 1), starting after t=1.5.
+    history.transformAfter(1.5, 1, 0, 0, 1, 90);
+
+    assertTrue(history.getPose(1, pose));
+    assertDoubleEquals(0, pose[0]);
+    assertDoubleEquals(0, pose[2]);
+
+    assertTrue(history.getPose(2, pose));
+    assertDoubleEquals(1, pose[0]);
+    assertDoubleEquals(1, pose[1]);
+    assertDoubleEquals(90, pose[2]);
+
+    assertTrue(history.getPose(3, pose));
+    assertDoubleEquals(1, pose[0]);
+    assertDoubleEquals(2, pose[1]);
+    assertDoubleEquals(90, pose[2]);
+  }
+
+  @Test
+  public void testTransformAfterIncludesSampleAtTime() {
+    history.add(1, 0, 0, 0);
+    history.add(2, 1, 0, 0);
+    history.add(3, 2, 0, 0);
+    history.transformAfter(2, 1, 0, 0, 1, 90);
+
+    assertTrue(history.getPose(1, pose));
+    assertDoubleEquals(0, pose[0]);
+    assertDoubleEquals(0, pose[1]);
+
+    assertTrue(history.getPose(2, pose));
+    assertDoubleEquals(1, pose[0]);
+    assertDoubleEquals(1, pose[1]);
+    assertDoubleEquals(90, pose[2]);
+
+    // The newest sample can be corrected too
+    history.transformAfter(3, 0, 0, 1, 0, 0);
+    assertTrue(history.getPose(3, pose));
+    assertDoubleEquals(2, pose[0]);
+    assertDoubleEquals(2, pose[1]);
+  }
+}
@@ -0,0 +1,62 @@
+package frc.team88.swerve.util;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ControlThreadTest {
+
+  private long virtualTime;
+  private long taskDuration;
+  private ControlThread thread;
+
+  @BeforeEach
+  public void setup() {
+    virtualTime = 1_000_000;
+    taskDuration = 0;
+    thread = new ControlThread(() -> virtualTime += taskDuration, 0.004, 0, () -> virtualTime);
+  }
+
+  /**
+   * Runs a cycle that starts at the given time.
+   *
+   * @param startTime The start time of the cycle, in microseconds.
+   */
+  private void runCycleAt(long startTime) {
+    virtualTime = startTime;
+    thread.runCycle();
+  }
+
+  @Test
+  public void testFirstCycleHasNoJitter() {
+    runCycleAt(1_000_000);
+    assertEquals(1, thread.getCycleCount());
+    assertEquals(0, thread.getLastJitter());
+    assertDoubleEquals(0, thread.getMeanJitter());
+  }
+
+  @Test
+  public void testJitter() {
+    runCycleAt(1_000_000);
+    runCycleAt(1_004_500);
+    runCycleAt(1_008_200);
+
+    assertEquals(-300, thread.getLastJitter());
+    assertEquals(500, thread.getMaxJitter());
+    assertDoubleEquals(400, thread.getMeanJitter());
+  }
+
+  @Test
+  public void testOverrun() {
+    taskDuration = 3_000;
+    runCycleAt(1_000_000);
+    assertEquals(3_000, thread.getLastExecutionTime());
+    assertEquals(0, thread.getOverrunCount());
+
+    taskDuration = 5_000;
+    runCycleAt(1_004_000);
+    assertEquals(1, thread.getOverrunCount());
+  }
+}
@@ -0,0 +1,42 @@
+package frc.team88.swerve.util;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoopClockTest {
+
+  private long virtualTime;
+  private LoopClock clock;
+
+  @BeforeEach
+  public void setup() {
+    virtualTime = 1_000_000;
+    clock = new LoopClock(() -> virtualTime);
+  }
+
+  @Test
+  public void testInitialTimestamp() {
+    assertEquals(1_000_000, clock.getTimestamp());
+    assertDoubleEquals(0, clock.getDt());
+  }
+
+  @Test
+  public void testTimestampHeldUntilUpdate() {
+    virtualTime += 20_000;
+    assertEquals(1_000_000, clock.getTimestamp());
+    clock.update();
+    assertEquals(1_020_000, clock.getTimestamp());
+    assertDoubleEquals(1.02, clock.getTimestampSeconds());
+    assertDoubleEquals(0.02, clock.getDt());
+  }
+
+  @Test
+  public void testSetTimeSource() {
+    clock.setTimeSource(() -> 1_005_000);
+    clock.update();
+    assertDoubleEquals(0.005, clock.getDt());
+  }
+}
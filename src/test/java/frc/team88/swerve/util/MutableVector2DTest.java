@@ -0,0 +1,56 @@
+package frc.team88.swerve.util;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static frc.team88.swerve.TestUtils.assertVectorEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class MutableVector2DTest {
+
+  @Test
+  public void testSetPolar() {
+    MutableVector2D v = new MutableVector2D().setPolar(2, 120);
+    assertDoubleEquals(-1, v.getX());
+    assertDoubleEquals(Math.sqrt(3), v.getY());
+  }
+
+  @Test
+  public void testGetMagnitude() {
+    assertDoubleEquals(Math.sqrt(10), new MutableVector2D(3, -1).getMagnitude());
+  }
+
+  @Test
+  public void testGetAngle() {
+    assertDoubleEquals(-135, new MutableVector2D(-1, -1).getAngle());
+  }
+
+  @Test
+  public void testPlus() {
+    MutableVector2D v = new MutableVector2D(3, -1);
+    v.plus(Vector2D.createCartesianCoordinates(-1, 2)).plus(new MutableVector2D(1, 1));
+    assertDoubleEquals(3, v.getX());
+    assertDoubleEquals(2, v.getY());
+  }
+
+  @Test
+  public void testScale() {
+    MutableVector2D v = new MutableVector2D(3, -1).scale(-2);
+    assertDoubleEquals(-6, v.getX());
+    assertDoubleEquals(2, v.getY());
+  }
+
+  @Test
+  public void testRotateMatchesVector2D() {
+    Vector2D expected = Vector2D.createCartesianCoordinates(3, -1).rotate(-135);
+    double angleRad = Math.toRadians(-135);
+    MutableVector2D v = new MutableVector2D(3, -1).rotate(Math.cos(angleRad), Math.sin(angleRad));
+    assertVectorEquals(expected, v.toVector2D());
+  }
+
+  @Test
+  public void testRotate90() {
+    MutableVector2D v = new MutableVector2D(3, -1).rotate90();
+    assertDoubleEquals(1, v.getX());
+    assertDoubleEquals(3, v.getY());
+  }
+}
@@ -0,0 +1,54 @@
+package frc.team88.swerve.util;
+
+import static frc.team88.swerve.TestUtils.assertDoubleEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class SeqLockBufferTest {
+
+  @Test
+  public void testReadReturnsLastWrite() {
+    SeqLockBuffer buffer = new SeqLockBuffer(3);
+    double[] destination = new double[3];
+    assertEquals(0, buffer.read(destination));
+    assertDoubleEquals(0, destination[2]);
+
+    buffer.write(new double[] {1, 2, 3});
+    buffer.write(new double[] {4, 5, 6});
+    assertEquals(2, buffer.read(destination));
+    assertDoubleEquals(4, destination[0]);
+    assertDoubleEquals(5, destination[1]);
+    assertDoubleEquals(6, destination[2]);
+  }
+
+  @Test
+  public void testConcurrentReadsAreNotTorn() throws InterruptedException {
+    SeqLockBuffer buffer = new SeqLockBuffer(8);
+    int writes = 200_000;
+    Thread writer =
+        new Thread(
+            () -> {
+              double[] source = new double[8];
+              for (int write = 1; write <= writes; write++) {
+                Arrays.fill(source, write);
+                buffer.write(source);
+              }
+            });
+    writer.start();
+
+    double[] destination = new double[8];
+    long lastSequence = 0;
+    while (lastSequence < writes) {
+      long sequence = buffer.read(destination);
+      assertTrue(sequence >= lastSequence);
+      for (double value : destination) {
+        assertDoubleEquals(sequence, value);
+      }
+      lastSequence = sequence;
+    }
+    writer.join();
+  }
+}
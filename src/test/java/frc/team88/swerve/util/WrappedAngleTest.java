@@ -90,6 +90,26 @@ public class WrappedAngleTest {
     assertDoubleEquals(-20, WrappedAngle.wrapAngle(-1100));
   }
 
+  @Test
+  public void testWrapAngle360Neg() {
+    assertDoubleEquals(270, WrappedAngle.wrapAngle360(-90));
+  }
+
+  @Test
+  public void testWrapAngle360At360() {
+    assertDoubleEquals(0, WrappedAngle.wrapAngle360(360));
+  }
+
+  @Test
+  public void testWrapAngle360FarOver() {
+    assertDoubleEquals(20, WrappedAngle.wrapAngle360(1100));
+  }
+
+  @Test
+  public void testSmallestDifferenceUnwrapped() {
+    assertDoubleEquals(-20, WrappedAngle.getSmallestDifference(710, -30));
+  }
+
   @Test
   public void testAngleDistances() {
     for (WrappedAngle currentAngle : this.allAngles) {